@@ -0,0 +1,133 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Crash-safe replacement of a file
+ * The new contents are written to a temporary file next to the file, forced to disk,
+ * and then renamed over the file in one step. Until the rename the old file is
+ * untouched, and after it the new contents are already on disk, so a crash or power
+ * cut at any point leaves either the complete old file or the complete new one,
+ * never a truncated mix. The directory is forced after the rename so the rename
+ * itself is not lost either.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public final class AtomicFile {
+    /**
+     * Interface for writing the new contents of a file
+     */
+    public interface Content {
+        /**
+         * Method to write the contents
+         *
+         * @param channel Empty channel of the temporary file
+         * @throws IOException If an error occurs during writing
+         */
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Interface for work that must be done after the new contents are on disk but
+     * before they replace the file
+     */
+    public interface BeforeReplace {
+        /**
+         * Method called with the temporary file, already forced to disk
+         *
+         * @param tempFile The temporary file about to be renamed over the file
+         * @throws IOException If an error occurs; the file is then not replaced
+         */
+        void written(File tempFile) throws IOException;
+    }
+
+    /**
+     * Constructor for AtomicFile
+     * Not used; all methods are static
+     */
+    private AtomicFile() {
+    }
+
+    /**
+     * Method to replace a file with new contents
+     * If writing fails or is cancelled, the temporary file is removed and the file
+     * stays as it was.
+     *
+     * @param file The file to replace
+     * @param content Writes the new contents
+     * @throws IOException If an error occurs during file writing
+     */
+    public static void write(File file, Content content) throws IOException {
+        write(file, content, null);
+    }
+
+    /**
+     * Method to replace a file with new contents, doing some work just before the rename
+     * If writing fails or is cancelled, the temporary file is removed and the file
+     * stays as it was.
+     *
+     * @param file The file to replace
+     * @param content Writes the new contents
+     * @param beforeReplace Called once the contents are on disk, before the rename, or null
+     * @throws IOException If an error occurs during file writing
+     */
+    public static void write(File file, Content content, BeforeReplace beforeReplace) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        boolean written = false;
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                content.writeTo(channel);
+                channel.force(true);
+            }
+            if (beforeReplace != null) {
+                beforeReplace.written(tempFile);
+            }
+            replace(tempFile, file);
+            written = true;
+        } finally {
+            if (!written) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Method to rename a file over another in one step
+     * Falls back to a plain replacing move on file systems without atomic renames.
+     *
+     * @param source The file with the new contents, already on disk
+     * @param target The file to replace
+     * @throws IOException If the file cannot be renamed
+     */
+    public static void replace(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(target);
+    }
+
+    /**
+     * Method to force the directory entry of a file to disk
+     * Not every platform can open a directory (e.g. Windows); there the rename is
+     * left to the file system.
+     *
+     * @param file The file whose directory is forced
+     */
+    private static void forceDirectory(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory == null) return;
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be forced on this platform
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Class holding the outcome of one entry of a batch check-in
+ * 
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class CheckInResult {
+    // Possible outcomes
+    public static final String CHECKED_IN = "CHECKED_IN";  // Attendance was marked
+    public static final String NOT_FOUND = "NOT_FOUND";    // No member with that ID
+    public static final String INACTIVE = "INACTIVE";      // Membership is not active, nothing was marked
+
+    private final int memberId;                // ID from the entry
+    private final long timestamp;              // Time of the entry, as given by the turnstile
+    private final String status;               // One of the outcomes above
+    private final int attendance;              // Attendance after the entry, or -1 if not found
+    private final double loyaltyPoints;        // Loyalty points after the entry, or -1 if not found
+    private final boolean eligibleForUpgrade;  // Whether a regular member is eligible for upgrade after the entry
+
+    /**
+     * Constructor for CheckInResult
+     * 
+     * @param memberId ID from the entry
+     * @param timestamp Time of the entry
+     * @param status One of CHECKED_IN, NOT_FOUND or INACTIVE
+     * @param attendance Attendance after the entry, or -1 if not found
+     * @param loyaltyPoints Loyalty points after the entry, or -1 if not found
+     * @param eligibleForUpgrade Whether a regular member is eligible for upgrade after the entry
+     */
+    public CheckInResult(int memberId, long timestamp, String status, int attendance,
+                         double loyaltyPoints, boolean eligibleForUpgrade) {
+        this.memberId = memberId;
+        this.timestamp = timestamp;
+        this.status = status;
+        this.attendance = attendance;
+        this.loyaltyPoints = loyaltyPoints;
+        this.eligibleForUpgrade = eligibleForUpgrade;
+    }
+
+    /**
+     * @return ID from the entry
+     */
+    public int getMemberId() { return memberId; }
+
+    /**
+     * @return Time of the entry, as given by the turnstile
+     */
+    public long getTimestamp() { return timestamp; }
+
+    /**
+     * @return One of CHECKED_IN, NOT_FOUND or INACTIVE
+     */
+    public String getStatus() { return status; }
+
+    /**
+     * @return True if attendance was marked
+     */
+    public boolean isCheckedIn() { return CHECKED_IN.equals(status); }
+
+    /**
+     * @return Attendance after the entry, or -1 if the member was not found
+     */
+    public int getAttendance() { return attendance; }
+
+    /**
+     * @return Loyalty points after the entry, or -1 if the member was not found
+     */
+    public double getLoyaltyPoints() { return loyaltyPoints; }
+
+    /**
+     * @return Whether a regular member is eligible for upgrade after the entry
+     */
+    public boolean isEligibleForUpgrade() { return eligibleForUpgrade; }
+}
@@ -0,0 +1,144 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Map from member ID to member for one writer and any number of readers
+ * Uses the same unboxed open-addressing table as IntMemberMap, so a lookup costs no
+ * Integer and no entry object, but lookups take no lock and may run while a member
+ * is being added. Adding members must be done by one thread at a time; MemberService
+ * adds them while holding its registry write lock.
+ *
+ * A new member is stored in its slot before its ID, and the ID is written with release
+ * and read with acquire ordering, so a reader that finds the ID also sees the member.
+ * When the table grows, the bigger one is filled completely before it is published,
+ * so readers always probe one whole table. Members are never replaced or removed, so
+ * a reader can never see a slot change under it.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class ConcurrentIntMemberMap {
+    // Ordered access to the elements of the ID array
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private volatile Table table;   // Current table, replaced as a whole when it grows
+    private int size;               // Number of members, only used by the writer
+
+    /**
+     * Constructor for ConcurrentIntMemberMap
+     *
+     * @param expectedSize Number of members expected, so the table does not need to grow
+     */
+    public ConcurrentIntMemberMap(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size cannot be negative");
+        this.table = new Table(IntMemberMap.tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Method to find a member by ID
+     * Safe to call from any thread without a lock
+     *
+     * @param id The member ID
+     * @return The member, or null if not found
+     */
+    public GymMember get(int id) {
+        if (id <= 0) return null;
+
+        Table table = this.table;
+        int[] keys = table.keys;
+        int mask = table.mask;
+        int slot = IntMemberMap.slotOf(id, mask);
+        int key;
+        while ((key = (int) KEYS.getAcquire(keys, slot)) != 0) {
+            if (key == id) {
+                return table.values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Method to add a member
+     * Must not be called by several threads at once
+     *
+     * @param id The member ID
+     * @param member The member
+     * @return True if the member was added, false if the ID is already in the map
+     * @throws IllegalArgumentException If the ID is not positive or the member is null
+     */
+    public boolean add(int id, GymMember member) {
+        if (id <= 0) throw new IllegalArgumentException("Member ID must be positive");
+        if (member == null) throw new IllegalArgumentException("Member cannot be null");
+
+        Table table = this.table;
+        if (size + 1 > table.resizeAt) {
+            if (get(id) != null) {
+                return false;
+            }
+            table = grow(table);
+        }
+        int slot = IntMemberMap.slotOf(id, table.mask);
+        int key;
+        while ((key = table.keys[slot]) != 0) {
+            if (key == id) {
+                return false;
+            }
+            slot = (slot + 1) & table.mask;
+        }
+
+        // The member first, so a reader that finds the ID finds the member too
+        table.values[slot] = member;
+        KEYS.setRelease(table.keys, slot, id);
+        size++;
+        return true;
+    }
+
+    /**
+     * @return Number of members
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method to copy every member into a table twice the size and publish it
+     *
+     * @param old The current table
+     * @return The new table
+     */
+    private Table grow(Table old) {
+        Table grown = new Table(old.keys.length * 2);
+        for (int i = 0; i < old.keys.length; i++) {
+            int id = old.keys[i];
+            if (id != 0) {
+                int slot = IntMemberMap.slotOf(id, grown.mask);
+                while (grown.keys[slot] != 0) {
+                    slot = (slot + 1) & grown.mask;
+                }
+                grown.keys[slot] = id;
+                grown.values[slot] = old.values[i];
+            }
+        }
+        // Publishing through the volatile field makes the whole filled table visible
+        table = grown;
+        return grown;
+    }
+
+    /**
+     * One table: member IDs, members and the size at which it is replaced by a bigger one
+     */
+    private static final class Table {
+        private final int[] keys;           // Member ID in each slot, or 0 if free
+        private final GymMember[] values;   // Member in each slot
+        private final int mask;             // Table size - 1; the size is a power of two
+        private final int resizeAt;         // Number of members at which the table grows
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new GymMember[capacity];
+            mask = capacity - 1;
+            resizeAt = (int) ((long) capacity * IntMemberMap.MAX_LOAD_PERCENT / 100);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Dates as whole days since 1970-01-01 (epoch days)
+ * Members keep their date of birth and start date as an int instead of a
+ * "YYYY-MM-DD" String: four bytes instead of a String object, and comparing or
+ * sorting dates is comparing ints. Text is only read and written at the edges
+ * (files, journal, screen) with the methods here, which work on plain digits
+ * without regular expressions and without creating date objects.
+ *
+ * Uses the proleptic Gregorian calendar, like java.time.LocalDate, so epoch days
+ * are the same values as LocalDate.toEpochDay().
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public final class EpochDays {
+    public static final int MIN_YEAR = 1;      // Earliest year accepted
+    public static final int MAX_YEAR = 9999;   // Latest year accepted; years have four digits
+
+    private static final int DAYS_0000_TO_1970 = 719468; // Days from 0000-03-01 to 1970-01-01
+
+    /**
+     * Constructor for EpochDays
+     * Not used; all methods are static
+     */
+    private EpochDays() {
+    }
+
+    /**
+     * Method to convert a date to epoch days
+     *
+     * @param year The year
+     * @param month The month, 1 to 12
+     * @param day The day of the month
+     * @return Days since 1970-01-01
+     * @throws IllegalArgumentException If the date does not exist
+     */
+    public static int of(int year, int month, int day) {
+        if (!isValid(year, month, day)) {
+            throw new IllegalArgumentException("Invalid date: " + year + "-" + month + "-" + day);
+        }
+        // Count years from March so the leap day is the last day of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Method to parse a "YYYY-MM-DD" date
+     *
+     * @param text The date; surrounding spaces are ignored
+     * @return Days since 1970-01-01
+     * @throws IllegalArgumentException If the text is not a valid date
+     */
+    public static int parse(String text) {
+        if (text == null) throw new IllegalArgumentException("Date cannot be empty");
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (end - start != 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        if (year < 0 || month < 0 || day < 0 || !isValid(year, month, day)) {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        return of(year, month, day);
+    }
+
+    /**
+     * Method to parse a "YYYY-MM-DD" date inside a character buffer
+     * Used by the file reader so the date column needs no String of its own
+     *
+     * @param buf Buffer holding the date
+     * @param start Start of the date, surrounding spaces allowed
+     * @param end End of the date (exclusive)
+     * @return Days since 1970-01-01
+     * @throws IllegalArgumentException If the characters are not a valid date
+     */
+    public static int parse(char[] buf, int start, int end) {
+        while (start < end && buf[start] <= ' ') start++;
+        while (end > start && buf[end - 1] <= ' ') end--;
+        if (end - start != 10 || buf[start + 4] != '-' || buf[start + 7] != '-') {
+            throw new IllegalArgumentException("Invalid date: " + new String(buf, start, end - start));
+        }
+        int year = digits(buf, start, 4);
+        int month = digits(buf, start + 5, 2);
+        int day = digits(buf, start + 8, 2);
+        if (year < 0 || month < 0 || day < 0 || !isValid(year, month, day)) {
+            throw new IllegalArgumentException("Invalid date: " + new String(buf, start, end - start));
+        }
+        return of(year, month, day);
+    }
+
+    /**
+     * Method to check if a text is a valid "YYYY-MM-DD" date
+     *
+     * @param text The date
+     * @return True if parse would accept it
+     */
+    public static boolean isValid(String text) {
+        try {
+            parse(text);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method to check if a date exists
+     *
+     * @return True if the month has that day in that year
+     */
+    public static boolean isValid(int year, int month, int day) {
+        return year >= MIN_YEAR && year <= MAX_YEAR && month >= 1 && month <= 12
+                && day >= 1 && day <= daysInMonth(year, month);
+    }
+
+    /**
+     * @return Number of days in a month
+     */
+    public static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean isLeapYear = (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
+            return isLeapYear ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * Method to convert epoch days to year, month and day
+     * The three are packed into one int so no object is needed
+     *
+     * @param epochDay Days since 1970-01-01
+     * @return year * 10000 + month * 100 + day, e.g. 20250131
+     */
+    public static int toYearMonthDay(int epochDay) {
+        int z = epochDay + DAYS_0000_TO_1970;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * @return The year of a date
+     */
+    public static int year(int epochDay) {
+        return toYearMonthDay(epochDay) / 10000;
+    }
+
+    /**
+     * Method to format a date as "YYYY-MM-DD"
+     *
+     * @param epochDay Days since 1970-01-01
+     * @return The date text
+     */
+    public static String format(int epochDay) {
+        char[] text = new char[10];
+        write(epochDay, text, 0);
+        return new String(text);
+    }
+
+    /**
+     * Method to append a date as "YYYY-MM-DD"
+     *
+     * @param out The builder to append to
+     * @param epochDay Days since 1970-01-01
+     */
+    public static void append(StringBuilder out, int epochDay) {
+        int ymd = toYearMonthDay(epochDay);
+        appendDigits(out, ymd / 10000, 4);
+        out.append('-');
+        appendDigits(out, ymd / 100 % 100, 2);
+        out.append('-');
+        appendDigits(out, ymd % 100, 2);
+    }
+
+    /**
+     * Method to write a date as "YYYY-MM-DD" into a character buffer
+     *
+     * @param epochDay Days since 1970-01-01
+     * @param buf The buffer, with room for 10 characters at offset
+     * @param offset Where the date starts
+     */
+    public static void write(int epochDay, char[] buf, int offset) {
+        int ymd = toYearMonthDay(epochDay);
+        writeDigits(buf, offset, ymd / 10000, 4);
+        buf[offset + 4] = '-';
+        writeDigits(buf, offset + 5, ymd / 100 % 100, 2);
+        buf[offset + 7] = '-';
+        writeDigits(buf, offset + 8, ymd % 100, 2);
+    }
+
+    /**
+     * @return The number written by count digits, or -1 if one is not a digit
+     */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * @return The number written by count digits, or -1 if one is not a digit
+     */
+    private static int digits(char[] buf, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Method to append a number with leading zeros
+     */
+    private static void appendDigits(StringBuilder out, int value, int count) {
+        for (int divisor = count == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Method to write a number with leading zeros
+     */
+    private static void writeDigits(char[] buf, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,692 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line entry point for jobs that run without a display
+ * Works on the same snapshot, members file and journal as the GUI, using the member
+ * classes directly, so it starts without loading Swing.
+ *
+ * Commands:
+ * import FILE          replace all members with the members in FILE (members.txt layout or a snapshot)
+ * export FILE          write all members, including journaled changes, to FILE
+ * checkin-batch FILE   check in the entries of FILE ("ID TIMESTAMP" per line, - for standard input)
+ * report               print member counts, attendance and payment totals
+ * joined FROM TO       list the members who started between two dates (YYYY-MM-DD, both included)
+ * show ID              print one member
+ * compact              write the journaled changes into the snapshot and members file and empty the journal
+ * store-init           create the member store named by --store from the snapshot and journal
+ * serve [PORT]         serve the members over HTTP (see MemberHttpServer) until stopped
+ *
+ * Commands that change the files take the journal's lock (see MemberJournal.lock) and
+ * fail while the GUI or another command holds it; report, export, joined and show only
+ * read the files and never write them.
+ *
+ * Options before the command: --members FILE, --snapshot FILE and --journal FILE.
+ *
+ * With --store FILE the members are kept in a member store (see MemberStore) instead
+ * of the snapshot and journal. show reads the one member's record and checkin-batch
+ * changes only the records of the members it checks in, forcing the store to disk
+ * once at the end; neither loads the other members. report, export and joined read
+ * every record, and serve loads them and writes the changed members back every
+ * --flush-interval SECONDS (5 by default; see MemberAutosaver). The store is created
+ * once with store-init; import and compact do not take it. The GUI keeps working on
+ * the snapshot and journal, so changes made in the store reach it through export and
+ * import. Commands that change the store take its lock (see MemberStore.lock).
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class GymCli {
+    private static final String USAGE =
+        "Usage: java GymCli [--members FILE] [--snapshot FILE] [--journal FILE]\n" +
+        "                   [--store FILE] [--flush-interval SECONDS] COMMAND [ARGS]\n" +
+        "Commands:\n" +
+        "  import FILE          replace all members with the members in FILE (text or snapshot)\n" +
+        "  export FILE          write all members to FILE\n" +
+        "  checkin-batch FILE   check in \"ID TIMESTAMP\" lines from FILE (- for standard input)\n" +
+        "  report               print member totals\n" +
+        "  joined FROM TO       list members who started between two dates (YYYY-MM-DD)\n" +
+        "  show ID              print one member\n" +
+        "  compact              fold the journal into the snapshot and members file\n" +
+        "  store-init           create the --store FILE from the snapshot and journal\n" +
+        "  serve [PORT]         serve the members over HTTP, port 8080 by default\n" +
+        "With --store, checkin-batch, report, export, joined, show and serve use the store\n" +
+        "instead of the snapshot and journal; serve writes changes to it every flush interval";
+
+    private final File membersFile;   // Members file shared with the GUI
+    private final File snapshotFile;  // Snapshot shared with the GUI
+    private final File journalFile;   // Journal shared with the GUI
+    private final File storeFile;     // Member store holding the members instead of the snapshot and journal, or null
+    private final long flushInterval; // Milliseconds between writes of changed members to the store
+
+    /**
+     * Constructor for GymCli
+     *
+     * @param membersFile The members file
+     * @param snapshotFile The snapshot file
+     * @param journalFile The journal file
+     */
+    public GymCli(File membersFile, File snapshotFile, File journalFile) {
+        this(membersFile, snapshotFile, journalFile, null, MemberAutosaver.DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Constructor for GymCli
+     *
+     * @param membersFile The members file
+     * @param snapshotFile The snapshot file
+     * @param journalFile The journal file
+     * @param storeFile Member store to use instead of the snapshot and journal, or null for none
+     * @param flushInterval Milliseconds between writes of changed members to the store
+     */
+    public GymCli(File membersFile, File snapshotFile, File journalFile, File storeFile, long flushInterval) {
+        this.membersFile = membersFile;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.storeFile = storeFile;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Main method - entry point for the command line
+     *
+     * @param args Options, command and command arguments
+     */
+    public static void main(String[] args) {
+        File membersFile = new File("members.txt");
+        File snapshotFile = new File("members.snapshot");
+        File journalFile = new File("members.journal");
+        File storeFile = null;
+        long flushInterval = MemberAutosaver.DEFAULT_INTERVAL_MILLIS;
+
+        int next = 0;
+        while (next + 1 < args.length && args[next].startsWith("--")) {
+            if (args[next].equals("--members")) {
+                membersFile = new File(args[next + 1]);
+            } else if (args[next].equals("--snapshot")) {
+                snapshotFile = new File(args[next + 1]);
+            } else if (args[next].equals("--journal")) {
+                journalFile = new File(args[next + 1]);
+            } else if (args[next].equals("--store")) {
+                storeFile = new File(args[next + 1]);
+            } else if (args[next].equals("--flush-interval")) {
+                try {
+                    flushInterval = Math.round(Double.parseDouble(args[next + 1]) * 1000);
+                } catch (NumberFormatException e) {
+                    flushInterval = 0;
+                }
+                if (flushInterval <= 0) {
+                    System.err.println("Invalid flush interval: " + args[next + 1]);
+                    System.exit(2);
+                }
+            } else {
+                break;
+            }
+            next += 2;
+        }
+        if (next >= args.length) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        String command = args[next];
+        String[] commandArgs = Arrays.copyOfRange(args, next + 1, args.length);
+        if (command.equals("serve")) {
+            // JVM-wide setting, so it is made here rather than by the server class
+            MemberHttpServer.enableNoDelay();
+        }
+        try {
+            // Exit right away on failure; after serve the server's threads keep running
+            int exitCode = new GymCli(membersFile, snapshotFile, journalFile, storeFile, flushInterval)
+                    .run(command, commandArgs);
+            if (exitCode != 0) {
+                System.exit(exitCode);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method to run one command
+     *
+     * @param command The command name
+     * @param args The command arguments
+     * @return Exit code: 0 on success, 1 on failure, 2 for a usage error
+     * @throws IOException If an error occurs during file reading or writing
+     */
+    public int run(String command, String[] args) throws IOException {
+        if (storeFile != null && (command.equals("import") || command.equals("compact"))) {
+            System.err.println(command + " works on the snapshot and journal and does not take --store");
+            return 2;
+        }
+        if (command.equals("import") && args.length == 1) {
+            return importMembers(new File(args[0]));
+        } else if (command.equals("export") && args.length == 1) {
+            return exportMembers(new File(args[0]));
+        } else if (command.equals("checkin-batch") && args.length == 1) {
+            return checkInBatch(args[0]);
+        } else if (command.equals("report") && args.length == 0) {
+            return report();
+        } else if (command.equals("joined") && args.length == 2) {
+            return joined(args[0], args[1]);
+        } else if (command.equals("show") && args.length == 1) {
+            return show(args[0]);
+        } else if (command.equals("compact") && args.length == 0) {
+            return compact();
+        } else if (command.equals("store-init") && args.length == 0 && storeFile != null) {
+            return storeInit();
+        } else if (command.equals("serve") && args.length <= 1) {
+            return serve(args.length == 0 ? "8080" : args[0]);
+        }
+        System.err.println(USAGE);
+        return 2;
+    }
+
+    /**
+     * Method to replace all members with the members of another file
+     * Changes in the journal are dropped, as when reading from file in the GUI
+     *
+     * @param source File in the members.txt layout
+     * @return Exit code
+     * @throws IOException If an error occurs during file reading or writing
+     */
+    private int importMembers(File source) throws IOException {
+        if (!source.exists()) {
+            System.err.println("File does not exist: " + source);
+            return 1;
+        }
+
+        MemberRegistry registry = new MemberRegistry();
+        int membersLoaded = MemberSnapshot.isSnapshot(source)
+                ? new MemberSnapshot().read(source, registry)
+                : new ParallelMemberLoader().load(source, registry);
+        if (membersLoaded < 0) {
+            System.err.println("File is empty: " + source);
+            return 1;
+        }
+
+        MemberJournal journal = new MemberJournal(journalFile);
+        journal.lock();
+        try {
+            // The imported members replace every member, so the journal starts again with the new snapshot
+            new MemberSnapshot().write(snapshotFile, registry.getMembers(), null, journal.restartingFrom());
+            new MemberFileWriter().write(membersFile, registry.getMembers());
+        } finally {
+            journal.unlock();
+        }
+        System.out.println(membersLoaded + " members imported from " + source);
+        return 0;
+    }
+
+    /**
+     * Method to write all members, including journaled changes, to another file
+     *
+     * @param target File to write in the members.txt layout
+     * @return Exit code
+     * @throws IOException If an error occurs during file reading or writing
+     */
+    private int exportMembers(File target) throws IOException {
+        MemberRegistry registry = new MemberRegistry();
+        loadReadOnly(registry);
+        new MemberFileWriter().write(target, registry.getMembers());
+        System.out.println(registry.size() + " members exported to " + target);
+        return 0;
+    }
+
+    /**
+     * Method to check in the entries of a turnstile log
+     * Each line holds a member ID and a timestamp (milliseconds since the epoch,
+     * an instant such as 2024-05-01T06:15:00Z or a local date and time such as
+     * 2024-05-01T06:15:00). Prints one result line per entry.
+     *
+     * @param source File name of the log, or - for standard input
+     * @return Exit code: 0 if every line was read, 1 if some lines were skipped
+     * @throws IOException If an error occurs during file reading or writing
+     */
+    private int checkInBatch(String source) throws IOException {
+        // Read the entries first, so the batch is applied and journaled in one go
+        int[] ids = new int[1024];
+        long[] timestamps = new long[1024];
+        int count = 0;
+        int skipped = 0;
+
+        InputStream in = source.equals("-") ? System.in : new FileInputStream(source);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] fields = line.split("[\\s,]+");
+                try {
+                    if (fields.length != 2) throw new IllegalArgumentException("expected ID and timestamp");
+                    int id = parseMemberId(fields[0]);
+                    long timestamp = parseTimestamp(fields[1]);
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                        timestamps = Arrays.copyOf(timestamps, count * 2);
+                    }
+                    ids[count] = id;
+                    timestamps[count] = timestamp;
+                    count++;
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping line " + lineNumber + ": " + e.getMessage());
+                    skipped++;
+                }
+            }
+        }
+
+        CheckInResult[] results;
+        if (storeFile != null) {
+            results = checkInStore(ids, timestamps, count);
+        } else {
+            MemberRegistry registry = new MemberRegistry();
+            MemberJournal journal = new MemberJournal(journalFile);
+            try {
+                restore(registry, journal);
+                registry.addMemberListener(journal);
+                results = new MemberService(registry).checkInBatch(Arrays.copyOf(ids, count),
+                                                                   Arrays.copyOf(timestamps, count));
+            } finally {
+                journal.close();
+                journal.unlock();
+            }
+        }
+
+        int checkedIn = 0;
+        StringBuilder out = new StringBuilder();
+        for (CheckInResult result : results) {
+            out.append(result.getMemberId()).append(' ')
+               .append(Instant.ofEpochMilli(result.getTimestamp())).append(' ')
+               .append(result.getStatus());
+            if (!result.getStatus().equals(CheckInResult.NOT_FOUND)) {
+                out.append(" attendance=").append(result.getAttendance())
+                   .append(" loyalty=").append(result.getLoyaltyPoints());
+                if (result.isEligibleForUpgrade()) {
+                    out.append(" eligible-for-upgrade");
+                }
+            }
+            out.append('\n');
+            if (result.isCheckedIn()) checkedIn++;
+        }
+        System.out.print(out);
+        System.out.println(checkedIn + " of " + results.length + " entries checked in");
+        return skipped == 0 ? 0 : 1;
+    }
+
+    /**
+     * Method to check in turnstile entries in the member store
+     * Only the records of the members checked in are read and written, and the store
+     * is forced to disk once, when it is closed after the last entry
+     *
+     * @param ids Member IDs of the entries
+     * @param timestamps Time of each entry
+     * @param count Number of entries
+     * @return One result per entry, in the order of the entries
+     * @throws IOException If the store cannot be opened or written, or another program holds its lock
+     */
+    private CheckInResult[] checkInStore(int[] ids, long[] timestamps, int count) throws IOException {
+        MemberStore store = openStore();
+        try {
+            store.lock();
+            CheckInResult[] results = new CheckInResult[count];
+            for (int i = 0; i < count; i++) {
+                results[i] = store.checkIn(ids[i], timestamps[i]);
+            }
+            return results;
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Method to print member counts, attendance and payment totals
+     *
+     * @return Exit code
+     * @throws IOException If an error occurs during file reading
+     */
+    private int report() throws IOException {
+        MemberRegistry registry = new MemberRegistry();
+        loadReadOnly(registry);
+
+        MemberColumns columns = new MemberColumns(registry);
+        int members = columns.size();
+        int active = columns.countActive();
+        int regular = columns.countType(MemberColumns.REGULAR, false);
+        int premium = columns.countType(MemberColumns.PREMIUM, false);
+
+        System.out.println("MEMBER REPORT");
+        System.out.println("Members: " + members + " (" + active + " active, " + (members - active) + " inactive)");
+        System.out.println("Regular: " + regular + " (" + columns.countType(MemberColumns.REGULAR, true) + " active; basic "
+                + columns.countPlan(MemberColumns.BASIC) + ", standard " + columns.countPlan(MemberColumns.STANDARD)
+                + ", deluxe " + columns.countPlan(MemberColumns.DELUXE) + ", "
+                + columns.countEligible() + " eligible for upgrade)");
+        System.out.println("Premium: " + premium + " (" + columns.countType(MemberColumns.PREMIUM, true) + " active; "
+                + columns.countFullyPaid() + " fully paid)");
+        System.out.println("Total attendance: " + columns.totalAttendance());
+        System.out.println("Total loyalty points: " + columns.totalLoyaltyPoints());
+        System.out.println("Premium paid: Rs. " + Money.format(columns.totalPaidPaisa()));
+        System.out.println("Premium due: Rs. " + Money.format(columns.totalDuePaisa()));
+        return 0;
+    }
+
+    /**
+     * Method to list the members who started within a date range
+     *
+     * @param from First start date (YYYY-MM-DD)
+     * @param to Last start date (YYYY-MM-DD), included
+     * @return Exit code
+     * @throws IOException If an error occurs during file reading
+     */
+    private int joined(String from, String to) throws IOException {
+        int fromDay;
+        int toDay;
+        try {
+            fromDay = EpochDays.parse(from);
+            toDay = EpochDays.parse(to);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + " (expected YYYY-MM-DD)");
+            return 2;
+        }
+
+        MemberRegistry registry = new MemberRegistry();
+        loadReadOnly(registry);
+
+        List<GymMember> found = registry.findMembersStartedBetween(fromDay, toDay);
+        StringBuilder line = new StringBuilder(64);
+        for (GymMember member : found) {
+            line.setLength(0);
+            EpochDays.append(line, member.getMembershipStartEpochDay());
+            line.append("  ").append(member.getId()).append("  ").append(member.getName());
+            System.out.println(line);
+        }
+        System.out.println(found.size() + " members started between " + from.trim() + " and " + to.trim());
+        return 0;
+    }
+
+    /**
+     * Method to print one member
+     * From the member store, only the member's own record is read
+     *
+     * @param id The member ID
+     * @return Exit code: 0 if the member was found, 1 if not
+     * @throws IOException If an error occurs during file reading
+     */
+    private int show(String id) throws IOException {
+        int memberId;
+        try {
+            memberId = parseMemberId(id);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        GymMember member;
+        if (storeFile != null) {
+            MemberStore store = openStore();
+            try {
+                member = store.read(memberId);
+            } finally {
+                store.close();
+            }
+        } else {
+            MemberRegistry registry = new MemberRegistry();
+            restoreReadOnly(registry);
+            member = registry.findMemberById(memberId);
+        }
+        if (member == null) {
+            System.err.println("Member not found: " + memberId);
+            return 1;
+        }
+        member.display();
+        return 0;
+    }
+
+    /**
+     * Method to create the member store from the snapshot and journal
+     * The only command that loads both the snapshot and the store; from then on the
+     * commands given --store work on the store alone
+     *
+     * @return Exit code
+     * @throws IOException If an error occurs during file reading or writing
+     */
+    private int storeInit() throws IOException {
+        if (storeFile.length() > 0) {
+            System.err.println("Member store already exists: " + storeFile);
+            return 1;
+        }
+
+        MemberRegistry registry = new MemberRegistry();
+        restoreReadOnly(registry);
+        MemberStore store = new MemberStore(storeFile);
+        int written = 0;
+        try {
+            store.lock();
+            for (GymMember member : registry.getMembers()) {
+                try {
+                    store.put(member);
+                    written++;
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Member " + member.getId() + " not written to " + storeFile + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            store.close();
+        }
+        System.out.println(written + " members written to " + storeFile);
+        return written == registry.size() ? 0 : 1;
+    }
+
+    /**
+     * Method to write the journaled changes into the snapshot and members file
+     * Afterwards the journal starts again from the new snapshot
+     *
+     * @return Exit code
+     * @throws IOException If an error occurs during file reading or writing
+     */
+    private int compact() throws IOException {
+        MemberRegistry registry = new MemberRegistry();
+        MemberJournal journal = new MemberJournal(journalFile);
+        int replayed;
+        try {
+            replayed = restore(registry, journal);
+            if (registry.isEmpty()) {
+                System.err.println("No members to save!");
+                return 1;
+            }
+
+            new MemberSnapshot().write(snapshotFile, registry.getMembers(), null, journal.expectingBase());
+            new MemberFileWriter().write(membersFile, registry.getMembers());
+            journal.checkpoint(snapshotFile);
+        } finally {
+            journal.unlock();
+        }
+        System.out.println(registry.size() + " members written, " + Math.max(replayed, 0) + " journal entries folded in");
+        return 0;
+    }
+
+    /**
+     * Method to serve the members over HTTP
+     * Changes are journaled as in the GUI. With a store file, the members are loaded
+     * from the store instead and the changed members are written back into it in the
+     * background. The server runs until the process is stopped.
+     *
+     * @param port The port to listen on
+     * @return Exit code
+     * @throws IOException If an error occurs during file reading or the port cannot be opened
+     */
+    private int serve(String port) throws IOException {
+        int portNumber;
+        try {
+            portNumber = Integer.parseInt(port);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid port: " + port);
+            return 2;
+        }
+
+        MemberRegistry registry = new MemberRegistry();
+        final MemberJournal journal;
+        final MemberStore store;
+        final MemberAutosaver autosaver;
+        if (storeFile != null) {
+            journal = null;
+            store = openStore();
+            try {
+                store.lock();
+                store.readAll(registry);
+            } catch (IOException | RuntimeException e) {
+                store.close();
+                throw e;
+            }
+            autosaver = new MemberAutosaver(registry, store, flushInterval, MemberAutosaver.DEFAULT_THRESHOLD);
+        } else {
+            journal = new MemberJournal(journalFile);
+            restore(registry, journal);
+            registry.addMemberListener(journal);
+            store = null;
+            autosaver = null;
+        }
+
+        final MemberHttpServer server = new MemberHttpServer(new MemberService(registry), portNumber);
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                server.stop(1);
+                if (autosaver != null) {
+                    try {
+                        autosaver.close();
+                        store.close();
+                    } catch (InterruptedException | IOException e) {
+                        System.err.println("Member store close error: " + e);
+                    }
+                } else {
+                    journal.close();
+                }
+            }
+        });
+        server.start();
+        System.out.println("Serving " + registry.size() + " members on port " + server.getPort()
+                + (MemberHttpServer.usesVirtualThreads() ? " (virtual threads)" : ""));
+        if (store != null) {
+            System.out.println("Changed members are written to " + storeFile + " every " + flushInterval + " ms");
+        }
+        return 0;
+    }
+
+    /**
+     * Method to open the member store named by --store
+     *
+     * @return The open store
+     * @throws IOException If the store does not exist yet or cannot be opened
+     */
+    private MemberStore openStore() throws IOException {
+        if (storeFile.length() == 0) {
+            throw new IOException("Member store does not exist: " + storeFile + " (create it with store-init)");
+        }
+        return new MemberStore(storeFile);
+    }
+
+    /**
+     * Method to load every member without writing any file
+     * From the member store with --store, otherwise from the snapshot and journal
+     *
+     * @param registry The registry to fill
+     * @throws IOException If an error occurs during file reading
+     */
+    private void loadReadOnly(MemberRegistry registry) throws IOException {
+        if (storeFile == null) {
+            restoreReadOnly(registry);
+            return;
+        }
+        MemberStore store = openStore();
+        try {
+            store.readAll(registry);
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Method to load the snapshot and replay the journal on top of it, as the GUI does at startup
+     * Takes the journal's lock first; the caller releases it with unlock, or it is released
+     * when the program ends.
+     *
+     * @param registry The registry to fill
+     * @param journal The journal
+     * @return Number of journal entries replayed, or -1 if there was no journal for the loaded file
+     * @throws IOException If an error occurs during file reading or writing, or another program holds the lock
+     * @see MemberSnapshot#restore
+     */
+    private int restore(MemberRegistry registry, MemberJournal journal) throws IOException {
+        journal.lock();
+        return MemberSnapshot.restore(snapshotFile, membersFile, registry, journal, null);
+    }
+
+    /**
+     * Method to load the snapshot and replay the journal on top of it without writing any file
+     * Used by the commands that only read the members, so they take no lock either
+     *
+     * @param registry The registry to fill
+     * @return Number of journal entries replayed, or -1 if there was no journal for the loaded file
+     * @throws IOException If an error occurs during file reading
+     * @see MemberSnapshot#restoreReadOnly
+     */
+    private int restoreReadOnly(MemberRegistry registry) throws IOException {
+        return MemberSnapshot.restoreReadOnly(snapshotFile, membersFile, registry, new MemberJournal(journalFile), null);
+    }
+
+    /**
+     * Method to parse the member ID of a turnstile entry
+     *
+     * @param text The member ID
+     * @return The member ID
+     * @throws IllegalArgumentException If the ID is not a number
+     */
+    private static int parseMemberId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid member ID: " + text);
+        }
+    }
+
+    /**
+     * Method to parse the timestamp of a turnstile entry
+     *
+     * @param text Milliseconds since the epoch, an instant or a local date and time
+     * @return Milliseconds since the epoch
+     * @throws IllegalArgumentException If the timestamp cannot be parsed
+     */
+    private static long parseTimestamp(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // Not a number, try the date formats
+        }
+        try {
+            return Instant.parse(text).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // Not an instant, try a local date and time
+        }
+        try {
+            return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid timestamp: " + text);
+        }
+    }
+}
@@ -7,27 +7,51 @@ import javax.swing.JRadioButton;
 import javax.swing.ButtonGroup;
 import javax.swing.JComboBox;
 import javax.swing.JOptionPane;
+import javax.swing.JDialog;
+import javax.swing.JList;
+import javax.swing.DefaultListModel;
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.BorderFactory;
 import javax.swing.border.Border;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.JTableHeader;
 import javax.swing.JTextArea;
 import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import java.awt.event.ActionEvent;
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.FlowLayout;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Color;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 
 /**
  * Main GUI class for the Gym Management System.
@@ -43,8 +67,24 @@ import java.util.ArrayList;
  * @version 2.0
  */
 public class GymGUI extends JFrame {
-    // ArrayList to store members
-    private ArrayList<GymMember> membersList;
+    // Registry to store members
+    private MemberRegistry registry;
+
+    // Journal recording every change since the members file was last written
+    private MemberJournal journal;
+
+    // Writes the members file and snapshot in the background when saving
+    private MemberSaver saver;
+
+    // Member table window and its model, or null while the window is closed
+    private JFrame memberBrowser;
+    private MemberTableModel memberTableModel;
+
+    // Buttons that are disabled while members are being loaded
+    private final ArrayList<JButton> actionButtons = new ArrayList<>();
+
+    // Whether the members were restored at startup; until then nothing may be saved
+    private boolean restored;
 
     // Colors for UI styling
     private final Color primaryBlue = new Color(28, 57, 87);
@@ -84,6 +124,18 @@ public class GymGUI extends JFrame {
      */
     private final String MEMBERS_FILE = "members.txt";
 
+    /**
+     * Constant defining the file path of the binary snapshot.
+     * Holds the full state of every member and is what the members are restored from at startup.
+     */
+    private final String SNAPSHOT_FILE = "members.snapshot";
+
+    /**
+     * Constant defining the file path of the operation journal.
+     * Holds every change made after the snapshot was last written.
+     */
+    private final String JOURNAL_FILE = "members.journal";
+
     /**
      * Constant for error dialog title.
      * Used to maintain consistent UI messaging.
@@ -114,6 +166,11 @@ public class GymGUI extends JFrame {
      */
     private static final String INVALID_ID = "Invalid ID!";
 
+    /**
+     * Constant for the number of matches listed while searching for a member.
+     */
+    private static final int SEARCH_RESULTS = 20;
+
     // Remove the enum and replace with constants
     // private static final double BASIC_PRICE = 6500.0;
     // private static final double STANDARD_PRICE = 12500.0;
@@ -123,12 +180,78 @@ public class GymGUI extends JFrame {
     /**
      * Constructor for GymGUI.
      * Initializes the GUI and sets up the main window with all components.
-     * Creates an empty ArrayList to store member objects.
+     * Creates a MemberRegistry to store member objects and restores
+     * the members saved in the snapshot and the journal.
      */
     public GymGUI() {
         super("IIC-Bhumika Fitness Gym Management");
-        membersList = new ArrayList<>();
+        registry = new MemberRegistry();
+        journal = new MemberJournal(new File(JOURNAL_FILE));
+        saver = new MemberSaver(registry, new File(MEMBERS_FILE), new File(SNAPSHOT_FILE), journal);
         setupGUI();
+        restoreMembers();
+    }
+
+    /**
+     * Method to restore members at startup
+     * Loads the last snapshot (or, the first time, the members file) and replays the
+     * journal on top of it in the background, then starts journaling every further
+     * change. The actions stay disabled until the members are back. If they cannot be
+     * restored the actions stay disabled, so a save of the empty member list can never
+     * overwrite the files that still hold them.
+     */
+    private void restoreMembers() {
+        final File file = new File(MEMBERS_FILE);
+        final File snapshot = new File(SNAPSHOT_FILE);
+        new FileTask<MemberRegistry>("Loading members...", false, actionButtons) {
+            @Override
+            protected MemberRegistry doInBackground() throws IOException {
+                // Held while the window is open, so the command line cannot replace the files meanwhile
+                journal.lock();
+                MemberRegistry loaded = new MemberRegistry();
+                MemberSnapshot.restore(snapshot, file, loaded, journal, this);
+                return loaded;
+            }
+
+            @Override
+            protected void finished(MemberRegistry loaded) {
+                registry = loaded;
+                restored = true;
+                registry.addMemberListener(journal);
+                // The files do not have the journaled changes yet, so the first save writes them
+                saver.setRegistry(registry, false);
+                if (memberTableModel != null) {
+                    memberTableModel.setRegistry(registry);
+                }
+            }
+
+            @Override
+            protected void failed(Throwable cause) {
+                System.err.println("Error restoring members: " + cause);
+                for (JButton button : actionButtons) {
+                    button.setEnabled(false);
+                }
+                JOptionPane.showMessageDialog(GymGUI.this,
+                    "Members could not be restored: " + cause.getMessage() + "\n"
+                        + "The member files were left as they are. Fix or move them and restart.",
+                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            }
+        }.execute();
+    }
+
+    /**
+     * Method to start the journal again after the snapshot has been written
+     * The snapshot now matches the members in memory, apart from the changes
+     * journaled since the mark
+     *
+     * @param mark Position returned by journal.mark before the snapshot was written, or -1
+     */
+    private void checkpointJournal(long mark) {
+        try {
+            journal.checkpoint(new File(SNAPSHOT_FILE), mark);
+        } catch (IOException e) {
+            System.err.println("Journal checkpoint error: " + e);
+        }
     }
 
     /**
@@ -169,6 +292,19 @@ public class GymGUI extends JFrame {
         setMinimumSize(new Dimension(1000, 650));
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // Let a save in progress finish; changes not saved are still in the journal
+                try {
+                    saver.close(10000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                journal.close();
+                journal.unlock();
+            }
+        });
     }
 
     /**
@@ -681,6 +817,21 @@ public class GymGUI extends JFrame {
         panel.add(displayButton);
         panel.add(clearButton);
 
+        // Remember the buttons so they can be disabled while files are loaded or saved
+        actionButtons.add(addRegularButton);
+        actionButtons.add(addPremiumButton);
+        actionButtons.add(activateButton);
+        actionButtons.add(deactivateButton);
+        actionButtons.add(markAttendanceButton);
+        actionButtons.add(upgradePlanButton);
+        actionButtons.add(revertRegularButton);
+        actionButtons.add(calculateDiscButton);
+        actionButtons.add(revertPremiumButton);
+        actionButtons.add(payDueButton);
+        actionButtons.add(saveToFileButton);
+        actionButtons.add(readFromFileButton);
+        actionButtons.add(displayButton);
+
         return panel;
     }
 
@@ -748,7 +899,7 @@ public class GymGUI extends JFrame {
         }
 
         // Remove any spaces, hyphens, or dots
-        String cleanedPhone = phone.replaceAll("[-. ]", "");
+        String cleanedPhone = MemberRegistry.normalizePhone(phone);
 
         // Check if the cleaned phone number contains only digits
         for (int i = 0; i < cleanedPhone.length(); i++) {
@@ -767,11 +918,182 @@ public class GymGUI extends JFrame {
         return prefix.equals("97") || prefix.equals("98");
     }
 
+    /**
+     * Method to check whether a person is already registered under another ID
+     * Looks the phone number and email up in the registry's indexes
+     *
+     * @param phone The phone number entered
+     * @param email The email entered
+     * @return Message naming the existing member, or null if neither is registered
+     */
+    private String findDuplicateContact(String phone, String email) {
+        GymMember existing = registry.findMemberByPhone(phone);
+        String field = "Phone number";
+        if (existing == null) {
+            existing = registry.findMemberByEmail(email);
+            field = "Email";
+        }
+        if (existing == null) {
+            return null;
+        }
+
+        String message = field + " already registered to member " + existing.getId() + " (" + existing.getName() + ")!";
+        if (!existing.getActiveStatus()) {
+            message += "\nActivate that membership instead of adding a new member.";
+        }
+        return message;
+    }
+
+    /**
+     * Method to find the member entered in a member prompt
+     * Accepts a member ID or the member's phone number
+     *
+     * @param input The text entered
+     * @return The member, or null if not found
+     * @throws NumberFormatException If the text is neither an ID nor a valid phone number
+     */
+    private GymMember findMember(String input) {
+        String text = input.trim();
+        if (isValidPhone(text)) {
+            return registry.findMemberByPhone(text);
+        }
+        return registry.findMemberById(Integer.parseInt(text));
+    }
+
+    /**
+     * Method to ask for a member, searching as the clerk types
+     * Accepts a member ID or phone number as before. Typing a name or location lists
+     * the matching members from the registry's prefix index and the selected one is
+     * used. Up and down move the selection; Enter or a double click confirms it.
+     *
+     * @param message The prompt
+     * @return ID of the selected member or the text entered, or null if cancelled
+     */
+    private String promptForMember(String message) {
+        final JTextField searchField = new JTextField(24);
+        final DefaultListModel<GymMember> matches = new DefaultListModel<>();
+        final JList<GymMember> matchList = new JList<>(matches);
+        matchList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        matchList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                GymMember member = (GymMember) value;
+                String text = member.getId() + " - " + member.getName() + " (" + member.getLocation() + ")"
+                        + (member.getActiveStatus() ? "" : " - inactive");
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+
+        JScrollPane matchScroll = new JScrollPane(matchList);
+        matchScroll.setPreferredSize(new Dimension(380, 180));
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.add(new JLabel(message), BorderLayout.NORTH);
+        panel.add(searchField, BorderLayout.CENTER);
+        panel.add(matchScroll, BorderLayout.SOUTH);
+
+        final JOptionPane pane = new JOptionPane(panel, JOptionPane.QUESTION_MESSAGE, JOptionPane.OK_CANCEL_OPTION);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                showMatches(searchField.getText(), matches, matchList);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                showMatches(searchField.getText(), matches, matchList);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                showMatches(searchField.getText(), matches, matchList);
+            }
+        });
+        searchField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                int selected = matchList.getSelectedIndex();
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && selected < matches.size() - 1) {
+                    matchList.setSelectedIndex(selected + 1);
+                } else if (e.getKeyCode() == KeyEvent.VK_UP && selected > 0) {
+                    matchList.setSelectedIndex(selected - 1);
+                } else {
+                    return;
+                }
+                matchList.ensureIndexIsVisible(matchList.getSelectedIndex());
+                e.consume();
+            }
+        });
+        searchField.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pane.setValue(JOptionPane.OK_OPTION);
+            }
+        });
+        matchList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && matchList.getSelectedValue() != null) {
+                    pane.setValue(JOptionPane.OK_OPTION);
+                }
+            }
+        });
+
+        JDialog dialog = pane.createDialog(this, "Find Member");
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                searchField.requestFocusInWindow();
+            }
+        });
+        dialog.setVisible(true);
+        dialog.dispose();
+
+        Object value = pane.getValue();
+        if (!(value instanceof Integer) || (Integer) value != JOptionPane.OK_OPTION) {
+            return null;
+        }
+        GymMember selected = matchList.getSelectedValue();
+        return selected != null ? String.valueOf(selected.getId()) : searchField.getText();
+    }
+
+    /**
+     * Method to list the members matching the text typed so far
+     * IDs and phone numbers are looked up exactly, anything else by name or location prefix
+     *
+     * @param text The text typed
+     * @param matches The list contents to replace
+     * @param matchList The list, whose first match is selected
+     */
+    private void showMatches(String text, DefaultListModel<GymMember> matches, JList<GymMember> matchList) {
+        matches.clear();
+        String query = text.trim();
+        if (query.isEmpty()) return;
+
+        if (Character.isDigit(query.charAt(0))) {
+            try {
+                GymMember member = findMember(query);
+                if (member != null) {
+                    matches.addElement(member);
+                }
+            } catch (NumberFormatException e) {
+                // Not a complete ID or phone number yet
+            }
+        } else {
+            for (GymMember member : registry.searchMembers(query, SEARCH_RESULTS)) {
+                matches.addElement(member);
+            }
+        }
+        if (!matches.isEmpty()) {
+            matchList.setSelectedIndex(0);
+        }
+    }
+
     /**
      * Method to add a regular member.
      * Validates input and creates a new RegularMember object.
      * Performs validation on all fields including email and phone format.
-     * Checks for duplicate member IDs before adding.
+     * Checks for duplicate member IDs, phone numbers and emails before adding.
      * Displays success message upon successful addition.
      * 
      * @throws NumberFormatException If ID is not a valid integer
@@ -802,22 +1124,32 @@ public class GymGUI extends JFrame {
                 return;
             }
 
-            if (memberExists(id)) {
+            if (registry.memberExists(id)) {
                 JOptionPane.showMessageDialog(this, "Member ID already exists!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
+            String duplicate = findDuplicateContact(phone, email);
+            if (duplicate != null) {
+                JOptionPane.showMessageDialog(this, duplicate, "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
             String location = locationField.getText().trim();
             String gender = maleButton.isSelected() ? "Male" : "Female";
             String dob = getSelectedDate(dobYearComboBox, dobMonthComboBox, dobDayComboBox);
             String startDate = getSelectedDate(msYearComboBox, msMonthComboBox, msDayComboBox);
+            if (!isValidDate(dob) || !isValidDate(startDate)) {
+                JOptionPane.showMessageDialog(this, "Invalid date! Please check the day of the month.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             String referral = referralField.getText().trim();
             if (referral.equals("Enter Referral Code")) {
                 referral = "None";
             }
 
             RegularMember member = new RegularMember(id, name, location, phone, email, gender, dob, startDate, referral);
-            membersList.add(member);
+            registry.addMember(member);
 
             JOptionPane.showMessageDialog(this, "Regular member added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             clearFields();
@@ -831,7 +1163,7 @@ public class GymGUI extends JFrame {
      * Validates input and creates a new PremiumMember object.
      * Requires additional trainer information.
      * Performs validation on all fields including email and phone format.
-     * Checks for duplicate member IDs before adding.
+     * Checks for duplicate member IDs, phone numbers and emails before adding.
      * Displays success message upon successful addition.
      * 
      * @throws NumberFormatException If ID is not a valid integer
@@ -859,20 +1191,30 @@ public class GymGUI extends JFrame {
             }
 
             int id = Integer.parseInt(idField.getText().trim());
-            if (memberExists(id)) {
+            if (registry.memberExists(id)) {
                 JOptionPane.showMessageDialog(this, "Member ID already exists!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
+            String duplicate = findDuplicateContact(phone, email);
+            if (duplicate != null) {
+                JOptionPane.showMessageDialog(this, duplicate, "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
             String name = nameField.getText().trim();
             String location = locationField.getText().trim();
             String gender = maleButton.isSelected() ? "Male" : "Female";
             String dob = getSelectedDate(dobYearComboBox, dobMonthComboBox, dobDayComboBox);
             String startDate = getSelectedDate(msYearComboBox, msMonthComboBox, msDayComboBox);
+            if (!isValidDate(dob) || !isValidDate(startDate)) {
+                JOptionPane.showMessageDialog(this, "Invalid date! Please check the day of the month.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             String trainer = trainerField.getText().trim();
 
             PremiumMember member = new PremiumMember(id, name, location, phone, email, gender, dob, startDate, trainer);
-            membersList.add(member);
+            registry.addMember(member);
 
             JOptionPane.showMessageDialog(this, "Premium member added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             clearFields();
@@ -890,12 +1232,11 @@ public class GymGUI extends JFrame {
      * @throws NumberFormatException If ID is not a valid integer
      */
     private void activateMembership() {
-        String idStr = JOptionPane.showInputDialog(this, "Enter Member ID to activate:");
+        String idStr = promptForMember("Enter Member ID, phone or name to activate:");
         if (idStr == null || idStr.trim().isEmpty()) return;
 
         try {
-            int id = Integer.parseInt(idStr.trim());
-            GymMember member = findMemberById(id);
+            GymMember member = findMember(idStr);
             if (member == null) {
                 JOptionPane.showMessageDialog(this, "Member not found!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -907,7 +1248,7 @@ public class GymGUI extends JFrame {
             member.activateMembership();
             JOptionPane.showMessageDialog(this, "Membership activated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid ID!", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid ID or phone number!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -920,12 +1261,11 @@ public class GymGUI extends JFrame {
      * @throws NumberFormatException If ID is not a valid integer
      */
     private void deactivateMembership() {
-        String idStr = JOptionPane.showInputDialog(this, "Enter Member ID to deactivate:");
+        String idStr = promptForMember("Enter Member ID, phone or name to deactivate:");
         if (idStr == null || idStr.trim().isEmpty()) return;
 
         try {
-            int id = Integer.parseInt(idStr.trim());
-            GymMember member = findMemberById(id);
+            GymMember member = findMember(idStr);
             if (member == null) {
                 JOptionPane.showMessageDialog(this, "Member not found!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -937,7 +1277,7 @@ public class GymGUI extends JFrame {
             member.deactivateMembership();
             JOptionPane.showMessageDialog(this, "Membership deactivated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid ID!", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid ID or phone number!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -946,12 +1286,11 @@ public class GymGUI extends JFrame {
      * Marks attendance for a member with the given ID from dialog
      */
     private void markAttendance() {
-        String idStr = JOptionPane.showInputDialog(this, "Enter Member ID to mark attendance:");
+        String idStr = promptForMember("Enter Member ID, phone or name to mark attendance:");
         if (idStr == null || idStr.trim().isEmpty()) return;
 
         try {
-            int id = Integer.parseInt(idStr.trim());
-            GymMember member = findMemberById(id);
+            GymMember member = findMember(idStr);
             if (member == null) {
                 JOptionPane.showMessageDialog(this, "Member not found!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -960,20 +1299,13 @@ public class GymGUI extends JFrame {
                 JOptionPane.showMessageDialog(this, "Member not active!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            boolean wasEligible = member instanceof RegularMember && ((RegularMember) member).getIsEligibleForUpgrade();
             member.markAttendance();
 
-            // Check if regular member is eligible for upgrade after marking attendance
+            // Check if regular member became eligible for upgrade with this attendance
             if (member instanceof RegularMember) {
                 RegularMember regMember = (RegularMember) member;
-                if (regMember.getAttendance() >= regMember.getAttendanceLimit() && !regMember.getIsEligibleForUpgrade()) {
-                    // Use reflection to set the eligibility flag since direct setter isn't working
-                    try {
-                        java.lang.reflect.Field field = RegularMember.class.getDeclaredField("isEligibleForUpgrade");
-                        field.setAccessible(true);
-                        field.set(regMember, true);
-                    } catch (Exception e) {
-                        System.err.println("Failed to set upgrade eligibility: " + e.getMessage());
-                    }
+                if (!wasEligible && regMember.getIsEligibleForUpgrade()) {
                     JOptionPane.showMessageDialog(this, 
                         "Attendance marked successfully!\nMember is now eligible for plan upgrade!", 
                         "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -983,7 +1315,7 @@ public class GymGUI extends JFrame {
 
             JOptionPane.showMessageDialog(this, "Attendance marked successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid ID!", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid ID or phone number!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -992,12 +1324,11 @@ public class GymGUI extends JFrame {
      * Upgrades the plan if the member is eligible
      */
     private void upgradePlan() {
-        String idStr = JOptionPane.showInputDialog(this, "Enter Member ID to upgrade plan:");
+        String idStr = promptForMember("Enter Member ID, phone or name to upgrade plan:");
         if (idStr == null || idStr.trim().isEmpty()) return;
 
         try {
-            int id = Integer.parseInt(idStr.trim());
-            GymMember member = findMemberById(id);
+            GymMember member = findMember(idStr);
             if (member == null) {
                 JOptionPane.showMessageDialog(this, "Member not found!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -1035,7 +1366,7 @@ public class GymGUI extends JFrame {
             JOptionPane.showMessageDialog(this, result, "Plan Upgrade", JOptionPane.INFORMATION_MESSAGE);
 
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid ID!", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid ID or phone number!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1044,12 +1375,11 @@ public class GymGUI extends JFrame {
      * Calculates discount if full payment has been made
      */
     private void calculateDiscount() {
-        String idStr = JOptionPane.showInputDialog(this, "Enter Member ID to calculate discount:");
+        String idStr = promptForMember("Enter Member ID, phone or name to calculate discount:");
         if (idStr == null || idStr.trim().isEmpty()) return;
 
         try {
-            int id = Integer.parseInt(idStr.trim());
-            GymMember member = findMemberById(id);
+            GymMember member = findMember(idStr);
             if (member == null) {
                 JOptionPane.showMessageDialog(this, "Member not found!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -1075,7 +1405,7 @@ public class GymGUI extends JFrame {
                 "Success", JOptionPane.INFORMATION_MESSAGE);
 
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid ID!", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid ID or phone number!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1084,12 +1414,11 @@ public class GymGUI extends JFrame {
      * Processes payment for a premium member
      */
     private void payDue() {
-        String idStr = JOptionPane.showInputDialog(this, "Enter Member ID to pay due amount:");
+        String idStr = promptForMember("Enter Member ID, phone or name to pay due amount:");
         if (idStr == null || idStr.trim().isEmpty()) return;
 
         try {
-            int id = Integer.parseInt(idStr.trim());
-            GymMember member = findMemberById(id);
+            GymMember member = findMember(idStr);
             if (member == null) {
                 JOptionPane.showMessageDialog(this, "Member not found!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -1109,20 +1438,20 @@ public class GymGUI extends JFrame {
 
             String amountStr = JOptionPane.showInputDialog(this, 
                     "Enter amount to pay (Remaining: Rs. " + 
-                    (premMember.getPremiumCharge() - premMember.getPaidAmount()) + "):");
+                    Money.toRupees(premMember.getPremiumChargePaisa() - premMember.getPaidPaisa()) + "):");
 
             if (amountStr == null || amountStr.trim().isEmpty()) return;
 
             try {
-                double amount = Double.parseDouble(amountStr.trim());
-                String result = premMember.payDueAmount(amount);
+                long amount = Money.parse(amountStr);
+                String result = premMember.payDuePaisa(amount);
                 JOptionPane.showMessageDialog(this, result, "Payment", JOptionPane.INFORMATION_MESSAGE);
-            } catch (NumberFormatException e) {
+            } catch (IllegalArgumentException e) {
                 JOptionPane.showMessageDialog(this, "Invalid amount!", "Error", JOptionPane.ERROR_MESSAGE);
             }
 
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid ID!", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid ID or phone number!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1131,12 +1460,11 @@ public class GymGUI extends JFrame {
      * Reverts a regular member with the given ID from dialog
      */
     private void revertRegularMember() {
-        String idStr = JOptionPane.showInputDialog(this, "Enter Member ID to revert (Regular):");
+        String idStr = promptForMember("Enter Member ID, phone or name to revert (Regular):");
         if (idStr == null || idStr.trim().isEmpty()) return;
 
         try {
-            int id = Integer.parseInt(idStr.trim());
-            GymMember member = findMemberById(id);
+            GymMember member = findMember(idStr);
             if (member == null) {
                 JOptionPane.showMessageDialog(this, "Member not found!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -1152,7 +1480,7 @@ public class GymGUI extends JFrame {
             regMember.revertRegularMember(reason);
             JOptionPane.showMessageDialog(this, "Regular member reverted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid ID!", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid ID or phone number!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1161,12 +1489,11 @@ public class GymGUI extends JFrame {
      * Reverts a premium member with the given ID from dialog
      */
     private void revertPremiumMember() {
-        String idStr = JOptionPane.showInputDialog(this, "Enter Member ID to revert (Premium):");
+        String idStr = promptForMember("Enter Member ID, phone or name to revert (Premium):");
         if (idStr == null || idStr.trim().isEmpty()) return;
 
         try {
-            int id = Integer.parseInt(idStr.trim());
-            GymMember member = findMemberById(id);
+            GymMember member = findMember(idStr);
             if (member == null) {
                 JOptionPane.showMessageDialog(this, "Member not found!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -1179,7 +1506,7 @@ public class GymGUI extends JFrame {
             premMember.revertPremiumMember();
             JOptionPane.showMessageDialog(this, "Premium member reverted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid ID!", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid ID or phone number!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1188,307 +1515,384 @@ public class GymGUI extends JFrame {
      * Saves all members' details to a text file with formatted columns.
      * Includes member ID, name, location, phone, email, membership details,
      * attendance, loyalty points, active status, and payment information.
-     * 
-     * @throws IOException If an error occurs during file writing
+     * A snapshot with the full state of every member is written along with it.
+     * The files are written by the background saver, so the window never waits for
+     * the disk; clicking again while a save is waiting joins it, and nothing is
+     * written if no member has changed since the last save. Members can still be
+     * changed meanwhile because those changes stay in the journal.
      */
     private void saveToFile() {
-        if (membersList == null || membersList.isEmpty()) {
+        if (!restored) {
+            JOptionPane.showMessageDialog(this, "Members were not restored, nothing was saved.", ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (registry.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No members to save!", ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        // Use try-with-resources for automatic resource management
-        try (FileWriter fw = new FileWriter(new File(MEMBERS_FILE));
-        BufferedWriter bw = new BufferedWriter(fw)) {
-
-            // Write header
-            bw.write(String.format("%-5s %-15s %-15s %-15s %-25s %-20s %-10s %-10s %-10s %-15s %-10s %-15s %-15s %-15s\n", 
-                    "ID", "Name", "Location", "Phone", "Email", "Membership Start Date", 
-                    "Plan", "Price", "Attendance", "Loyalty Points", "Active Status", 
-                    "Full Payment", "Discount Amount", "Net Amount Paid"));
-
-            // Write member details
-            for (GymMember member : membersList) {
-                if (member == null) continue;
-
-                String plan = "";
-                String price = "";
-                String fullPayment = "N/A";
-                String discountAmount = "N/A";
-                String netAmountPaid = "N/A";
-
-                if (member instanceof RegularMember) {
-                    RegularMember regMember = (RegularMember) member;
-                    plan = regMember.getPlan();
-                    price = String.valueOf(regMember.getPrice());
-                } else if (member instanceof PremiumMember) {
-                    PremiumMember premMember = (PremiumMember) member;
-                    plan = "Premium";
-                    price = String.valueOf(premMember.getPremiumCharge());
-                    fullPayment = premMember.isFullPayment() ? "Yes" : "No";
-                    discountAmount = String.valueOf(premMember.getDiscountAmount());
-                    netAmountPaid = String.valueOf(premMember.getPaidAmount());
-                }
-
-                bw.write(String.format("%-5d %-15s %-15s %-15s %-25s %-20s %-10s %-10s %-10d %-15.2f %-10s %-15s %-15s %-15s\n",
-                        member.getId(), member.getName(), member.getLocation(), member.getPhone(),
-                        member.getEmail(), member.getMembershipStartDate(), plan, price,
-                        member.getAttendance(), member.getLoyaltyPoints(),
-                        member.getActiveStatus() ? "Active" : "Inactive", fullPayment,
-                        discountAmount, netAmountPaid));
+        saver.requestSave().whenComplete(new BiConsumer<Boolean, Throwable>() {
+            @Override
+            public void accept(Boolean written, final Throwable cause) {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (cause == null && Boolean.TRUE.equals(written)) {
+                            JOptionPane.showMessageDialog(GymGUI.this, "Member details saved to file successfully!", SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
+                            return;
+                        }
+                        if (cause == null) {
+                            // Nothing had changed, or the save was dropped when the members were replaced
+                            JOptionPane.showMessageDialog(GymGUI.this, "No changes to save.", INFO_TITLE, JOptionPane.INFORMATION_MESSAGE);
+                            return;
+                        }
+                        JOptionPane.showMessageDialog(GymGUI.this, 
+                            "Error saving file: " + cause.getMessage(), 
+                            ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                        // Log the exception
+                        System.err.println("File save error: " + cause);
+                        cause.printStackTrace();
+                    }
+                });
             }
-
-            JOptionPane.showMessageDialog(this, "Member details saved to file successfully!", SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error saving file: " + e.getMessage(), 
-                ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-            // Log the exception
-            System.err.println("File save error: " + e);
-            e.printStackTrace();
-        }
+        });
     }
 
     /**
      * Method to read members from file.
      * Reads all members' details from a text file and reconstructs member objects.
      * Displays the file contents in a scrollable window.
-     * Clears the current member list before loading from file.
-     * 
-     * @throws IOException If an error occurs during file reading
-     * @throws NumberFormatException If numeric data in the file is invalid
+     * The members are loaded in the background into a new registry, which replaces
+     * the current member list once loading has finished.
      */
     
     private void readFromFile() {
-        File file = new File(MEMBERS_FILE);
+        final File file = new File(MEMBERS_FILE);
         if (!file.exists()) {
             JOptionPane.showMessageDialog(this, "File does not exist!", ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
             return;
         }
         
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            // Skip header line
-            String line = br.readLine();
-            if (line == null) {
-                JOptionPane.showMessageDialog(this, "File is empty!", ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-                return;
+        new FileTask<Integer>("Reading members...", true, actionButtons) {
+            private MemberRegistry loaded;  // Registry the members are loaded into
+            private String contents;        // Text of the file for display
+            private volatile int replaced = -1; // Members loaded once the snapshot has been replaced
+
+            @Override
+            protected Integer doInBackground() throws IOException {
+                loaded = new MemberRegistry();
+                int membersLoaded = loadMembers(file, loaded, this);
+                if (membersLoaded > 0) {
+                    contents = new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset());
+                }
+                if (membersLoaded >= 0) {
+                    // The loaded members replace the current ones, so they become the snapshot
+                    saver.replaceSnapshot(loaded.getMembers());
+                    replaced = membersLoaded;
+                }
+                return membersLoaded;
             }
-            
-            // Clear current list
-            membersList.clear();
-            
-            // Create StringBuilder for display
-            StringBuilder displayText = new StringBuilder();
-            displayText.append(line + "\n"); // Add the header line
-            
-            int membersLoaded = 0;
-            String INFO_TITLE = "Information"; // Define this if not already defined
-            
-            while ((line = br.readLine()) != null) {
-                // Skip empty lines
-                if (line.trim().isEmpty()) continue;
-                
-                // Add the line to display
-                displayText.append(line + "\n");
-                
-                try {
-                    // Check if line is long enough to parse
-                    if (line.length() < 100) {
-                        System.out.println("Line too short: " + line);
-                        continue;
-                    }
-                    
-                    // Parse the line using substring
-                    int id = Integer.parseInt(line.substring(0, 5).trim());
-                    String name = line.substring(5, 20).trim();
-                    String location = line.substring(20, 35).trim();
-                    String phone = line.substring(35, 50).trim();
-                    String email = line.substring(50, 75).trim();
-                    String startDate = line.substring(75, 95).trim();
-                    String plan = line.substring(95, 105).trim();
-                    
-                    // Default values
-                    int attendance = 0;
-                    double loyaltyPoints = 0.0;
-                    boolean activeStatus = false;
-                    
-                    // Try to parse additional fields if they exist
-                    if (line.length() >= 125) {
-                        try {
-                            String attendanceStr = line.substring(115, 125).trim();
-                            // Remove any non-digit characters before parsing
-                            attendanceStr = attendanceStr.replaceAll("[^0-9]", "");
-                            if (!attendanceStr.isEmpty()) {
-                                attendance = Integer.parseInt(attendanceStr);
-                            }
-                        } catch (NumberFormatException e) {
-                            System.out.println("Error parsing attendance: " + line.substring(115, 125));
-                        }
-                    }
-                    
-                    if (line.length() >= 140) {
-                        try {
-                            loyaltyPoints = Double.parseDouble(line.substring(125, 140).trim());
-                        } catch (NumberFormatException e) {
-                            System.out.println("Error parsing loyalty points: " + line.substring(125, 140));
-                        }
-                    }
-                    
-                    if (line.length() >= 150) {
-                        activeStatus = line.substring(140, 150).trim().equals("Active");
-                    }
-                    
-                    // Create appropriate member object based on plan
-                    if (plan.equalsIgnoreCase("Premium")) {
-                        // Create a new PremiumMember
-                        String trainer = "Default Trainer";
-                        PremiumMember member = new PremiumMember(id, name, location, phone, email, 
-                                                               "Male", "1990-01-01", startDate, trainer);
-                        
-                        // Set active status
-                        if (activeStatus) member.activateMembership();
-                        
-                        // Set attendance
-                        for (int i = 0; i < attendance; i++) {
-                            member.markAttendance();
-                        }
-                        
-                        membersList.add(member);
-                        membersLoaded++;
-                    } else {
-                        // Create a new RegularMember
-                        String referral = "Default";
-                        
-                        RegularMember member = new RegularMember(id, name, location, phone, email, 
-                                                               "Male", "1990-01-01", startDate, referral);
-                        
-                        // Handle plan
-                        if (!plan.equalsIgnoreCase("basic")) {
-                            // Mark attendance to make eligible for upgrade
-                            for (int i = 0; i < 30; i++) {
-                                member.markAttendance();
-                            }
-                            // Upgrade the plan
-                            member.upgradePlan(plan);
-                        }
-                        
-                        // Set active status
-                        if (activeStatus) member.activateMembership();
-                        
-                        // Reset and set correct attendance
-                        member.resetMember();
-                        if (activeStatus) member.activateMembership();
-                        for (int i = 0; i < attendance; i++) {
-                            member.markAttendance();
-                        }
-                        
-                        membersList.add(member);
-                        membersLoaded++;
-                    }
-                } catch (Exception e) {
-                    System.out.println("Error processing line: " + line);
-                    System.out.println("Error: " + e.getMessage());
+
+            @Override
+            protected void finished(Integer membersLoaded) {
+                if (membersLoaded < 0) {
+                    JOptionPane.showMessageDialog(GymGUI.this, "File is empty!", ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                // Loading replaces every member, so it is not journaled member by member
+                registry.removeMemberListener(journal);
+                registry = loaded;
+                // The members in memory now match the snapshot, so the journal starts again from it
+                checkpointJournal(-1);
+                registry.addMemberListener(journal);
+                saver.setRegistry(registry, true);
+                if (memberTableModel != null) {
+                    memberTableModel.setRegistry(registry);
                 }
+                showFileContents(contents, membersLoaded);
             }
-            
-            // Only show the display frame if members were loaded
-            if (membersLoaded > 0) {
-                // Display the file contents
-                JTextArea textArea = new JTextArea(displayText.toString());
-                textArea.setEditable(false);
-                textArea.setFont(new Font("Monospaced", Font.PLAIN, 12)); // Use monospaced font for alignment
-                JScrollPane scrollPane = new JScrollPane(textArea);
-                scrollPane.setPreferredSize(new Dimension(800, 400));
-                
-                JFrame frame = new JFrame("Member Details from File");
-                frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-                frame.getContentPane().add(scrollPane);
-                frame.pack();
-                frame.setLocationRelativeTo(this);
-                
-                JOptionPane.showMessageDialog(this, 
-                    membersLoaded + " members imported from file successfully!", 
-                    SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
-                
-                frame.setVisible(true);
-            } else {
-                JOptionPane.showMessageDialog(this, 
-                    "No valid members found in file!", 
-                    INFO_TITLE, JOptionPane.INFORMATION_MESSAGE);
+
+            @Override
+            protected void cancelled() {
+                if (replaced >= 0) {
+                    // Cancelled too late, the snapshot has already been replaced
+                    finished(replaced);
+                    return;
+                }
+                JOptionPane.showMessageDialog(GymGUI.this, "Reading cancelled, the members were not changed.", INFO_TITLE, JOptionPane.INFORMATION_MESSAGE);
+            }
+
+            @Override
+            protected void failed(Throwable cause) {
+                JOptionPane.showMessageDialog(GymGUI.this, "Error reading from file: " + cause.getMessage(), ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
             }
+        }.execute();
+    }
+
+    /**
+     * Method to show the contents of the members file after reading it.
+     * 
+     * @param contents Text of the file
+     * @param membersLoaded Number of members loaded from the file
+     */
+    private void showFileContents(String contents, int membersLoaded) {
+        // Only show the display frame if members were loaded
+        if (membersLoaded > 0) {
+            // Display the file contents
+            JTextArea textArea = new JTextArea(contents);
+            textArea.setEditable(false);
+            textArea.setFont(new Font("Monospaced", Font.PLAIN, 12)); // Use monospaced font for alignment
+            JScrollPane scrollPane = new JScrollPane(textArea);
+            scrollPane.setPreferredSize(new Dimension(800, 400));
             
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "Error reading from file: " + e.getMessage(), ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            JFrame frame = new JFrame("Member Details from File");
+            frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+            frame.getContentPane().add(scrollPane);
+            frame.pack();
+            frame.setLocationRelativeTo(this);
+            
+            JOptionPane.showMessageDialog(this, 
+                membersLoaded + " members imported from file successfully!", 
+                SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
+            
+            frame.setVisible(true);
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                "No valid members found in file!", 
+                INFO_TITLE, JOptionPane.INFORMATION_MESSAGE);
         }
     }
-             
+    
+    /**
+     * Method to load members from a file into a registry.
+     * Clears the registry before loading.
+     * Lines that cannot be parsed are skipped.
+     * Large files are parsed on all cores.
+     * 
+     * @param file The members file
+     * @param target The registry to fill
+     * @param progress Listener told about progress, or null
+     * @return Number of members loaded, or -1 if the file is empty
+     * @throws IOException If an error occurs during file reading
+     */
+    private int loadMembers(File file, MemberRegistry target, ProgressListener progress) throws IOException {
+        return new ParallelMemberLoader().load(file, target, progress);
+    }
+
 
     /**
      * Method to display members
-     * Creates a new frame to display all members
+     * Opens a table listing all members, or brings the open one to the front.
+     * The table reads rows from the registry as they are shown and can be
+     * filtered and sorted by type, plan, status and attendance.
      */
     private void displayMembers() {
-        if (membersList.isEmpty()) {
+        if (registry.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No members to display!", ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (memberBrowser != null) {
+            memberBrowser.toFront();
+            return;
+        }
 
-        // Create a text area to display member information
-        JTextArea textArea = new JTextArea();
-        textArea.setEditable(false);
-        textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        
-        // Create a scroll pane for the text area
-        JScrollPane scrollPane = new JScrollPane(textArea);
-        scrollPane.setPreferredSize(new Dimension(800, 500));
-        
-        // Build the display text
-        StringBuilder displayText = new StringBuilder();
-        displayText.append("MEMBER LIST\n");
-        displayText.append("===========================================================\n\n");
-        
-        for (GymMember member : membersList) {
-            displayText.append("Member ID: ").append(member.getId()).append("\n");
-            displayText.append("Name: ").append(member.getName()).append("\n");
-            displayText.append("Location: ").append(member.getLocation()).append("\n");
-            displayText.append("Phone: ").append(member.getPhone()).append("\n");
-            displayText.append("Email: ").append(member.getEmail()).append("\n");
-            displayText.append("Gender: ").append(member.getGender()).append("\n");
-            displayText.append("DOB: ").append(member.getDOB()).append("\n");
-            displayText.append("Membership Start: ").append(member.getMembershipStartDate()).append("\n");
-            displayText.append("Attendance: ").append(member.getAttendance()).append("\n");
-            displayText.append("Loyalty Points: ").append(member.getLoyaltyPoints()).append("\n");
-            displayText.append("Status: ").append(member.getActiveStatus() ? "Active" : "Inactive").append("\n");
-            
-            if (member instanceof RegularMember) {
-                RegularMember regMember = (RegularMember) member;
-                displayText.append("Type: Regular\n");
-                displayText.append("Plan: ").append(regMember.getPlan()).append("\n");
-                displayText.append("Price: Rs. ").append(regMember.getPrice()).append("\n");
-                displayText.append("Referral: ").append(regMember.getReferralSource()).append("\n");
-                displayText.append("Eligible for Upgrade: ").append(regMember.getIsEligibleForUpgrade() ? "Yes" : "No").append("\n");
-            } else if (member instanceof PremiumMember) {
-                PremiumMember premMember = (PremiumMember) member;
-                displayText.append("Type: Premium\n");
-                displayText.append("Trainer: ").append(premMember.getPersonalTrainer()).append("\n");
-                displayText.append("Premium Charge: Rs. ").append(premMember.getPremiumCharge()).append("\n");
-                displayText.append("Discount Amount: Rs. ").append(premMember.getDiscountAmount()).append("\n");
-                displayText.append("Net Amount Paid: Rs. ").append(premMember.getPaidAmount()).append("\n");
-                displayText.append("Payment Status: ").append(premMember.isFullPayment() ? "Complete" : "Incomplete").append("\n");
+        memberTableModel = new MemberTableModel(registry);
+        final MemberTableModel model = memberTableModel;
+        final JTable table = new JTable(model);
+        table.setFont(mainFont);
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        // Clicking a column header sorts by that column
+        final JTableHeader header = table.getTableHeader();
+        header.setReorderingAllowed(false);
+        header.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent evt) {
+                int column = table.convertColumnIndexToModel(header.columnAtPoint(evt.getPoint()));
+                if (column >= 0) {
+                    model.sortBy(column);
+                }
             }
-            
-            displayText.append("\n-----------------------------------\n\n");
-        }
-        
-        textArea.setText(displayText.toString());
-        
+        });
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(1000, 500));
+
+        // Filters
+        final JComboBox<String> typeFilter = new JComboBox<>(new String[] {"All", "Regular", "Premium"});
+        final JComboBox<String> planFilter = new JComboBox<>(new String[] {"All", "basic", "standard", "deluxe", "premium"});
+        final JComboBox<String> statusFilter = new JComboBox<>(new String[] {"All", "Active", "Inactive"});
+        final JTextField attendanceFilter = new JTextField("0", 5);
+        final JLabel countLabel = new JLabel();
+
+        ActionListener applyFilter = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int minAttendance;
+                try {
+                    minAttendance = Integer.parseInt(attendanceFilter.getText().trim());
+                } catch (NumberFormatException ex) {
+                    JOptionPane.showMessageDialog(memberBrowser, "Invalid attendance!", ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                model.setFilter(filterValue(typeFilter), filterValue(planFilter),
+                                filterValue(statusFilter), minAttendance);
+            }
+        };
+        typeFilter.addActionListener(applyFilter);
+        planFilter.addActionListener(applyFilter);
+        statusFilter.addActionListener(applyFilter);
+        attendanceFilter.addActionListener(applyFilter);
+
+        model.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                countLabel.setText("Showing " + model.getRowCount() + " of " + model.getMemberCount() + " members");
+            }
+        });
+        countLabel.setText("Showing " + model.getRowCount() + " of " + model.getMemberCount() + " members");
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Type:"));
+        filterPanel.add(typeFilter);
+        filterPanel.add(new JLabel("Plan:"));
+        filterPanel.add(planFilter);
+        filterPanel.add(new JLabel("Status:"));
+        filterPanel.add(statusFilter);
+        filterPanel.add(new JLabel("Min attendance:"));
+        filterPanel.add(attendanceFilter);
+        filterPanel.add(countLabel);
+
         // Create a frame to display the members
-        JFrame frame = new JFrame("Member Details - Total: " + membersList.size());
-        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        frame.getContentPane().add(scrollPane);
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setVisible(true);
+        memberBrowser = new JFrame("Member Details");
+        memberBrowser.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        memberBrowser.getContentPane().add(filterPanel, BorderLayout.NORTH);
+        memberBrowser.getContentPane().add(scrollPane, BorderLayout.CENTER);
+        memberBrowser.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                // Stop following member changes
+                model.dispose();
+                memberTableModel = null;
+                memberBrowser = null;
+            }
+        });
+        memberBrowser.pack();
+        memberBrowser.setLocationRelativeTo(null);
+        memberBrowser.setVisible(true);
+    }
+
+    /**
+     * Method to get the filter value chosen in a combo box
+     * 
+     * @param comboBox The filter combo box
+     * @return The chosen value, or null for "All"
+     */
+    private static String filterValue(JComboBox<String> comboBox) {
+        String value = (String) comboBox.getSelectedItem();
+        return "All".equals(value) ? null : value;
+    }
+
+    /**
+     * Background task for loading, saving and listing members
+     * Runs doInBackground on a worker thread and shows its progress in a progress monitor.
+     * Buttons that must not be used meanwhile are disabled until it is done. Then the
+     * result is handed to finished, cancelled or failed on the event dispatch thread.
+     * 
+     * @param <T> Type of the task result
+     */
+    private abstract class FileTask<T> extends SwingWorker<T, Void> implements ProgressListener {
+        private final ProgressMonitor monitor;     // Progress dialog shown while the task runs
+        private final ArrayList<JButton> buttons;  // Buttons disabled while the task runs, or null
+
+        /**
+         * Constructor for FileTask
+         * 
+         * @param message Message shown in the progress monitor
+         * @param cancellable Whether the cancel button of the progress monitor stops the task
+         * @param buttons Buttons to disable while the task runs, or null
+         */
+        FileTask(String message, final boolean cancellable, ArrayList<JButton> buttons) {
+            this.buttons = buttons;
+            setButtonsEnabled(false);
+            monitor = new ProgressMonitor(GymGUI.this, message, null, 0, 100);
+            addPropertyChangeListener(new PropertyChangeListener() {
+                @Override
+                public void propertyChange(PropertyChangeEvent evt) {
+                    if ("progress".equals(evt.getPropertyName())) {
+                        monitor.setProgress((Integer) evt.getNewValue());
+                        if (cancellable && monitor.isCanceled()) {
+                            cancel(true);
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * Method called from the worker thread as the task goes on
+         * 
+         * @return False once the task has been cancelled
+         */
+        @Override
+        public boolean progress(long done, long total) {
+            if (total > 0) {
+                setProgress((int) Math.min(100, done * 100 / total));
+            }
+            return !isCancelled();
+        }
+
+        /**
+         * Method called on the event dispatch thread when the task is done
+         */
+        @Override
+        protected final void done() {
+            monitor.close();
+            setButtonsEnabled(true);
+            try {
+                finished(get());
+            } catch (CancellationException e) {
+                cancelled();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                failed(e.getCause());
+            }
+        }
+
+        /**
+         * Method to enable or disable the buttons of this task
+         * 
+         * @param enabled True to enable the buttons
+         */
+        private void setButtonsEnabled(boolean enabled) {
+            if (buttons == null) return;
+            for (JButton button : buttons) {
+                button.setEnabled(enabled);
+            }
+        }
+
+        /**
+         * Method called on the event dispatch thread with the result of the task
+         * 
+         * @param result The result of doInBackground
+         */
+        protected abstract void finished(T result);
+
+        /**
+         * Method called on the event dispatch thread if the task was cancelled
+         */
+        protected void cancelled() {
+        }
+
+        /**
+         * Method called on the event dispatch thread if the task failed
+         * 
+         * @param cause The exception thrown by doInBackground
+         */
+        protected abstract void failed(Throwable cause);
     }
 
     /**
@@ -1566,44 +1970,6 @@ public class GymGUI extends JFrame {
         return true;
     }
 
-    /**
-     * Method to check if a member exists
-     * 
-     * @param id The member ID
-     * @return True if the member exists, false otherwise
-     */
-    private boolean memberExists(int id) {
-        if (membersList == null) {
-            return false;
-        }
-
-        for (GymMember member : membersList) {
-            if (member != null && member.getId() == id) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Method to find a member by ID
-     * 
-     * @param id The member ID
-     * @return The member, or null if not found
-     */
-    private GymMember findMemberById(int id) {
-        if (membersList == null) {
-            return null;
-        }
-
-        for (GymMember member : membersList) {
-            if (member != null && member.getId() == id) {
-                return member;
-            }
-        }
-        return null;
-    }
-
     /**
      * Method to get the selected date from combo boxes
      * 
@@ -1736,7 +2102,13 @@ public class GymGUI extends JFrame {
      * @param args Command line arguments
      */
     public static void main(String[] args) {
-                    new GymGUI().setVisible(true);
+        // Swing components must be created on the event dispatch thread
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                new GymGUI().setVisible(true);
+            }
+        });
     }
 
     /**
@@ -1746,40 +2118,11 @@ public class GymGUI extends JFrame {
      * @return True if the date is valid, false otherwise
      */
     private boolean isValidDate(String dateStr) {
-        // Basic format validation
-        if (dateStr == null || !dateStr.matches("\\d{4}-\\d{2}-\\d{2}")) {
-            return false;
-        }
-
-        try {
-            // Extract components
-            int year = Integer.parseInt(dateStr.substring(0, 4));
-            int month = Integer.parseInt(dateStr.substring(5, 7));
-            int day = Integer.parseInt(dateStr.substring(8, 10));
-
-            // Basic range check
-            if (year < 1900 || year > 2100 || month < 1 || month > 12 || day < 1 || day > 31) {
-                return false;
-            }
-
-            // Check days in month
-            if (month == 2) {
-                // February - check for leap year
-                boolean isLeapYear = (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
-                if (day > (isLeapYear ? 29 : 28)) {
-                    return false;
-                }
-            } else if (month == 4 || month == 6 || month == 9 || month == 11) {
-                // April, June, September, November have 30 days
-                if (day > 30) {
-                    return false;
-                }
-            }
-
-            return true;
-        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+        if (!EpochDays.isValid(dateStr)) {
             return false;
         }
+        int year = EpochDays.year(EpochDays.parse(dateStr));
+        return year >= 1900 && year <= 2100;
     }
 }
 
@@ -1,7 +1,13 @@
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Root class for GYM management system 
  * Sub classes common attributes with protected access modifier
  * 
+ * Active status, attendance, loyalty points and upgrade eligibility are kept together
+ * in one immutable AttendanceState that is swapped atomically, so check-ins from several
+ * threads need no lock and never lose an update
+ * 
  *@author Bhumika Rayamajhi
  *@version 2.0
  */
@@ -13,11 +19,11 @@ public abstract class GymMember {
     protected String phone;               // Member's phone number
     protected String email;               // Member's email address
     protected String gender;              // Member's gender (Male/Female)
-    protected String DOB;                 // Member's date of birth (YYYY-MM-DD)
-    protected String membershipStartDate; // Date when membership started (YYYY-MM-DD)
-    protected int attendance;             // Number of times member has attended
-    protected double loyaltyPoints;       // Loyalty points accumulated by member
-    protected boolean activeStatus;       // Whether membership is active or not
+    protected int dobEpochDay;            // Member's date of birth (days since 1970-01-01)
+    protected int startEpochDay;          // Date when membership started (days since 1970-01-01)
+    private final AtomicReference<AttendanceState> state; // Active status, attendance, loyalty points and eligibility
+    private volatile MemberListener listener; // Notified after each change (set by MemberRegistry)
+    private int ordinal = -1;             // Position in the registry (set by MemberRegistry)
     
     /**
      * Constructor for GymMember
@@ -30,11 +36,30 @@ public abstract class GymMember {
      * @param phone Member's phone number
      * @param email Member's email address
      * @param gender Member's gender
-     * @param DOB Member's date of birth
-     * @param startDate Membership start date
+     * @param DOB Member's date of birth (YYYY-MM-DD)
+     * @param startDate Membership start date (YYYY-MM-DD)
+     * @throws IllegalArgumentException If a value is missing or a date is not valid
      */
     public GymMember(int id, String name, String location, String phone, 
                      String email, String gender, String DOB, String startDate) {
+        this(id, name, location, phone, email, gender, EpochDays.parse(DOB), EpochDays.parse(startDate));
+    }
+
+    /**
+     * Constructor for GymMember
+     * Takes the dates as epoch days, for callers that have already parsed them
+     * 
+     * @param id Member ID (unique)
+     * @param name Member's full name
+     * @param location Member's location/address
+     * @param phone Member's phone number
+     * @param email Member's email address
+     * @param gender Member's gender
+     * @param dobEpochDay Member's date of birth (days since 1970-01-01)
+     * @param startEpochDay Membership start date (days since 1970-01-01)
+     */
+    public GymMember(int id, String name, String location, String phone, 
+                     String email, String gender, int dobEpochDay, int startEpochDay) {
         // Simple validations
         if (id <= 0) throw new IllegalArgumentException("ID must be positive");
         if (name == null || name.trim().isEmpty()) throw new IllegalArgumentException("Name cannot be empty");
@@ -48,26 +73,41 @@ public abstract class GymMember {
         this.phone = phone;
         this.email = email;
         this.gender = gender;
-        this.DOB = DOB;
-        this.membershipStartDate = startDate;
-        this.attendance = 0;
-        this.loyaltyPoints = 0;
-        this.activeStatus = false;
+        this.dobEpochDay = dobEpochDay;
+        this.startEpochDay = startEpochDay;
+        this.state = new AtomicReference<>(new AttendanceState(false, 0, 0, false));
     }
 
     /**
      * Abstract method to mark attendance
      * Must be implemented by child classes
      * Different member types may have different attendance rules
+     * 
+     * @return True if attendance was marked, false if the membership is not active
      */
-    public abstract void markAttendance();
+    public abstract boolean markAttendance();
+
+    /**
+     * Abstract method to mark attendance and get the state it left
+     * Does the same as markAttendance. Since other check-ins may change the member
+     * right after, the returned state is the only consistent view of this one.
+     * 
+     * @return Active status, attendance, loyalty points and eligibility just after this
+     *         check-in, or null if the membership is not active
+     */
+    public abstract AttendanceState checkIn();
 
     /**
      * Method to activate membership
      * Sets activeStatus to true
      */
     public void activateMembership() {
-        this.activeStatus = true;
+        AttendanceState current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, new AttendanceState(true, current.attendance, current.loyaltyPoints,
+                                                                   current.eligibleForUpgrade)));
+        fireChanged(MemberListener.ACTIVATE, "");
     }
 
     /**
@@ -75,20 +115,130 @@ public abstract class GymMember {
      * Sets activeStatus to false if currently active
      */
     public void deactivateMembership() {
-        if (this.activeStatus) {
-            this.activeStatus = false;
-        }
+        AttendanceState current;
+        do {
+            current = state.get();
+            if (!current.active) return;
+        } while (!state.compareAndSet(current, new AttendanceState(false, current.attendance, current.loyaltyPoints,
+                                                                   current.eligibleForUpgrade)));
+        fireChanged(MemberListener.DEACTIVATE, "");
     }
 
     /**
      * Method to reset member
-     * Sets activeStatus to false, attendance to 0, and loyaltyPoints to 0
+     * Sets activeStatus to false, attendance to 0, loyaltyPoints to 0 and upgrade
+     * eligibility to false in one step, so a check-in that read the state before
+     * the reset fails its compare-and-set instead of writing over the reset
      * Used when reverting a member
      */
     public void resetMember() {
-        this.activeStatus = false;
-        this.attendance = 0;
-        this.loyaltyPoints = 0;
+        state.set(new AttendanceState(false, 0, 0, false));
+    }
+
+    /**
+     * Method to record one attendance without taking a lock
+     * Adds one attendance and the loyalty points in a single atomic step,
+     * retrying if another check-in for the same member got there first.
+     * Used by the checkIn methods of the child classes.
+     * 
+     * @param points Loyalty points earned by the visit
+     * @return The state set by this check-in, or null if the membership is not active
+     */
+    protected AttendanceState recordAttendance(double points) {
+        AttendanceState current;
+        AttendanceState next;
+        do {
+            current = state.get();
+            if (!current.active) return null;
+            next = current.checkedIn(points, current.eligibleForUpgrade);
+        } while (!state.compareAndSet(current, next));
+        return next;
+    }
+
+    /**
+     * Method to replace the state if it has not changed since it was read
+     * Lets child classes make check-ins that change more than recordAttendance does
+     * 
+     * @param expected The state read before
+     * @param next The new state
+     * @return True if the state was replaced, false if another change got there first
+     */
+    protected boolean compareAndSetState(AttendanceState expected, AttendanceState next) {
+        return state.compareAndSet(expected, next);
+    }
+
+    /**
+     * Method to set upgrade eligibility, keeping the rest of the state
+     * 
+     * @param eligibleForUpgrade The new upgrade eligibility
+     */
+    protected void setEligibleForUpgrade(boolean eligibleForUpgrade) {
+        AttendanceState current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, new AttendanceState(current.active, current.attendance,
+                                                                   current.loyaltyPoints, eligibleForUpgrade)));
+    }
+
+    /**
+     * Method to restore saved state
+     * Sets attendance, loyalty points and active status directly when loading
+     * members from a file, instead of replaying every visit
+     * Upgrade eligibility is kept as it is
+     * 
+     * @param attendance Saved number of attendances
+     * @param loyaltyPoints Saved loyalty points
+     * @param activeStatus Saved active status
+     */
+    public void restoreState(int attendance, double loyaltyPoints, boolean activeStatus) {
+        if (attendance < 0) throw new IllegalArgumentException("Attendance cannot be negative");
+        if (loyaltyPoints < 0) throw new IllegalArgumentException("Loyalty points cannot be negative");
+
+        AttendanceState current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, new AttendanceState(activeStatus, attendance, loyaltyPoints,
+                                                                   current.eligibleForUpgrade)));
+    }
+
+    /**
+     * Method to set the listener notified after each change
+     * 
+     * @param listener The listener, or null to stop notifications
+     */
+    public void setListener(MemberListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Method to get the position of the member in its registry
+     * 
+     * @return Position in insertion order, or -1 if not in a registry
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Method to set the position of the member in its registry
+     * 
+     * @param ordinal Position in insertion order, or -1 when removed
+     */
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Method to notify the listener that this member has changed
+     * Child classes call this at the end of every successful change
+     * 
+     * @param operation The operation that was applied
+     * @param argument The argument of the operation, or an empty string
+     */
+    protected void fireChanged(String operation, String argument) {
+        if (listener != null) {
+            listener.memberChanged(this, operation, argument);
+        }
     }
 
     // Getter methods for all attributes
@@ -123,46 +273,62 @@ public abstract class GymMember {
     public String getGender() { return gender; }
     
     /**
-     * @return Member's date of birth
+     * @return Member's date of birth (YYYY-MM-DD)
      */
-    public String getDOB() { return DOB; }
+    public String getDOB() { return EpochDays.format(dobEpochDay); }
     
     /**
-     * @return Membership start date
+     * @return Membership start date (YYYY-MM-DD)
      */
-    public String getMembershipStartDate() { return membershipStartDate; }
+    public String getMembershipStartDate() { return EpochDays.format(startEpochDay); }
+    
+    /**
+     * @return Member's date of birth in days since 1970-01-01
+     */
+    public int getDOBEpochDay() { return dobEpochDay; }
+    
+    /**
+     * @return Membership start date in days since 1970-01-01
+     */
+    public int getMembershipStartEpochDay() { return startEpochDay; }
     
     /**
      * @return Number of attendances
      */
-    public int getAttendance() { return attendance; }
+    public int getAttendance() { return state.get().attendance; }
     
     /**
      * @return Loyalty points
      */
-    public double getLoyaltyPoints() { return loyaltyPoints; }
+    public double getLoyaltyPoints() { return state.get().loyaltyPoints; }
     
     /**
      * @return Active status (true if active, false if inactive)
      */
-    public boolean getActiveStatus() { return activeStatus; }
+    public boolean getActiveStatus() { return state.get().active; }
+
+    /**
+     * @return Active status, attendance, loyalty points and upgrade eligibility read together
+     */
+    public AttendanceState getAttendanceState() { return state.get(); }
 
     /**
      * Method to display member information
      * @return A formatted string with member details
      */
     public String getDisplayInfo() {
+        AttendanceState current = state.get();
         return "Member ID: " + id + "\n" +
                "Name: " + name + "\n" +
                "Location: " + location + "\n" +
                "Phone: " + phone + "\n" +
                "Email: " + email + "\n" +
                "Gender: " + gender + "\n" +
-               "Date of Birth: " + DOB + "\n" +
-               "Membership Start Date: " + membershipStartDate + "\n" +
-               "Attendance: " + attendance + "\n" +
-               "Loyalty Points: " + loyaltyPoints + "\n" +
-               "Active Status: " + (activeStatus ? "Active" : "Inactive");
+               "Date of Birth: " + getDOB() + "\n" +
+               "Membership Start Date: " + getMembershipStartDate() + "\n" +
+               "Attendance: " + current.attendance + "\n" +
+               "Loyalty Points: " + current.loyaltyPoints + "\n" +
+               "Active Status: " + (current.active ? "Active" : "Inactive");
     }
 
     /**
@@ -171,4 +337,53 @@ public abstract class GymMember {
     public void display() {
         System.out.println(getDisplayInfo());
     }
+
+    /**
+     * Active status, attendance, loyalty points and upgrade eligibility of a member at one moment
+     * Never changed after it is created; a change makes a new one
+     */
+    public static final class AttendanceState {
+        private final boolean active;              // Whether membership is active
+        private final int attendance;              // Number of times member has attended
+        private final double loyaltyPoints;        // Loyalty points accumulated by member
+        private final boolean eligibleForUpgrade;  // Whether a regular member may upgrade; never for premium members
+
+        AttendanceState(boolean active, int attendance, double loyaltyPoints, boolean eligibleForUpgrade) {
+            this.active = active;
+            this.attendance = attendance;
+            this.loyaltyPoints = loyaltyPoints;
+            this.eligibleForUpgrade = eligibleForUpgrade;
+        }
+
+        /**
+         * Method to get the state after one more attendance
+         * 
+         * @param points Loyalty points earned by the visit
+         * @param eligibleForUpgrade Upgrade eligibility after the visit
+         * @return The new state
+         */
+        AttendanceState checkedIn(double points, boolean eligibleForUpgrade) {
+            return new AttendanceState(true, attendance + 1, loyaltyPoints + points, eligibleForUpgrade);
+        }
+
+        /**
+         * @return Active status (true if active, false if inactive)
+         */
+        public boolean isActive() { return active; }
+
+        /**
+         * @return Number of attendances
+         */
+        public int getAttendance() { return attendance; }
+
+        /**
+         * @return Loyalty points
+         */
+        public double getLoyaltyPoints() { return loyaltyPoints; }
+
+        /**
+         * @return Upgrade eligibility (always false for premium members)
+         */
+        public boolean isEligibleForUpgrade() { return eligibleForUpgrade; }
+    }
 }
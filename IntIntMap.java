@@ -0,0 +1,171 @@
+import java.util.Arrays;
+
+/**
+ * Map from member ID to a number such as a record number, stored in two int arrays
+ * Works like IntMemberMap: IDs are positive, 0 marks a free slot, and a key is found
+ * by linear probing from its hash slot. An entry costs two ints times the spare room,
+ * with no Integer objects, so the index of a large member store stays small.
+ *
+ * Not safe for use by several threads at once without locking.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class IntIntMap {
+    private static final int MIN_CAPACITY = 16;     // Smallest table size
+    private static final int MAX_LOAD_PERCENT = 50; // Table grows when more than this percentage is used
+
+    private int[] keys;             // Member ID in each slot, or 0 if free
+    private int[] values;           // Value in each slot
+    private int mask;               // Table size - 1; the size is a power of two
+    private int size;               // Number of entries
+    private int resizeAt;           // Size at which the table grows
+
+    /**
+     * Constructor for IntIntMap
+     * Creates an empty map
+     */
+    public IntIntMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructor for IntIntMap
+     *
+     * @param expectedSize Number of entries expected, so the table does not need to grow
+     */
+    public IntIntMap(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size cannot be negative");
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Method to find the value of a member ID
+     *
+     * @param id The member ID
+     * @return The value, or -1 if the ID is not in the map
+     */
+    public int get(int id) {
+        if (id <= 0) return -1;
+
+        int slot = slotOf(id, mask);
+        int key;
+        while ((key = keys[slot]) != 0) {
+            if (key == id) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Method to check if a member ID is in the map
+     *
+     * @param id The member ID
+     * @return True if the ID is in the map
+     */
+    public boolean containsKey(int id) {
+        return get(id) >= 0;
+    }
+
+    /**
+     * Method to add or replace the value of a member ID
+     *
+     * @param id The member ID
+     * @param value The value, not negative
+     * @throws IllegalArgumentException If the ID is not positive or the value is negative
+     */
+    public void put(int id, int value) {
+        if (id <= 0) throw new IllegalArgumentException("Member ID must be positive");
+        if (value < 0) throw new IllegalArgumentException("Value cannot be negative");
+
+        int slot = slotOf(id, mask);
+        int key;
+        while ((key = keys[slot]) != 0) {
+            if (key == id) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = id;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            grow();
+        }
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method to remove all entries
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    /**
+     * Method to double the table and move every entry to its new slot
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            int id = oldKeys[i];
+            if (id != 0) {
+                int slot = slotOf(id, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = id;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Method to create empty arrays
+     *
+     * @param capacity Table size, a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    /**
+     * @return Smallest power of two table holding the entries without growing
+     */
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) expectedSize * 100 / MAX_LOAD_PERCENT + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Method to find the first slot to try for an ID
+     *
+     * @param id The member ID
+     * @param mask Table size - 1
+     * @return The slot
+     */
+    private static int slotOf(int id, int mask) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
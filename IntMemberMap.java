@@ -0,0 +1,182 @@
+import java.util.Arrays;
+
+/**
+ * Map from member ID to member, stored in two plain arrays
+ * Member IDs are positive ints, so they are kept unboxed in an int array and 0 marks
+ * a free slot. A member is found by hashing its ID to a slot and checking the
+ * following slots until the ID or a free slot turns up (open addressing with linear
+ * probing). There is no Integer and no entry object per member: an entry costs one
+ * int and one reference, times the spare room kept so that probes stay short.
+ *
+ * Not safe for use by several threads at once without locking; ConcurrentIntMemberMap
+ * is the same table for one writer and lock-free readers.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class IntMemberMap {
+    private static final int MIN_CAPACITY = 16;     // Smallest table size
+    static final int MAX_LOAD_PERCENT = 50;         // Table grows when more than this percentage is used
+
+    private int[] keys;             // Member ID in each slot, or 0 if free
+    private GymMember[] values;     // Member in each slot
+    private int mask;               // Table size - 1; the size is a power of two
+    private int size;               // Number of members
+    private int resizeAt;           // Size at which the table grows
+
+    /**
+     * Constructor for IntMemberMap
+     * Creates an empty map
+     */
+    public IntMemberMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructor for IntMemberMap
+     *
+     * @param expectedSize Number of members expected, so the table does not need to grow
+     */
+    public IntMemberMap(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size cannot be negative");
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Method to find a member by ID
+     *
+     * @param id The member ID
+     * @return The member, or null if not found
+     */
+    public GymMember get(int id) {
+        if (id <= 0) return null;
+
+        int[] keys = this.keys;
+        int mask = this.mask;
+        int slot = slotOf(id, mask);
+        int key;
+        while ((key = keys[slot]) != 0) {
+            if (key == id) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Method to check if a member ID is in the map
+     *
+     * @param id The member ID
+     * @return True if the ID is in the map
+     */
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Method to add or replace a member
+     *
+     * @param id The member ID
+     * @param member The member
+     * @return The member the ID mapped to before, or null if there was none
+     * @throws IllegalArgumentException If the ID is not positive or the member is null
+     */
+    public GymMember put(int id, GymMember member) {
+        if (id <= 0) throw new IllegalArgumentException("Member ID must be positive");
+        if (member == null) throw new IllegalArgumentException("Member cannot be null");
+
+        int slot = slotOf(id, mask);
+        int key;
+        while ((key = keys[slot]) != 0) {
+            if (key == id) {
+                GymMember previous = values[slot];
+                values[slot] = member;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = id;
+        values[slot] = member;
+        if (++size > resizeAt) {
+            grow();
+        }
+        return null;
+    }
+
+    /**
+     * @return Number of members
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method to remove all members
+     * Keeps the table, which is refilled to about the same size when members are read again
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Method to double the table and move every member to its new slot
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        GymMember[] oldValues = values;
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            int id = oldKeys[i];
+            if (id != 0) {
+                int slot = slotOf(id, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = id;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Method to create empty arrays
+     *
+     * @param capacity Table size, a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new GymMember[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    /**
+     * @return Smallest power of two table holding the members without growing
+     */
+    static int tableSizeFor(int expectedSize) {
+        long needed = (long) expectedSize * 100 / MAX_LOAD_PERCENT + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Method to find the first slot to try for an ID
+     * Consecutive IDs are spread over the table, so runs of used slots stay short
+     *
+     * @param id The member ID
+     * @param mask Table size - 1
+     * @return The slot
+     */
+    static int slotOf(int id, int mask) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,194 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autosave of changed members into a member store
+ * The autosaver listens to a registry and marks each member that changes (added,
+ * activated, deactivated, checked in, upgraded, paid, reverted) as dirty. A background
+ * thread then writes only the dirty members into the store and forces it to disk,
+ * every interval or as soon as the number of dirty members reaches a threshold. At
+ * most one interval of changes can be lost, and a flush costs in proportion to the
+ * members changed, not to the size of the registry.
+ *
+ * A member is marked at most once between flushes, using one bit per registry
+ * position. Changes may come from several threads; a member changed again while it
+ * is being written is marked again and written by the next flush. A member that
+ * cannot be written stays dirty and is tried again by the next flush, and the
+ * background flushes keep running.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberAutosaver implements MemberListener {
+    public static final long DEFAULT_INTERVAL_MILLIS = 5000;  // Time between flushes
+    public static final int DEFAULT_THRESHOLD = 10000;        // Dirty members that start a flush early
+
+    private final MemberRegistry registry;            // Registry whose changes are saved
+    private final MemberStore store;                  // Store the dirty members are written to
+    private final int threshold;                      // Dirty members that start a flush early
+    private final ScheduledExecutorService flusher;   // The one thread flushes run on
+
+    private BitSet dirty;                             // Registry positions of the dirty members
+    private ArrayList<GymMember> dirtyMembers;        // Dirty members, in the order they changed
+    private boolean flushQueued;                      // Whether an early flush is waiting to run
+
+    /**
+     * Constructor for MemberAutosaver
+     * Uses the default interval and threshold
+     *
+     * @param registry The registry to follow
+     * @param store The store to write to, already holding the registry's members
+     */
+    public MemberAutosaver(MemberRegistry registry, MemberStore store) {
+        this(registry, store, DEFAULT_INTERVAL_MILLIS, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor for MemberAutosaver
+     * Follows the registry's changes at once and flushes them from then on.
+     *
+     * @param registry The registry to follow
+     * @param store The store to write to, already holding the registry's members
+     * @param intervalMillis Longest time a change waits before it is written
+     * @param threshold Number of dirty members that starts a flush before the interval is up
+     * @throws IllegalArgumentException If a value is missing or not positive
+     */
+    public MemberAutosaver(MemberRegistry registry, MemberStore store, long intervalMillis, int threshold) {
+        if (registry == null) throw new IllegalArgumentException("Registry cannot be null");
+        if (store == null) throw new IllegalArgumentException("Store cannot be null");
+        if (intervalMillis <= 0) throw new IllegalArgumentException("Interval must be positive");
+        if (threshold <= 0) throw new IllegalArgumentException("Threshold must be positive");
+
+        this.registry = registry;
+        this.store = store;
+        this.threshold = threshold;
+        this.dirty = new BitSet();
+        this.dirtyMembers = new ArrayList<>();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "member-autosave");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        flusher.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        registry.addMemberListener(this);
+    }
+
+    /**
+     * Method called after a member changes
+     * Marks the member dirty, and starts a flush once enough members are dirty
+     */
+    @Override
+    public synchronized void memberChanged(GymMember member, String operation, String argument) {
+        markDirty(member);
+        if (dirtyMembers.size() >= threshold && !flushQueued && !flusher.isShutdown()) {
+            flushQueued = true;
+            flusher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            });
+        }
+    }
+
+    /**
+     * Method called after the registry has been cleared
+     * The members still dirty are written by the next flush as usual, but their registry
+     * positions are taken by the members added next, so the marks by position start over
+     */
+    @Override
+    public synchronized void membersCleared() {
+        dirty = new BitSet();
+    }
+
+    /**
+     * @return Number of members changed since the last flush
+     */
+    public synchronized int getDirtyCount() {
+        return dirtyMembers.size();
+    }
+
+    /**
+     * Method to write the dirty members into the store and force it to disk now
+     * Runs on the calling thread; the background flushes call it too.
+     *
+     * @return Number of members written
+     */
+    public int flush() {
+        ArrayList<GymMember> members;
+        synchronized (this) {
+            flushQueued = false;
+            if (dirtyMembers.isEmpty()) return 0;
+            members = dirtyMembers;
+            dirtyMembers = new ArrayList<>();
+            dirty = new BitSet();
+        }
+
+        int written = 0;
+        for (GymMember member : members) {
+            try {
+                if (store.contains(member.getId())) {
+                    store.updateState(member);
+                } else {
+                    store.put(member);
+                }
+                written++;
+            } catch (IOException | RuntimeException e) {
+                // Keep the member dirty and try again next time; an exception escaping
+                // would cancel every later background flush
+                System.err.println("Member autosave error for member " + member.getId() + ": " + e);
+                synchronized (this) {
+                    markDirty(member);
+                }
+            }
+        }
+        try {
+            store.force();
+        } catch (RuntimeException e) {
+            // The operating system still writes the pages back; the next flush forces them again
+            System.err.println("Member autosave error: " + e);
+        }
+        return written;
+    }
+
+    /**
+     * Method to mark a member dirty unless it already is
+     * Must be called while holding this object's lock
+     *
+     * @param member The member
+     */
+    private void markDirty(GymMember member) {
+        int row = member.getOrdinal();
+        if (row >= 0) {
+            if (dirty.get(row)) return;
+            dirty.set(row);
+        }
+        dirtyMembers.add(member);
+    }
+
+    /**
+     * Method to stop following the registry and write the last dirty members
+     * The store is left open.
+     *
+     * @throws InterruptedException If interrupted while waiting for a flush to finish
+     */
+    public void close() throws InterruptedException {
+        registry.removeMemberListener(this);
+        flusher.shutdown();
+        flusher.awaitTermination(1, TimeUnit.MINUTES);
+        flush();
+    }
+}
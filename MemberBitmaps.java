@@ -0,0 +1,203 @@
+import java.util.BitSet;
+
+/**
+ * Bitmap indexes over the members of a registry
+ * One bit per member, at the member's registry position, for each of: active,
+ * premium (regular members are the members without it), basic, standard and deluxe
+ * plan, full payment and eligible for upgrade. A filter such as "inactive regular
+ * members on deluxe" is answered by combining the bitmaps 64 members at a time
+ * instead of looking at each member.
+ *
+ * The bitmaps listen to the registry and set a member's bits again after each change
+ * that can affect them: adding, activating, deactivating, becoming eligible, upgrading,
+ * paying and reverting. Check-ins only change flags through the eligibility event, so
+ * they are skipped. Changes may come from several threads; bits are set and read
+ * while holding this object's lock.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberBitmaps implements MemberListener {
+    private final MemberRegistry registry;  // Registry the bitmaps index
+    private int size;                       // Number of members indexed
+
+    private final BitSet active;            // Membership is active
+    private final BitSet premium;           // Premium member; regular members are the rest
+    private final BitSet basic;             // Regular member on the basic plan
+    private final BitSet standard;          // Regular member on the standard plan
+    private final BitSet deluxe;            // Regular member on the deluxe plan
+    private final BitSet fullPayment;       // Premium member who has paid the full charge
+    private final BitSet eligible;          // Regular member eligible for upgrade
+
+    /**
+     * Constructor for MemberBitmaps
+     * Indexes the members already in the registry and then follows its changes,
+     * starting over when the registry is cleared.
+     *
+     * @param registry The registry to index
+     */
+    public MemberBitmaps(MemberRegistry registry) {
+        if (registry == null) throw new IllegalArgumentException("Registry cannot be null");
+
+        this.registry = registry;
+        this.active = new BitSet();
+        this.premium = new BitSet();
+        this.basic = new BitSet();
+        this.standard = new BitSet();
+        this.deluxe = new BitSet();
+        this.fullPayment = new BitSet();
+        this.eligible = new BitSet();
+        synchronized (this) {
+            for (GymMember member : registry.getMembers()) {
+                update(member);
+            }
+        }
+        registry.addMemberListener(this);
+    }
+
+    /**
+     * Method to stop following the registry
+     */
+    public void dispose() {
+        registry.removeMemberListener(this);
+    }
+
+    /**
+     * Method called after a member changes
+     * Sets the member's bits again unless the change was a plain check-in
+     */
+    @Override
+    public synchronized void memberChanged(GymMember member, String operation, String argument) {
+        if (!MARK_ATTENDANCE.equals(operation)) {
+            update(member);
+        }
+    }
+
+    /**
+     * Method called after the registry has been cleared
+     * Drops every bit; the members added next are indexed from position 0 again
+     */
+    @Override
+    public synchronized void membersCleared() {
+        size = 0;
+        active.clear();
+        premium.clear();
+        basic.clear();
+        standard.clear();
+        deluxe.clear();
+        fullPayment.clear();
+        eligible.clear();
+    }
+
+    /**
+     * @return Number of members indexed
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Method to find the members passing a filter
+     * Every argument left null lets all members through
+     *
+     * @param type "Regular", "Premium" or null
+     * @param plan "basic", "standard", "deluxe", "premium" (premium members) or null
+     * @param status "Active", "Inactive" or null
+     * @param isFullPayment Whether a premium member has paid in full, or null; regular members never have
+     * @param isEligibleForUpgrade Whether a regular member is eligible, or null; premium members never are
+     * @return Registry positions of the matching members
+     * @throws IllegalArgumentException If a filter value is not one of the above
+     */
+    public synchronized BitSet filter(String type, String plan, String status,
+                                      Boolean isFullPayment, Boolean isEligibleForUpgrade) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+
+        if (type != null) {
+            if (type.equals("Premium")) {
+                result.and(premium);
+            } else if (type.equals("Regular")) {
+                result.andNot(premium);
+            } else {
+                throw new IllegalArgumentException("Invalid type: " + type);
+            }
+        }
+        if (plan != null) {
+            result.and(planBitmap(plan));
+        }
+        if (status != null) {
+            if (status.equals("Active")) {
+                result.and(active);
+            } else if (status.equals("Inactive")) {
+                result.andNot(active);
+            } else {
+                throw new IllegalArgumentException("Invalid status: " + status);
+            }
+        }
+        if (isFullPayment != null) {
+            if (isFullPayment) result.and(fullPayment); else result.andNot(fullPayment);
+        }
+        if (isEligibleForUpgrade != null) {
+            if (isEligibleForUpgrade) result.and(eligible); else result.andNot(eligible);
+        }
+        return result;
+    }
+
+    /**
+     * Method to count the members passing a filter
+     *
+     * @return Number of matching members
+     * @see #filter(String, String, String, Boolean, Boolean)
+     */
+    public int count(String type, String plan, String status, Boolean isFullPayment, Boolean isEligibleForUpgrade) {
+        return filter(type, plan, status, isFullPayment, isEligibleForUpgrade).cardinality();
+    }
+
+    /**
+     * @param plan "basic", "standard", "deluxe" or "premium"
+     * @return The bitmap of the plan
+     */
+    private BitSet planBitmap(String plan) {
+        if (plan.equals("basic")) return basic;
+        if (plan.equals("standard")) return standard;
+        if (plan.equals("deluxe")) return deluxe;
+        if (plan.equals("premium")) return premium;
+        throw new IllegalArgumentException("Invalid plan: " + plan);
+    }
+
+    /**
+     * Method to set the bits of a member
+     * Must be called while holding this object's lock
+     *
+     * @param member The member
+     */
+    private void update(GymMember member) {
+        int row = member.getOrdinal();
+        if (row < 0 || row > size) {
+            // Not a member of the indexed registry
+            return;
+        }
+        if (row == size) {
+            size++;
+        }
+
+        active.set(row, member.getActiveStatus());
+        if (member instanceof RegularMember) {
+            RegularMember regMember = (RegularMember) member;
+            String plan = regMember.getPlan();
+            premium.clear(row);
+            basic.set(row, plan.equals("basic"));
+            standard.set(row, plan.equals("standard"));
+            deluxe.set(row, plan.equals("deluxe"));
+            fullPayment.clear(row);
+            eligible.set(row, regMember.getIsEligibleForUpgrade());
+        } else {
+            premium.set(row);
+            basic.clear(row);
+            standard.clear(row);
+            deluxe.clear(row);
+            fullPayment.set(row, ((PremiumMember) member).isFullPayment());
+            eligible.clear(row);
+        }
+    }
+}
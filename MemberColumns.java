@@ -0,0 +1,339 @@
+import java.util.Arrays;
+
+/**
+ * Column copy of the member fields that reports add up
+ * Keeps ID, attendance, loyalty points, status, type, plan and amounts of every member
+ * of a registry in one primitive array per field, indexed by registry position. Report
+ * totals are then plain loops over adjacent numbers instead of a walk over member
+ * objects with a type check for each, and the JIT can unroll and, for the integer
+ * counts and the amounts (whole paisa in longs), vectorize them.
+ *
+ * The columns listen to the registry and copy a member's fields after each of its
+ * changes. Changes may come from several threads (MemberService); the copy is taken
+ * while holding this object's lock, so the last copy of a member is always its latest
+ * state. Totals take the same lock and see every change that has been copied.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberColumns implements MemberListener {
+    // Values of the type column
+    public static final byte REGULAR = 0;
+    public static final byte PREMIUM = 1;
+
+    // Values of the plan column; premium members have no plan of their own
+    public static final byte BASIC = 0;
+    public static final byte STANDARD = 1;
+    public static final byte DELUXE = 2;
+    public static final byte PREMIUM_PLAN = 3;
+
+    private final MemberRegistry registry;  // Registry the columns mirror
+    private int size;                       // Number of members copied
+
+    private int[] ids;                      // Member ID
+    private int[] attendance;               // Attendance
+    private double[] loyaltyPoints;         // Loyalty points
+    private byte[] active;                  // 1 if the membership is active, else 0
+    private byte[] types;                   // REGULAR or PREMIUM
+    private byte[] plans;                   // BASIC, STANDARD, DELUXE or PREMIUM_PLAN
+    private byte[] eligible;                // 1 if a regular member is eligible for upgrade, else 0
+    private long[] paid;                    // Paisa paid by premium members, 0 for regular members
+    private long[] due;                     // Paisa premium members still have to pay, 0 for regular members
+
+    /**
+     * Constructor for MemberColumns
+     * Copies the members already in the registry and then follows its changes,
+     * starting over when the registry is cleared.
+     *
+     * @param registry The registry to mirror
+     */
+    public MemberColumns(MemberRegistry registry) {
+        if (registry == null) throw new IllegalArgumentException("Registry cannot be null");
+
+        this.registry = registry;
+        allocate(Math.max(16, registry.size()));
+        synchronized (this) {
+            for (GymMember member : registry.getMembers()) {
+                copy(member);
+            }
+        }
+        registry.addMemberListener(this);
+    }
+
+    /**
+     * Method to stop following the registry
+     */
+    public void dispose() {
+        registry.removeMemberListener(this);
+    }
+
+    /**
+     * Method called after a member changes
+     * Copies the member's current fields into its row
+     */
+    @Override
+    public synchronized void memberChanged(GymMember member, String operation, String argument) {
+        copy(member);
+    }
+
+    /**
+     * Method called after the registry has been cleared
+     * Empties the columns; the members added next are copied from row 0 again
+     */
+    @Override
+    public synchronized void membersCleared() {
+        size = 0;
+    }
+
+    /**
+     * @return Number of members
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Method to get the ID of the member in a row
+     *
+     * @param row Registry position of the member
+     * @return The member ID
+     */
+    public synchronized int getId(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row);
+        return ids[row];
+    }
+
+    /**
+     * @return Number of active members
+     */
+    public synchronized int countActive() {
+        byte[] active = this.active;
+        int count = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            count += active[i];
+        }
+        return count;
+    }
+
+    /**
+     * Method to count the members of one type
+     *
+     * @param type REGULAR or PREMIUM
+     * @param activeOnly True to count active members only
+     * @return Number of members
+     */
+    public synchronized int countType(byte type, boolean activeOnly) {
+        byte[] types = this.types;
+        byte[] active = this.active;
+        int count = 0;
+        if (activeOnly) {
+            for (int i = 0, n = size; i < n; i++) {
+                count += types[i] == type ? active[i] : 0;
+            }
+        } else {
+            for (int i = 0, n = size; i < n; i++) {
+                count += types[i] == type ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to count the members on one plan
+     *
+     * @param plan BASIC, STANDARD, DELUXE or PREMIUM_PLAN
+     * @return Number of members
+     */
+    public synchronized int countPlan(byte plan) {
+        byte[] plans = this.plans;
+        int count = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            count += plans[i] == plan ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of regular members eligible for upgrade
+     */
+    public synchronized int countEligible() {
+        byte[] eligible = this.eligible;
+        int count = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            count += eligible[i];
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of premium members who have paid the full charge
+     */
+    public synchronized int countFullyPaid() {
+        byte[] types = this.types;
+        long[] due = this.due;
+        int count = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            count += types[i] == PREMIUM && due[i] == 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * @return Attendance of all members added up
+     */
+    public synchronized long totalAttendance() {
+        int[] attendance = this.attendance;
+        long total = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            total += attendance[i];
+        }
+        return total;
+    }
+
+    /**
+     * @return Loyalty points of all members added up
+     */
+    public synchronized double totalLoyaltyPoints() {
+        return sum(loyaltyPoints, size);
+    }
+
+    /**
+     * @return Paisa paid by all premium members
+     */
+    public synchronized long totalPaidPaisa() {
+        return sum(paid, size);
+    }
+
+    /**
+     * @return Paisa premium members still have to pay
+     */
+    public synchronized long totalDuePaisa() {
+        return sum(due, size);
+    }
+
+    /**
+     * Method to add up a column
+     * Keeps four running totals so the additions do not all wait for each other;
+     * the JIT keeps floating point additions in order and would otherwise
+     * finish one before starting the next
+     *
+     * @param values The column
+     * @param count Number of values used
+     * @return The total
+     */
+    private static double sum(double[] values, int count) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < count; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < count; i++) {
+            s0 += values[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Method to add up an amount column
+     * Amounts are exact paisa, so the additions can be done in any order
+     *
+     * @param values The column
+     * @param count Number of values used
+     * @return The total
+     */
+    private static long sum(long[] values, int count) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += values[i];
+        }
+        return total;
+    }
+
+    /**
+     * Method to copy a member's fields into its row
+     * Must be called while holding this object's lock
+     *
+     * @param member The member
+     */
+    private void copy(GymMember member) {
+        int row = member.getOrdinal();
+        if (row < 0 || row > size) {
+            // Not a member of the mirrored registry
+            return;
+        }
+        if (row == size) {
+            if (size == ids.length) {
+                grow();
+            }
+            size++;
+        }
+
+        // Each group of fields is read in one go, as check-ins and payments change them without a lock
+        GymMember.AttendanceState state = member.getAttendanceState();
+        ids[row] = member.getId();
+        attendance[row] = state.getAttendance();
+        loyaltyPoints[row] = state.getLoyaltyPoints();
+        active[row] = state.isActive() ? (byte) 1 : (byte) 0;
+        if (member instanceof RegularMember) {
+            types[row] = REGULAR;
+            plans[row] = planCode(((RegularMember) member).getPlan());
+            eligible[row] = state.isEligibleForUpgrade() ? (byte) 1 : (byte) 0;
+            paid[row] = 0;
+            due[row] = 0;
+        } else {
+            PremiumMember premMember = (PremiumMember) member;
+            long paidPaisa = premMember.getPaidPaisa();
+            types[row] = PREMIUM;
+            plans[row] = PREMIUM_PLAN;
+            eligible[row] = 0;
+            paid[row] = paidPaisa;
+            due[row] = premMember.getPremiumChargePaisa() - paidPaisa;
+        }
+    }
+
+    /**
+     * @param plan Plan name of a regular member
+     * @return The plan column value
+     */
+    public static byte planCode(String plan) {
+        if (plan.equals("standard")) return STANDARD;
+        if (plan.equals("deluxe")) return DELUXE;
+        return BASIC;
+    }
+
+    /**
+     * Method to create the columns
+     *
+     * @param capacity Number of rows
+     */
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        attendance = new int[capacity];
+        loyaltyPoints = new double[capacity];
+        active = new byte[capacity];
+        types = new byte[capacity];
+        plans = new byte[capacity];
+        eligible = new byte[capacity];
+        paid = new long[capacity];
+        due = new long[capacity];
+    }
+
+    /**
+     * Method to double the number of rows
+     */
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        attendance = Arrays.copyOf(attendance, capacity);
+        loyaltyPoints = Arrays.copyOf(loyaltyPoints, capacity);
+        active = Arrays.copyOf(active, capacity);
+        types = Arrays.copyOf(types, capacity);
+        plans = Arrays.copyOf(plans, capacity);
+        eligible = Arrays.copyOf(eligible, capacity);
+        paid = Arrays.copyOf(paid, capacity);
+        due = Arrays.copyOf(due, capacity);
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+/**
+ * Sorted index of members by membership start date
+ * Each member is one long holding its start date (as epoch days) in the upper half
+ * and its registry position in the lower half, so sorting the longs sorts members by
+ * start date and then by position. A date range such as "joined in the first quarter"
+ * is found by binary search for its first day and is then a run of adjacent entries;
+ * counting a range is two binary searches.
+ *
+ * New members are kept in a pending array and sorted into the index on the next query,
+ * so loading many members sorts once instead of shifting the index for every member.
+ * Start dates never change after a member joins, so the index does not need to listen
+ * for other changes.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberDateIndex {
+    private long[] sorted;      // Start date and registry position of each member, sorted
+    private long[] pending;     // Entries added since the last sort
+    private int pendingCount;   // Number of pending entries used
+
+    /**
+     * Constructor for MemberDateIndex
+     * Creates an empty index
+     */
+    public MemberDateIndex() {
+        this.sorted = new long[0];
+        this.pending = new long[16];
+    }
+
+    /**
+     * Method to index a member
+     *
+     * @param member The member, with its registry position already set
+     */
+    public synchronized void add(GymMember member) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = entry(member.getMembershipStartEpochDay(), member.getOrdinal());
+    }
+
+    /**
+     * Method to remove all members
+     */
+    public synchronized void clear() {
+        sorted = new long[0];
+        pending = new long[16];
+        pendingCount = 0;
+    }
+
+    /**
+     * Method to find the members who started within a date range
+     *
+     * @param fromEpochDay First day of the range (days since 1970-01-01)
+     * @param toEpochDay Last day of the range, included
+     * @return Registry positions of the members, by start date and then by position
+     */
+    public synchronized int[] find(int fromEpochDay, int toEpochDay) {
+        sort();
+        int first = lowerBound(fromEpochDay);
+        int last = toEpochDay == Integer.MAX_VALUE ? sorted.length : lowerBound(toEpochDay + 1);
+        int[] ordinals = new int[Math.max(0, last - first)];
+        for (int i = first; i < last; i++) {
+            ordinals[i - first] = (int) sorted[i];
+        }
+        return ordinals;
+    }
+
+    /**
+     * Method to count the members who started within a date range
+     *
+     * @param fromEpochDay First day of the range (days since 1970-01-01)
+     * @param toEpochDay Last day of the range, included
+     * @return Number of members
+     */
+    public synchronized int count(int fromEpochDay, int toEpochDay) {
+        sort();
+        int first = lowerBound(fromEpochDay);
+        int last = toEpochDay == Integer.MAX_VALUE ? sorted.length : lowerBound(toEpochDay + 1);
+        return Math.max(0, last - first);
+    }
+
+    /**
+     * Method to find the first entry on or after a day
+     *
+     * @param epochDay The day
+     * @return Index of the first sorted entry not before the day
+     */
+    private int lowerBound(int epochDay) {
+        int found = Arrays.binarySearch(sorted, entry(epochDay, 0));
+        // Registry positions are never negative, so position 0 is the smallest entry of a day
+        return found >= 0 ? found : -found - 1;
+    }
+
+    /**
+     * Method to merge the pending entries into the sorted entries
+     */
+    private void sort() {
+        if (pendingCount == 0) return;
+
+        Arrays.sort(pending, 0, pendingCount);
+        long[] merged = new long[sorted.length + pendingCount];
+        int i = 0, j = 0, k = 0;
+        while (i < sorted.length || j < pendingCount) {
+            if (j == pendingCount || (i < sorted.length && sorted[i] < pending[j])) {
+                merged[k++] = sorted[i++];
+            } else {
+                merged[k++] = pending[j++];
+            }
+        }
+        sorted = merged;
+        pending = new long[16];
+        pendingCount = 0;
+    }
+
+    /**
+     * @return The index entry of a member
+     */
+    private static long entry(int epochDay, int ordinal) {
+        return ((long) epochDay << 32) | (ordinal & 0xFFFFFFFFL);
+    }
+}
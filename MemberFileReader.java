@@ -0,0 +1,545 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Class for reading the fixed-width members file written by saveToFile
+ * The file is read in large blocks through a FileChannel and decoded into one reusable
+ * char buffer. Columns are read straight out of that buffer and numbers are parsed from
+ * the characters, so the only Strings made per line are the text fields the member keeps.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberFileReader {
+    // Column positions (start inclusive, end exclusive) as written by saveToFile
+    public static final int ID_START = 0, ID_END = 5;
+    public static final int NAME_START = 6, NAME_END = 21;
+    public static final int LOCATION_START = 22, LOCATION_END = 37;
+    public static final int PHONE_START = 38, PHONE_END = 53;
+    public static final int EMAIL_START = 54, EMAIL_END = 79;
+    public static final int START_DATE_START = 80, START_DATE_END = 100;
+    public static final int PLAN_START = 101, PLAN_END = 111;
+    public static final int PRICE_START = 112, PRICE_END = 122;
+    public static final int ATTENDANCE_START = 123, ATTENDANCE_END = 133;
+    public static final int LOYALTY_START = 134, LOYALTY_END = 149;
+    public static final int STATUS_START = 150, STATUS_END = 160;
+    public static final int FULL_PAYMENT_START = 161, FULL_PAYMENT_END = 176;
+    public static final int DISCOUNT_START = 177, DISCOUNT_END = 192;
+    public static final int PAID_START = 193, PAID_END = 208;
+
+    // The columns from name to net amount paid, as start and end pairs
+    private static final int[] FIXED_COLUMNS = {
+        NAME_START, NAME_END, LOCATION_START, LOCATION_END, PHONE_START, PHONE_END,
+        EMAIL_START, EMAIL_END, START_DATE_START, START_DATE_END, PLAN_START, PLAN_END,
+        PRICE_START, PRICE_END, ATTENDANCE_START, ATTENDANCE_END, LOYALTY_START, LOYALTY_END,
+        STATUS_START, STATUS_END, FULL_PAYMENT_START, FULL_PAYMENT_END,
+        DISCOUNT_START, DISCOUNT_END, PAID_START, PAID_END
+    };
+
+    // Positions of the columns in FIXED_COLUMNS
+    private static final int NAME = 0, LOCATION = 2, PHONE = 4, EMAIL = 6, START_DATE = 8;
+    private static final int PLAN = 10, PRICE = 12, ATTENDANCE = 14, LOYALTY = 16, STATUS = 18;
+    private static final int FULL_PAYMENT = 20, DISCOUNT = 22, PAID = 24;
+
+    // Columns from the start date on, which never hold spaces
+    private static final int WORD_COLUMNS = 9;
+
+    // Date of birth given to members read from file, which does not store it (1990-01-01)
+    private static final int DEFAULT_DOB = EpochDays.of(1990, 1, 1);
+
+    // Lines shorter than this cannot hold a member
+    private static final int MIN_LINE_LENGTH = 100;
+
+    // Size of the blocks read from the file
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    // Powers of ten that are exact as doubles, used to parse decimals
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Charset charset;  // Charset the file was written with
+
+    /**
+     * Constructor for MemberFileReader
+     * Uses the platform charset, the same one FileWriter used to write the file
+     */
+    public MemberFileReader() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * Constructor for MemberFileReader
+     *
+     * @param charset Charset the file was written with
+     */
+    public MemberFileReader(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Method to read all members of a file into a registry
+     * Clears the registry before loading. Lines that cannot be parsed are skipped.
+     *
+     * @param file The members file
+     * @param registry The registry to fill
+     * @return Number of members loaded, or -1 if the file is empty
+     * @throws IOException If an error occurs during file reading
+     */
+    public int read(File file, MemberRegistry registry) throws IOException {
+        return read(file, registry, null);
+    }
+
+    /**
+     * Method to read all members of a file into a registry, reporting progress in bytes
+     * Clears the registry before loading. Lines that cannot be parsed are skipped.
+     *
+     * @param file The members file
+     * @param registry The registry to fill
+     * @param progress Listener told about progress after every block, or null
+     * @return Number of members loaded, or -1 if the file is empty
+     * @throws IOException If an error occurs during file reading
+     * @throws CancellationException If the listener cancels the read
+     */
+    public int read(File file, MemberRegistry registry, ProgressListener progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            CharsetDecoder decoder = newDecoder();
+            ByteBuffer bytes = ByteBuffer.allocateDirect(BLOCK_SIZE);
+            CharBuffer chars = CharBuffer.allocate(BLOCK_SIZE);
+
+            boolean headerSeen = false;
+            boolean endOfInput = false;
+            boolean finished = false;
+            int membersLoaded = 0;
+
+            while (!finished) {
+                if (!endOfInput) {
+                    endOfInput = channel.read(bytes) < 0;
+                    if (progress != null && !progress.progress(channel.position(), size)) {
+                        throw new CancellationException("Reading cancelled");
+                    }
+                }
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                finished = endOfInput && !result.isOverflow();
+                if (finished) {
+                    decoder.flush(chars);
+                }
+                bytes.compact();
+                chars.flip();
+
+                // Handle every complete line in the buffer
+                char[] buf = chars.array();
+                int lineStart = chars.position();
+                int limit = chars.limit();
+                for (int i = lineStart; i < limit; i++) {
+                    if (buf[i] != '\n') continue;
+
+                    if (!headerSeen) {
+                        headerSeen = true;
+                        registry.clear();
+                    } else if (addLine(registry, buf, lineStart, i)) {
+                        membersLoaded++;
+                    }
+                    lineStart = i + 1;
+                }
+
+                if (finished && lineStart < limit) {
+                    // Last line without a line break
+                    if (!headerSeen) {
+                        headerSeen = true;
+                        registry.clear();
+                    } else if (addLine(registry, buf, lineStart, limit)) {
+                        membersLoaded++;
+                    }
+                    lineStart = limit;
+                }
+
+                // Keep the partial line for the next block, growing the buffer if one line fills it
+                chars.position(lineStart);
+                if (lineStart == 0 && limit == chars.capacity()) {
+                    CharBuffer bigger = CharBuffer.allocate(chars.capacity() * 2);
+                    bigger.put(chars);
+                    chars = bigger;
+                } else {
+                    chars.compact();
+                }
+            }
+
+            return headerSeen ? membersLoaded : -1;
+        }
+    }
+
+    /**
+     * Method to parse one line and add the member to the registry
+     *
+     * @return True if a member was added
+     */
+    private boolean addLine(MemberRegistry registry, char[] buf, int start, int end) {
+        GymMember member = parseLineOrSkip(buf, start, end);
+        if (member == null) {
+            return false;
+        }
+        if (!registry.addMember(member)) {
+            System.out.println("Duplicate member ID: " + member.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method to parse one line, logging and skipping it if it is invalid
+     *
+     * @param buf Buffer holding the line
+     * @param start Start of the line in the buffer
+     * @param end End of the line in the buffer (exclusive, without the line break)
+     * @return The member, or null if the line was skipped
+     */
+    public static GymMember parseLineOrSkip(char[] buf, int start, int end) {
+        try {
+            return parseLine(buf, start, end);
+        } catch (RuntimeException e) {
+            System.out.println("Error processing line: " + new String(buf, start, end - start));
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Method to parse one member line
+     *
+     * @param buf Buffer holding the line
+     * @param start Start of the line in the buffer
+     * @param end End of the line in the buffer (exclusive, without the line break)
+     * @return The member, or null if the line is blank or too short
+     * @throws RuntimeException If a column holds invalid data
+     */
+    public static GymMember parseLine(char[] buf, int start, int end) {
+        // Ignore a carriage return left by Windows line breaks
+        if (end > start && buf[end - 1] == '\r') {
+            end--;
+        }
+
+        // Skip empty lines
+        if (isBlank(buf, start, end)) {
+            return null;
+        }
+
+        // Check if line is long enough to parse
+        if (end - start < MIN_LINE_LENGTH) {
+            System.out.println("Line too short: " + new String(buf, start, end - start));
+            return null;
+        }
+
+        // IDs wider than their column push every later column to the right
+        int idEnd = start;
+        while (idEnd < end && buf[idEnd] >= '0' && buf[idEnd] <= '9') idEnd++;
+        int shift = Math.max(0, idEnd - start - ID_END);
+        int base = start + shift;
+        int id = parseIntColumn(buf, start, end, ID_START, ID_END + shift, -1);
+
+        // So does any other value longer than its column (String.format writes it in full).
+        // Then the start date is no longer at its place and the columns are looked for instead.
+        if (isDateAt(buf, base + START_DATE_START, end)) {
+            return newMember(buf, base, end, id, FIXED_COLUMNS);
+        }
+        return newMember(buf, 0, end, id, findColumns(buf, base + NAME_START, end));
+    }
+
+    /**
+     * Method to create a member from the columns of a line
+     *
+     * @param buf Buffer holding the line
+     * @param lineStart Position the columns are counted from
+     * @param lineEnd End of the line in the buffer
+     * @param id The member ID
+     * @param columns Start and end of each column from name to net amount paid
+     * @return The member
+     */
+    private static GymMember newMember(char[] buf, int lineStart, int lineEnd, int id, int[] columns) {
+        String name = textColumn(buf, lineStart, lineEnd, columns[NAME], columns[NAME + 1]);
+        String location = textColumn(buf, lineStart, lineEnd, columns[LOCATION], columns[LOCATION + 1]);
+        String phone = textColumn(buf, lineStart, lineEnd, columns[PHONE], columns[PHONE + 1]);
+        String email = textColumn(buf, lineStart, lineEnd, columns[EMAIL], columns[EMAIL + 1]);
+        int startDate = dateColumn(buf, lineStart, lineEnd, columns[START_DATE], columns[START_DATE + 1]);
+        int attendance = parseIntColumn(buf, lineStart, lineEnd, columns[ATTENDANCE], columns[ATTENDANCE + 1], 0);
+        double loyaltyPoints = parseDoubleColumn(buf, lineStart, lineEnd, columns[LOYALTY], columns[LOYALTY + 1], 0.0);
+        boolean activeStatus = columnEquals(buf, lineStart, lineEnd, columns[STATUS], columns[STATUS + 1], "Active");
+
+        // Create appropriate member object based on plan and restore its saved state
+        if (columnEquals(buf, lineStart, lineEnd, columns[PLAN], columns[PLAN + 1], "Premium")) {
+            PremiumMember member = new PremiumMember(id, name, location, phone, email,
+                                                     "Male", DEFAULT_DOB, startDate, "Default Trainer");
+            member.restoreState(attendance, loyaltyPoints, activeStatus);
+            // Net amount paid is "N/A" for regular members only
+            member.restorePremiumState(paisaColumn(buf, lineStart, lineEnd, columns[PAID], columns[PAID + 1]),
+                                       member.getPersonalTrainer());
+            return member;
+        }
+
+        String plan = planColumn(buf, lineStart, lineEnd, columns[PLAN], columns[PLAN + 1]);
+        RegularMember member = new RegularMember(id, name, location, phone, email,
+                                                 "Male", DEFAULT_DOB, startDate, "Default");
+        // A member on a higher plan must have been eligible to upgrade
+        boolean eligible = attendance >= member.getAttendanceLimit() || !plan.equals("basic");
+        member.restoreState(attendance, loyaltyPoints, activeStatus);
+        member.restoreRegularState(plan, eligible, "");
+        return member;
+    }
+
+    /**
+     * Method to find the columns of a line in which some value is longer than its column
+     * Each column then takes the length of its value or its width, whichever is more,
+     * plus a separator space. The columns from the start date on never hold spaces, so
+     * they are the last nine words of the line. The email is the word before them, and
+     * the phone fills its column before the email unless it is longer (then it follows
+     * the location if name and location fit, or else is taken as one word). Name and
+     * location share what is left: the name's column when a separator follows it and the
+     * location then looks like a column, otherwise the location's column at the end.
+     * Only a name and a location that are both too long cannot be told apart.
+     *
+     * @param buf Buffer holding the line
+     * @param from Start of the name column
+     * @param end End of the line
+     * @return Start and end of each column from name to net amount paid, in the buffer
+     * @throws IllegalArgumentException If the line does not have all columns
+     */
+    private static int[] findColumns(char[] buf, int from, int end) {
+        int[] columns = new int[FIXED_COLUMNS.length];
+
+        // Start date to net amount paid, one word each, from the end of the line
+        int pos = end;
+        for (int column = PAID; column >= START_DATE; column -= 2) {
+            while (pos > from && buf[pos - 1] <= ' ') pos--;
+            columns[column + 1] = pos;
+            while (pos > from && buf[pos - 1] > ' ') pos--;
+            columns[column] = pos;
+            if (pos == columns[column + 1]) {
+                throw new IllegalArgumentException("Missing columns");
+            }
+        }
+
+        // Email: the last word before the start date
+        pos = columns[START_DATE] - 1;
+        while (pos > from && buf[pos - 1] <= ' ') pos--;
+        columns[EMAIL + 1] = pos;
+        while (pos > from && buf[pos - 1] > ' ') pos--;
+        columns[EMAIL] = pos;
+
+        // Phone: its column before the email's separator; a longer phone starts after the
+        // location if name and location fit their columns, otherwise it is one word
+        int phoneEnd = columns[EMAIL] - 1;
+        int phoneStart = phoneEnd - (PHONE_END - PHONE_START);
+        int fixedPhoneStart = from + (PHONE_START - NAME_START);
+        if (phoneStart > fixedPhoneStart && buf[phoneStart - 1] > ' '
+                && buf[fixedPhoneStart - 1] == ' ' && buf[from + (NAME_END - NAME_START)] == ' ') {
+            phoneStart = fixedPhoneStart;
+        } else if (phoneStart <= from || buf[phoneStart - 1] > ' ') {
+            phoneStart = phoneEnd;
+            while (phoneStart > from && buf[phoneStart - 1] <= ' ') phoneStart--;
+            while (phoneStart > from && buf[phoneStart - 1] > ' ') phoneStart--;
+        }
+        columns[PHONE] = phoneStart;
+        columns[PHONE + 1] = phoneEnd;
+
+        // Name and location
+        int textEnd = Math.max(from, phoneStart - 1);
+        int nameEnd = from + (NAME_END - NAME_START);
+        int locationWidth = LOCATION_END - LOCATION_START;
+        boolean nameFits = nameEnd < textEnd && buf[nameEnd] == ' ';
+        if (nameFits && textEnd - (nameEnd + 1) > locationWidth && buf[textEnd - 1] == ' ') {
+            // The location would be longer than its column and still padded, so the name is the long one
+            nameFits = false;
+        }
+        if (!nameFits) {
+            nameEnd = Math.max(from, textEnd - locationWidth - 1);
+        }
+        columns[NAME] = from;
+        columns[NAME + 1] = nameEnd;
+        columns[LOCATION] = Math.min(nameEnd + 1, textEnd);
+        columns[LOCATION + 1] = textEnd;
+        return columns;
+    }
+
+    /**
+     * Method to check if a date (YYYY-MM-DD) starts at a position, after a separator
+     */
+    private static boolean isDateAt(char[] buf, int pos, int lineEnd) {
+        if (pos + 10 > lineEnd || buf[pos - 1] != ' ' || buf[pos + 4] != '-' || buf[pos + 7] != '-') {
+            return false;
+        }
+        for (int i = pos; i < pos + 10; i++) {
+            if (i != pos + 4 && i != pos + 7 && (buf[i] < '0' || buf[i] > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method to create a decoder that replaces invalid input instead of failing
+     *
+     * @return A new decoder for the file charset
+     */
+    CharsetDecoder newDecoder() {
+        return charset.newDecoder()
+                      .onMalformedInput(CodingErrorAction.REPLACE)
+                      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Method to get the text of a column with surrounding spaces removed
+     */
+    private static String textColumn(char[] buf, int lineStart, int lineEnd, int colStart, int colEnd) {
+        int from = Math.min(lineStart + colStart, lineEnd);
+        int to = Math.min(lineStart + colEnd, lineEnd);
+        while (from < to && buf[from] <= ' ') from++;
+        while (to > from && buf[to - 1] <= ' ') to--;
+        return new String(buf, from, to - from);
+    }
+
+    /**
+     * Method to parse a date column straight from the buffer
+     */
+    private static int dateColumn(char[] buf, int lineStart, int lineEnd, int colStart, int colEnd) {
+        int from = Math.min(lineStart + colStart, lineEnd);
+        int to = Math.min(lineStart + colEnd, lineEnd);
+        return EpochDays.parse(buf, from, to);
+    }
+
+    /**
+     * Method to get the plan column without making a String for the common plans
+     */
+    private static String planColumn(char[] buf, int lineStart, int lineEnd, int colStart, int colEnd) {
+        if (columnEquals(buf, lineStart, lineEnd, colStart, colEnd, "basic")) return "basic";
+        if (columnEquals(buf, lineStart, lineEnd, colStart, colEnd, "standard")) return "standard";
+        if (columnEquals(buf, lineStart, lineEnd, colStart, colEnd, "deluxe")) return "deluxe";
+        return textColumn(buf, lineStart, lineEnd, colStart, colEnd);
+    }
+
+    /**
+     * Method to check if a column holds the given text, ignoring case and surrounding spaces
+     */
+    private static boolean columnEquals(char[] buf, int lineStart, int lineEnd, int colStart, int colEnd, String text) {
+        int from = Math.min(lineStart + colStart, lineEnd);
+        int to = Math.min(lineStart + colEnd, lineEnd);
+        while (from < to && buf[from] <= ' ') from++;
+        while (to > from && buf[to - 1] <= ' ') to--;
+        if (to - from != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.toLowerCase(buf[from + i]) != Character.toLowerCase(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method to parse a whole number column
+     *
+     * @param defaultValue Value returned for an empty column
+     * @throws NumberFormatException If the column is not a whole number
+     */
+    private static int parseIntColumn(char[] buf, int lineStart, int lineEnd, int colStart, int colEnd, int defaultValue) {
+        int from = Math.min(lineStart + colStart, lineEnd);
+        int to = Math.min(lineStart + colEnd, lineEnd);
+        while (from < to && buf[from] <= ' ') from++;
+        while (to > from && buf[to - 1] <= ' ') to--;
+        if (from == to) {
+            return defaultValue;
+        }
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = buf[i];
+            if (c < '0' || c > '9' || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Invalid number: " + new String(buf, from, to - from));
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Invalid number: " + new String(buf, from, to - from));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Method to parse a decimal column
+     * Plain decimals such as 6500.0 or 35.00 are parsed from the characters with the same
+     * result as Double.parseDouble; anything else falls back to Double.parseDouble
+     *
+     * @param defaultValue Value returned for an empty or "N/A" column
+     * @throws NumberFormatException If the column is not a number
+     */
+    private static double parseDoubleColumn(char[] buf, int lineStart, int lineEnd, int colStart, int colEnd, double defaultValue) {
+        int from = Math.min(lineStart + colStart, lineEnd);
+        int to = Math.min(lineStart + colEnd, lineEnd);
+        while (from < to && buf[from] <= ' ') from++;
+        while (to > from && buf[to - 1] <= ' ') to--;
+        if (from == to || (to - from == 3 && buf[from] == 'N' && buf[from + 1] == '/' && buf[from + 2] == 'A')) {
+            return defaultValue;
+        }
+
+        // Digits with at most one point, small enough to be exact as a double
+        long digits = 0;
+        int digitCount = 0;
+        int decimals = -1;
+        for (int i = from; i < to; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                digitCount++;
+                if (decimals >= 0) decimals++;
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                digitCount = Integer.MAX_VALUE;
+                break;
+            }
+        }
+        if (digitCount > 0 && digitCount <= 15) {
+            // Both values are exact, so one division gives the correctly rounded result
+            return decimals <= 0 ? (double) digits : digits / POWERS_OF_TEN[decimals];
+        }
+        return Double.parseDouble(new String(buf, from, to - from));
+    }
+
+    /**
+     * Method to parse an amount column into exact paisa, treating a blank column or N/A as 0
+     */
+    private static long paisaColumn(char[] buf, int lineStart, int lineEnd, int colStart, int colEnd) {
+        int from = Math.min(lineStart + colStart, lineEnd);
+        int to = Math.min(lineStart + colEnd, lineEnd);
+        while (from < to && buf[from] <= ' ') from++;
+        while (to > from && buf[to - 1] <= ' ') to--;
+        if (from == to || (to - from == 3 && buf[from] == 'N' && buf[from + 1] == '/' && buf[from + 2] == 'A')) {
+            return 0;
+        }
+        return Money.parse(buf, from, to);
+    }
+
+    /**
+     * Method to check if part of a buffer holds only whitespace
+     */
+    private static boolean isBlank(char[] buf, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(buf[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,426 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Class for writing the fixed-width members file read by MemberFileReader
+ * Every line is padded into one reusable char buffer and encoded into a large byte buffer
+ * that is written to a FileChannel, instead of parsing a format pattern per member.
+ * The output is byte for byte the same as the String.format layout saveToFile always used,
+ * so files written before stay readable and files written now read the same everywhere.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberFileWriter {
+    /**
+     * Header line of the members file.
+     */
+    public static final String HEADER = String.format(
+            "%-5s %-15s %-15s %-15s %-25s %-20s %-10s %-10s %-10s %-15s %-10s %-15s %-15s %-15s\n",
+            "ID", "Name", "Location", "Phone", "Email", "Membership Start Date",
+            "Plan", "Price", "Attendance", "Loyalty Points", "Active Status",
+            "Full Payment", "Discount Amount", "Net Amount Paid");
+
+    /**
+     * Format of one member line, used when numbers cannot be written directly.
+     */
+    private static final String LINE_FORMAT =
+            "%-5d %-15s %-15s %-15s %-25s %-20s %-10s %-10s %-10d %-15.2f %-10s %-15s %-15s %-15s\n";
+
+    // Size of the byte buffer written to the file
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Number of members written between progress reports
+    private static final int PROGRESS_STEP = 4096;
+
+    private final Charset charset;    // Charset to write, the same one FileWriter would use
+    private final boolean asciiBytes; // Whether ASCII characters are written as single bytes
+    private final boolean plainDigits; // Whether the locale formats numbers with 0-9 and '.'
+
+    private char[] line = new char[256]; // Reusable buffer for one line
+    private int length;                  // Number of characters in the line buffer
+
+    /**
+     * Constructor for MemberFileWriter
+     * Uses the platform charset, the same one FileWriter used before
+     */
+    public MemberFileWriter() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * Constructor for MemberFileWriter
+     *
+     * @param charset Charset to write the file with
+     */
+    public MemberFileWriter(Charset charset) {
+        this.charset = charset;
+        this.asciiBytes = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+
+        // String.format uses the locale's digits and decimal separator, so only
+        // write numbers directly when those are the plain ones
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.plainDigits = symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.';
+    }
+
+    /**
+     * Method to write all members to a file
+     * The members are written to a temporary file next to it, which then replaces the file,
+     * so a failed or cancelled write leaves the old file as it was
+     *
+     * @param file The members file
+     * @param members The members to write
+     * @throws IOException If an error occurs during file writing
+     */
+    public void write(File file, Collection<GymMember> members) throws IOException {
+        write(file, members, null);
+    }
+
+    /**
+     * Method to write all members to a file, reporting progress in members written
+     * The members are written to a temporary file next to it, forced to disk and renamed
+     * over the file (see AtomicFile), so a failed or cancelled write or a crash leaves
+     * the old file as it was
+     *
+     * @param file The members file
+     * @param members The members to write
+     * @param progress Listener told about progress from time to time, or null
+     * @throws IOException If an error occurs during file writing
+     * @throws CancellationException If the listener cancels the write
+     */
+    public void write(File file, final Collection<GymMember> members, final ProgressListener progress)
+            throws IOException {
+        AtomicFile.write(file, new AtomicFile.Content() {
+            @Override
+            public void writeTo(FileChannel channel) throws IOException {
+                write(channel, members, progress);
+            }
+        });
+    }
+
+    /**
+     * Method to write the header and all members to an open channel
+     *
+     * @param channel The channel to write to
+     * @param members The members to write
+     * @param progress Listener told about progress from time to time, or null
+     * @throws IOException If an error occurs during writing
+     * @throws CancellationException If the listener cancels the write
+     */
+    public void write(FileChannel channel, Collection<GymMember> members, ProgressListener progress) throws IOException {
+        CharsetEncoder encoder = charset.newEncoder()
+                                        .onMalformedInput(CodingErrorAction.REPLACE)
+                                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        length = 0;
+        appendText(HEADER);
+        encodeLine(channel, encoder, bytes);
+
+        int total = members.size();
+        int done = 0;
+        for (GymMember member : members) {
+            if (member == null) continue;
+            formatLine(member);
+            encodeLine(channel, encoder, bytes);
+
+            done++;
+            if (progress != null && done % PROGRESS_STEP == 0 && !progress.progress(done, total)) {
+                throw new CancellationException("Writing cancelled");
+            }
+        }
+
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Method to put one member line into the line buffer
+     *
+     * @param member The member to format
+     */
+    void formatLine(GymMember member) {
+        long price = 0;                 // Amounts in paisa
+        String plan = "";
+        String fullPayment = "N/A";
+        long discountAmount = 0;
+        long netAmountPaid = 0;
+        boolean premium = false;
+
+        if (member instanceof RegularMember) {
+            // Plan and price read together, as changes are made without this writer's lock
+            RegularMember.PlanState planState = ((RegularMember) member).getPlanState();
+            plan = planState.getPlan();
+            price = planState.getPricePaisa();
+        } else if (member instanceof PremiumMember) {
+            PremiumMember premMember = (PremiumMember) member;
+            PremiumMember.PaymentState payment = premMember.getPaymentState();
+            premium = true;
+            plan = "Premium";
+            price = premMember.getPremiumChargePaisa();
+            fullPayment = payment.isFullPayment() ? "Yes" : "No";
+            discountAmount = payment.getDiscountPaisa();
+            netAmountPaid = payment.getPaidPaisa();
+        }
+
+        if (!plainDigits) {
+            // Let String.format handle locale-specific digits
+            String text = String.format(LINE_FORMAT,
+                    member.getId(), member.getName(), member.getLocation(), member.getPhone(),
+                    member.getEmail(), member.getMembershipStartDate(), plan,
+                    plan.isEmpty() ? "" : String.valueOf(Money.toRupees(price)),
+                    member.getAttendance(), member.getLoyaltyPoints(),
+                    member.getActiveStatus() ? "Active" : "Inactive", fullPayment,
+                    premium ? String.valueOf(Money.toRupees(discountAmount)) : "N/A",
+                    premium ? String.valueOf(Money.toRupees(netAmountPaid)) : "N/A");
+            length = 0;
+            appendText(text);
+            return;
+        }
+
+        length = 0;
+        int columnStart = length;
+        appendLong(member.getId());
+        pad(columnStart, 5);
+
+        appendColumn(member.getName(), 15);
+        appendColumn(member.getLocation(), 15);
+        appendColumn(member.getPhone(), 15);
+        appendColumn(member.getEmail(), 25);
+        append(' ');
+        columnStart = length;
+        appendDate(member.getMembershipStartEpochDay());
+        pad(columnStart, 20);
+        appendColumn(plan, 10);
+
+        append(' ');
+        columnStart = length;
+        if (!plan.isEmpty()) appendPaisa(price);
+        pad(columnStart, 10);
+
+        append(' ');
+        columnStart = length;
+        appendLong(member.getAttendance());
+        pad(columnStart, 10);
+
+        append(' ');
+        columnStart = length;
+        appendFixed2(member.getLoyaltyPoints());
+        pad(columnStart, 15);
+
+        appendColumn(member.getActiveStatus() ? "Active" : "Inactive", 10);
+        appendColumn(fullPayment, 15);
+
+        append(' ');
+        columnStart = length;
+        if (premium) appendPaisa(discountAmount); else appendText("N/A");
+        pad(columnStart, 15);
+
+        append(' ');
+        columnStart = length;
+        if (premium) appendPaisa(netAmountPaid); else appendText("N/A");
+        pad(columnStart, 15);
+
+        append('\n');
+    }
+
+    /**
+     * Method to encode the line buffer into the byte buffer
+     * The byte buffer is written out whenever it is full
+     */
+    private void encodeLine(FileChannel channel, CharsetEncoder encoder, ByteBuffer bytes) throws IOException {
+        if (asciiBytes && copyAscii(channel, bytes)) {
+            return;
+        }
+
+        CharBuffer chars = CharBuffer.wrap(line, 0, length);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (!result.isOverflow()) {
+                break;
+            }
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            bytes.clear();
+        }
+    }
+
+    /**
+     * Method to copy the line buffer into the byte buffer one byte per character
+     * Only used for charsets that write ASCII as single bytes
+     *
+     * @return True if the line was copied, false if it holds non-ASCII characters
+     */
+    private boolean copyAscii(FileChannel channel, ByteBuffer bytes) throws IOException {
+        for (int i = 0; i < length; i++) {
+            if (line[i] >= 0x80) {
+                return false;
+            }
+        }
+
+        if (bytes.remaining() < length) {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            bytes.clear();
+            if (bytes.remaining() < length) {
+                return false;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            bytes.put((byte) line[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Method to append a separator space and a left-aligned text column
+     * Text longer than the width is written in full, as String.format does
+     */
+    private void appendColumn(String text, int width) {
+        append(' ');
+        int columnStart = length;
+        appendText(text);
+        pad(columnStart, width);
+    }
+
+    /**
+     * Method to pad a column with spaces up to its width
+     */
+    private void pad(int columnStart, int width) {
+        int end = columnStart + width;
+        if (length < end) {
+            ensureCapacity(end - length);
+            Arrays.fill(line, length, end, ' ');
+            length = end;
+        }
+    }
+
+    /**
+     * Method to append one character
+     */
+    private void append(char c) {
+        ensureCapacity(1);
+        line[length++] = c;
+    }
+
+    /**
+     * Method to append a date as YYYY-MM-DD without making a String
+     */
+    private void appendDate(int epochDay) {
+        ensureCapacity(10);
+        EpochDays.write(epochDay, line, length);
+        length += 10;
+    }
+
+    /**
+     * Method to append a text the same way %s does
+     */
+    private void appendText(String text) {
+        if (text == null) text = "null";
+        ensureCapacity(text.length());
+        text.getChars(0, text.length(), line, length);
+        length += text.length();
+    }
+
+    /**
+     * Method to make room for more characters in the line buffer
+     */
+    private void ensureCapacity(int extra) {
+        if (length + extra > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + extra));
+        }
+    }
+
+    /**
+     * Method to append a whole number
+     */
+    private void appendLong(long value) {
+        if (value < 0) {
+            append('-');
+            if (value == Long.MIN_VALUE) {
+                appendText("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        int digitsStart = length;
+        do {
+            append((char) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+
+        // Digits were added lowest first
+        for (int i = digitsStart, j = length - 1; i < j; i++, j--) {
+            char c = line[i];
+            line[i] = line[j];
+            line[j] = c;
+        }
+    }
+
+    /**
+     * Method to append an amount in paisa as rupees, the same way String.valueOf(double)
+     * writes the amount in rupees, so files keep the text they had with double amounts
+     */
+    private void appendPaisa(long paisa) {
+        if (Math.abs(paisa) >= 1_000_000_000L) {
+            // String.valueOf switches to exponent notation from ten million rupees
+            appendText(String.valueOf(Money.toRupees(paisa)));
+            return;
+        }
+
+        if (paisa < 0) {
+            append('-');
+            paisa = -paisa;
+        }
+        appendLong(paisa / 100);
+        append('.');
+        int fraction = (int) (paisa % 100);
+        append((char) ('0' + fraction / 10));
+        if (fraction % 10 != 0) {
+            append((char) ('0' + fraction % 10));
+        }
+    }
+
+    /**
+     * Method to append a decimal with two places the same way %.2f does
+     * Values with whole hundredths are written directly; anything else goes through String.format
+     */
+    private void appendFixed2(double value) {
+        long cents = Math.round(value * 100);
+        if (Math.abs(value) >= 1e15 || cents / 100.0 != value || (cents == 0 && 1 / value < 0)) {
+            appendText(String.format("%.2f", value));
+            return;
+        }
+
+        if (cents < 0) {
+            append('-');
+            cents = -cents;
+        }
+        appendLong(cents / 100);
+        append('.');
+        int fraction = (int) (cents % 100);
+        append((char) ('0' + fraction / 10));
+        append((char) ('0' + fraction % 10));
+    }
+}
@@ -0,0 +1,417 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP server for kiosks and turnstiles
+ * Built on the JDK's HTTP server and serves the members of a MemberService:
+ *
+ * GET  /members/ID                         member details
+ * POST /members/ID/activate                activate the membership
+ * POST /members/ID/deactivate              deactivate the membership
+ * POST /members/ID/attendance              mark attendance
+ * POST /members/ID/payment?amount=AMOUNT   pay part of the premium charge
+ * POST /members/ID/plan?plan=PLAN          upgrade the plan of a regular member
+ *
+ * Responses are JSON. Unknown members give 404 and invalid requests (e.g. a missing or
+ * negative amount, an unknown plan) 400. Actions the member's current state does not
+ * allow give 409: checking in an inactive member, paying more than is due or when
+ * the charge is already paid, and upgrading without eligibility or to the same plan.
+ * Each request runs on its own virtual thread where the JDK has them (21 and later);
+ * the build targets Java 17, so older JDKs use a cached thread pool instead.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberHttpServer {
+    private static final String MEMBERS_PATH = "/members/";
+
+    private final MemberService service;     // Members served
+    private final HttpServer server;         // JDK HTTP server
+    private final ExecutorService executor;  // Runs the requests
+
+    /**
+     * Constructor for MemberHttpServer
+     * The server does not accept requests until it is started
+     *
+     * @param service The members to serve
+     * @param port The port to listen on, or 0 for any free port
+     * @throws IOException If the port cannot be opened
+     */
+    public MemberHttpServer(MemberService service, int port) throws IOException {
+        if (service == null) throw new IllegalArgumentException("Service cannot be null");
+
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext(MEMBERS_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleMembers(exchange);
+            }
+        });
+    }
+
+    /**
+     * Method to start accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Method to stop the server
+     * Waits up to the given delay for running requests to finish
+     *
+     * @param delaySeconds Seconds to wait for running requests
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Method to check whether requests run on virtual threads
+     *
+     * @return True on a JDK with virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return virtualThreadFactory() != null;
+    }
+
+    /**
+     * Method to create the executor running the requests
+     * Virtual threads are looked up by reflection so the server still builds for and
+     * runs on Java 17, where it falls back to a cached pool of platform threads
+     *
+     * @return One virtual thread per task, or a cached thread pool
+     */
+    private static ExecutorService newRequestExecutor() {
+        Method factory = virtualThreadFactory();
+        if (factory != null) {
+            try {
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threads unavailable, using a thread pool: " + e);
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    /**
+     * @return Executors.newVirtualThreadPerTaskExecutor, or null on JDKs without it
+     */
+    private static Method virtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method to turn on TCP_NODELAY for the JDK HTTP server
+     * The JDK server sends headers and body in separate writes; without TCP_NODELAY every
+     * small response waits for the client's delayed ACK (about 40 ms). The setting is a
+     * system property, so it applies to every JDK HTTP server in the JVM, and it is read
+     * once, when the first one is created. Call it from main before creating a server;
+     * a value already given on the command line (-Dsun.net.httpserver.nodelay) is kept.
+     */
+    public static void enableNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Method to handle a request under /members/
+     *
+     * @param exchange The request and response
+     * @throws IOException If the response cannot be sent
+     */
+    private void handleMembers(HttpExchange exchange) throws IOException {
+        try {
+            drain(exchange.getRequestBody());
+
+            String path = exchange.getRequestURI().getPath();
+            String[] parts = path.substring(MEMBERS_PATH.length()).split("/");
+            if (parts.length == 0 || parts.length > 2 || parts[0].isEmpty()) {
+                send(exchange, 404, error("Unknown path: " + path));
+                return;
+            }
+
+            int id;
+            try {
+                id = Integer.parseInt(parts[0]);
+            } catch (NumberFormatException e) {
+                send(exchange, 400, error("Invalid member ID: " + parts[0]));
+                return;
+            }
+            GymMember member = service.findMemberById(id);
+            if (member == null) {
+                send(exchange, 404, error("Member not found: " + id));
+                return;
+            }
+
+            String method = exchange.getRequestMethod();
+            if (parts.length == 1) {
+                if (!method.equals("GET")) {
+                    sendMethodNotAllowed(exchange, "GET");
+                    return;
+                }
+                send(exchange, 200, memberJson(member));
+                return;
+            }
+            if (!method.equals("POST")) {
+                sendMethodNotAllowed(exchange, "POST");
+                return;
+            }
+            handleAction(exchange, member, parts[1]);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+            send(exchange, 500, error("Internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method to run an action on a member
+     *
+     * @param exchange The request and response
+     * @param member The member
+     * @param action The last part of the path
+     * @throws IOException If the response cannot be sent
+     */
+    private void handleAction(HttpExchange exchange, GymMember member, String action) throws IOException {
+        int id = member.getId();
+        String query = exchange.getRequestURI().getRawQuery();
+
+        if (action.equals("activate")) {
+            service.activateMembership(id);
+            send(exchange, 200, result("Membership activated", member));
+        } else if (action.equals("deactivate")) {
+            service.deactivateMembership(id);
+            send(exchange, 200, result("Membership deactivated", member));
+        } else if (action.equals("attendance")) {
+            GymMember.AttendanceState state = service.checkIn(id);
+            if (state != null) {
+                // Report the state of this check-in, not of one made since
+                send(exchange, 200, result("Attendance marked", memberJson(member, state)));
+            } else {
+                send(exchange, 409, result("Membership is not active", member));
+            }
+        } else if (action.equals("payment")) {
+            String amount = queryParameter(query, "amount");
+            if (amount == null) throw new IllegalArgumentException("Missing amount");
+            // Money.parse throws IllegalArgumentException for anything but rupees with up to two decimals
+            long paisa = Money.parse(amount);
+            if (!(member instanceof PremiumMember)) throw new IllegalArgumentException("Member " + id + " is not a premium member");
+            if (paisa <= 0) throw new IllegalArgumentException("Invalid payment amount: " + amount);
+
+            PremiumMember premMember = (PremiumMember) member;
+            String response;
+            boolean paid;
+            synchronized (service.lockFor(id)) {
+                // The payment went through if it changed the paid amount
+                long paidBefore = premMember.getPaidPaisa();
+                String message = service.payDuePaisa(id, paisa);
+                paid = premMember.getPaidPaisa() != paidBefore;
+                response = result(message, member);
+            }
+            send(exchange, paid ? 200 : 409, response);
+        } else if (action.equals("plan")) {
+            String plan = queryParameter(query, "plan");
+            if (plan == null) throw new IllegalArgumentException("Missing plan");
+            if (!(member instanceof RegularMember)) throw new IllegalArgumentException("Member " + id + " is not a regular member");
+            if (!RegularMember.isValidPlan(plan)) throw new IllegalArgumentException("Invalid plan: " + plan);
+
+            RegularMember regMember = (RegularMember) member;
+            String response;
+            boolean upgraded;
+            synchronized (service.lockFor(id)) {
+                // The upgrade went through if it changed the plan
+                String planBefore = regMember.getPlan();
+                String message = service.upgradePlan(id, plan);
+                upgraded = !regMember.getPlan().equals(planBefore);
+                response = result(message, member);
+            }
+            send(exchange, upgraded ? 200 : 409, response);
+        } else {
+            send(exchange, 404, error("Unknown action: " + action));
+        }
+    }
+
+    /**
+     * Method to write a member as JSON
+     * Active status, attendance, loyalty points and eligibility are read in one go, as are
+     * the plan or payment fields, so the fields belong together without taking the member's lock
+     *
+     * @param member The member
+     * @return JSON object
+     */
+    private String memberJson(GymMember member) {
+        return memberJson(member, member.getAttendanceState());
+    }
+
+    /**
+     * Method to write a member as JSON with a given attendance state
+     *
+     * @param member The member
+     * @param state Active status, attendance, loyalty points and eligibility to write
+     * @return JSON object
+     */
+    private String memberJson(GymMember member, GymMember.AttendanceState state) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"id\":").append(member.getId());
+        json.append(",\"name\":");
+        appendString(json, member.getName());
+        json.append(",\"type\":\"").append(member instanceof RegularMember ? "Regular" : "Premium").append('"');
+        json.append(",\"active\":").append(state.isActive());
+        json.append(",\"attendance\":").append(state.getAttendance());
+        json.append(",\"loyaltyPoints\":").append(state.getLoyaltyPoints());
+        if (member instanceof RegularMember) {
+            RegularMember.PlanState plan = ((RegularMember) member).getPlanState();
+            json.append(",\"plan\":");
+            appendString(json, plan.getPlan());
+            json.append(",\"price\":").append(Money.toRupees(plan.getPricePaisa()));
+            json.append(",\"eligibleForUpgrade\":").append(state.isEligibleForUpgrade());
+        } else {
+            PremiumMember premMember = (PremiumMember) member;
+            PremiumMember.PaymentState payment = premMember.getPaymentState();
+            json.append(",\"premiumCharge\":").append(premMember.getPremiumCharge());
+            json.append(",\"paidAmount\":").append(Money.toRupees(payment.getPaidPaisa()));
+            json.append(",\"fullPayment\":").append(payment.isFullPayment());
+        }
+        json.append('}');
+        return json.toString();
+    }
+
+    /**
+     * @return JSON object with a message and the member after the action
+     */
+    private String result(String message, GymMember member) {
+        return result(message, memberJson(member));
+    }
+
+    /**
+     * @return JSON object with a message and the member as already written
+     */
+    private static String result(String message, String memberJson) {
+        StringBuilder json = new StringBuilder(320);
+        json.append("{\"message\":");
+        appendString(json, message);
+        json.append(",\"member\":").append(memberJson).append('}');
+        return json.toString();
+    }
+
+    /**
+     * @return JSON object with an error message
+     */
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"error\":");
+        appendString(json, message);
+        json.append('}');
+        return json.toString();
+    }
+
+    /**
+     * Method to append a JSON string
+     *
+     * @param json The JSON being written
+     * @param text The text to quote
+     */
+    private static void appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Method to find a parameter in a query string
+     *
+     * @param query The raw query, or null
+     * @param name The parameter name
+     * @return The decoded value, or null if missing
+     */
+    private static String queryParameter(String query, String name) {
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method to send a JSON response
+     *
+     * @param exchange The request and response
+     * @param status HTTP status code
+     * @param json Response body
+     * @throws IOException If the response cannot be sent
+     */
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Method to reject a request with the wrong method
+     */
+    private static void sendMethodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        send(exchange, 405, error("Use " + allowed));
+    }
+
+    /**
+     * Method to read and discard a request body, so the connection can be reused
+     */
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[512];
+        while (in.read(buffer) >= 0) {
+            // Nothing to keep
+        }
+    }
+}
@@ -0,0 +1,711 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Class for the append-only operation journal
+ * Every change to a member is appended to the journal file as one line and forced to disk,
+ * so a check-in costs one small write instead of rewriting the whole members file.
+ * At startup the state is rebuilt from the last saved members file plus the journal.
+ *
+ * Each line carries the member's state after the change, and replaying a line restores
+ * that state. Replaying a line whose change is already in the members file is therefore
+ * harmless, which lets the members file be written while changes keep coming in.
+ *
+ * The first line of the journal names the members file it continues from (its length and
+ * last-modified time). If the members file has been written again since, the journal is
+ * out of date and is not replayed. A save names the file it is about to put in place
+ * with a NEXT line before it does (see expectBase), so if it stops between replacing the
+ * file and starting the journal again, the journal is still replayed on the new file.
+ *
+ * Changes made in a batch (see MemberRegistry.beginBatch) are written as they come
+ * but flushed and forced to disk once, when the batch is finished.
+ *
+ * Outside a batch, lines are committed in groups. A change appends its line while
+ * holding the journal's lock, then waits outside it until a force covers the line. Only
+ * one thread forces at a time, and it forces every line appended so far. Check-ins
+ * arriving during a force append their lines meanwhile and share the next one, so
+ * concurrent check-ins (see MemberService.checkIn) do not queue for one force each.
+ * Each change still returns only once its line is on disk.
+ *
+ * A program that changes the member files takes the journal's lock first (see lock),
+ * so the GUI and the command line never replace the journal under each other.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberJournal implements MemberListener {
+    private static final String BASE = "BASE";  // Tag of the first line of the journal
+    private static final String NEXT = "NEXT";  // Tag of a line naming a members file about to replace the base
+    private static final String REGULAR = "Regular";
+    private static final String PREMIUM = "Premium";
+
+    private final File journalFile;  // File the operations are written to
+    private final boolean sync;      // Whether each write is forced to disk
+    private FileOutputStream out;    // Open stream for appending, or null if not opened yet
+    private BufferedWriter writer;   // Writer on top of the stream
+    private FileChannel lockChannel; // Open lock file while this journal holds the lock, or null
+    private long skippedLine = -1;   // Position of a cut-short last line replay skipped, or -1
+    private long appended;           // Lines appended since the journal was created
+    private volatile long forced;    // Lines known to be on disk; only raised while holding this object's lock
+    private final Object forceLock = new Object(); // Held by the one thread forcing lines to disk
+
+    // Number of batches open on each thread; lines written in a batch are forced when it finishes
+    private final ThreadLocal<int[]> batchDepth = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    /**
+     * Constructor for MemberJournal
+     * Every write is forced to disk
+     *
+     * @param journalFile The journal file
+     */
+    public MemberJournal(File journalFile) {
+        this(journalFile, true);
+    }
+
+    /**
+     * Constructor for MemberJournal
+     *
+     * @param journalFile The journal file
+     * @param sync True to force every write to disk, false to leave it to the operating system
+     */
+    public MemberJournal(File journalFile, boolean sync) {
+        this.journalFile = journalFile;
+        this.sync = sync;
+    }
+
+    /**
+     * Method called after a member changes
+     * Appends the operation to the journal, and outside a batch waits until it is on disk
+     */
+    @Override
+    public void memberChanged(GymMember member, String operation, String argument) {
+        StringBuilder line = new StringBuilder(64);
+        line.append(operation).append('\t').append(member.getId());
+
+        if (ADD.equals(operation)) {
+            // Record everything needed to create the member again
+            String extra = "";
+            if (member instanceof RegularMember) {
+                line.append('\t').append(REGULAR);
+                extra = ((RegularMember) member).getReferralSource();
+            } else {
+                line.append('\t').append(PREMIUM);
+                extra = ((PremiumMember) member).getPersonalTrainer();
+            }
+            appendField(line, member.getName());
+            appendField(line, member.getLocation());
+            appendField(line, member.getPhone());
+            appendField(line, member.getEmail());
+            appendField(line, member.getGender());
+            // Dates never need escaping
+            line.append('\t');
+            EpochDays.append(line, member.getDOBEpochDay());
+            line.append('\t');
+            EpochDays.append(line, member.getMembershipStartEpochDay());
+            appendField(line, extra);
+        } else {
+            appendField(line, argument);
+            appendState(line, member);
+        }
+
+        long position;
+        synchronized (this) {
+            try {
+                openWriter();
+                writer.write(line.toString());
+                writer.write('\n');
+                position = ++appended;
+                if (batchDepth.get()[0] > 0) {
+                    return;
+                }
+                if (!sync) {
+                    writer.flush();
+                    return;
+                }
+            } catch (IOException e) {
+                // Log the exception, the change itself has already been made in memory
+                System.err.println("Journal write error: " + e);
+                return;
+            }
+        }
+        forceUpTo(position);
+    }
+
+    /**
+     * Method to wait until the lines appended so far, up to a position, are on disk
+     * Called without holding this object's lock. If another thread is forcing, waits for it
+     * and is done if that force covered the line; otherwise forces every line appended so far.
+     *
+     * @param position Number of the line that must be on disk
+     */
+    private void forceUpTo(long position) {
+        synchronized (forceLock) {
+            if (forced >= position) {
+                return;
+            }
+            FileChannel channel;
+            long target;
+            synchronized (this) {
+                if (writer == null) {
+                    // Closed meanwhile; close forced everything written
+                    return;
+                }
+                try {
+                    writer.flush();
+                } catch (IOException e) {
+                    System.err.println("Journal write error: " + e);
+                    return;
+                }
+                channel = out.getChannel();
+                target = appended;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                // A close meanwhile forces the lines itself and then closes the channel
+                if (forced < position) {
+                    System.err.println("Journal write error: " + e);
+                }
+                return;
+            }
+            synchronized (this) {
+                if (target > forced) {
+                    forced = target;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method called before a batch of changes on the current thread
+     * Holds back flushing until the batch is finished
+     */
+    @Override
+    public void batchStarted() {
+        batchDepth.get()[0]++;
+    }
+
+    /**
+     * Method called after a batch of changes on the current thread
+     * Flushes and forces every line of the batch at once
+     */
+    @Override
+    public synchronized void batchFinished() {
+        int[] depth = batchDepth.get();
+        if (depth[0] > 0 && --depth[0] == 0 && writer != null) {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("Journal write error: " + e);
+            }
+        }
+    }
+
+    /**
+     * Method to flush written lines, forcing them to disk if sync is on
+     *
+     * @throws IOException If an error occurs during file writing
+     */
+    private void flush() throws IOException {
+        writer.flush();
+        if (sync) {
+            out.getChannel().force(false);
+            forced = appended;
+        }
+    }
+
+    /**
+     * Method to replay the journal into a registry
+     * Must be called after the members file has been loaded and before
+     * the journal is added as a listener to the registry
+     *
+     * Every line is replayed when the members file is the journal's base or was named by
+     * a NEXT line; replaying lines already in the file restores the same state.
+     *
+     * Only a last line cut short by a crash (one without a line break) is skipped if it
+     * cannot be applied. Any other line that cannot be applied fails the replay, so the
+     * journal is kept and its changes are not lost by starting it again.
+     *
+     * @param registry The registry holding the members loaded from the members file
+     * @param membersFile The members file the journal continues from
+     * @return Number of operations replayed, or -1 if the journal is missing or out of date
+     * @throws IOException If an error occurs during file reading, or a line cannot be applied
+     */
+    public synchronized int replay(MemberRegistry registry, File membersFile) throws IOException {
+        if (!journalFile.exists() || !continuesFrom(membersFile)) {
+            return -1;
+        }
+
+        long torn = tornAt();
+        skippedLine = -1;
+        int replayed = 0;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            br.readLine();
+            int lineNumber = 1;
+            String next = br.readLine();
+            while (next != null) {
+                String line = next;
+                next = br.readLine();
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith(NEXT + "\t")) continue;
+                try {
+                    apply(registry, splitFields(line));
+                    replayed++;
+                } catch (RuntimeException e) {
+                    if (next != null || torn < 0) {
+                        throw new IOException("Journal line " + lineNumber + " of " + journalFile
+                                + " cannot be applied (" + e.getMessage() + ")");
+                    }
+                    // A partly written last line after a crash; dropped before the next write
+                    System.err.println("Skipping partly written journal line: " + line);
+                    skippedLine = torn;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Method to check if the journal holds any change
+     *
+     * @return True if the journal exists and has a line after its first other than NEXT lines
+     * @throws IOException If an error occurs during file reading
+     */
+    public synchronized boolean hasEntries() throws IOException {
+        if (!journalFile.exists()) {
+            return false;
+        }
+        close();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line = br.readLine();
+            while ((line = br.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith(NEXT + "\t")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to record the members file a save is about to put in place
+     * Called once the new file is on disk under a temporary name, before it is renamed
+     * over the members file; the rename keeps its length and last-modified time. Until
+     * checkpoint starts the journal again, replay accepts that file as well.
+     *
+     * @param newMembersFile The new members file under its temporary name
+     * @throws IOException If an error occurs during file writing
+     */
+    public synchronized void expectBase(File newMembersFile) throws IOException {
+        openWriter();
+        writer.write(NEXT + describeBase(newMembersFile).substring(BASE.length()));
+        writer.write('\n');
+        // Forced even in a batch or without sync: the rename must not get ahead of it
+        writer.flush();
+        out.getChannel().force(false);
+        forced = appended;
+    }
+
+    /**
+     * Method to get a hook that names a new members file with expectBase before it
+     * replaces the old one, for files that keep the journaled changes
+     *
+     * @return Hook to pass to AtomicFile.write or MemberSnapshot.write
+     */
+    public AtomicFile.BeforeReplace expectingBase() {
+        return new AtomicFile.BeforeReplace() {
+            @Override
+            public void written(File tempFile) throws IOException {
+                expectBase(tempFile);
+            }
+        };
+    }
+
+    /**
+     * Method to get a hook that starts the journal again from a new members file before
+     * it replaces the old one, for files that replace every member (e.g. an import), so
+     * the journaled changes of the old members are never replayed on the new ones
+     *
+     * @return Hook to pass to AtomicFile.write or MemberSnapshot.write
+     */
+    public AtomicFile.BeforeReplace restartingFrom() {
+        return new AtomicFile.BeforeReplace() {
+            @Override
+            public void written(File tempFile) throws IOException {
+                checkpoint(tempFile);
+            }
+        };
+    }
+
+    /**
+     * Method to check if the journal continues from a members file
+     *
+     * @param membersFile The members file
+     * @return True if the file is the journal's base or named by one of its NEXT lines
+     * @throws IOException If an error occurs during file reading
+     */
+    private boolean continuesFrom(File membersFile) throws IOException {
+        String base = describeBase(membersFile);
+        String next = NEXT + base.substring(BASE.length());
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line = br.readLine();
+            if (line == null) {
+                return false;
+            }
+            if (line.equals(base)) {
+                return true;
+            }
+            while ((line = br.readLine()) != null) {
+                if (line.equals(next)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to get the current end of the journal
+     * Taken just before the members are written to a members file, so that changes
+     * made while the file is written can be kept by checkpoint
+     *
+     * @return Position of the next journal line
+     */
+    public synchronized long mark() {
+        close();
+        return journalFile.length();
+    }
+
+    /**
+     * Method to start the journal again from a members file
+     * Called after the members file has been written with every change so far
+     *
+     * @param membersFile The members file that now holds the full state
+     * @throws IOException If an error occurs during file writing
+     */
+    public synchronized void checkpoint(File membersFile) throws IOException {
+        checkpoint(membersFile, -1);
+    }
+
+    /**
+     * Method to start the journal again from a members file, keeping the lines
+     * written since a mark. Those changes may or may not be in the members file;
+     * replaying them restores the same state either way.
+     *
+     * @param membersFile The members file that was written
+     * @param mark Position returned by mark before the file was written, or -1 to keep nothing
+     * @throws IOException If an error occurs during file writing
+     */
+    public synchronized void checkpoint(File membersFile, long mark) throws IOException {
+        close();
+
+        // Lines written since the mark
+        byte[] tail = new byte[0];
+        if (mark >= 0 && journalFile.length() > mark) {
+            try (RandomAccessFile in = new RandomAccessFile(journalFile, "r")) {
+                tail = new byte[(int) (in.length() - mark)];
+                in.seek(mark);
+                in.readFully(tail);
+            }
+        }
+
+        // Write the new journal next to the old one and swap it in
+        File tempFile = new File(journalFile.getPath() + ".tmp");
+        try (FileOutputStream tempOut = new FileOutputStream(tempFile, false)) {
+            tempOut.write((describeBase(membersFile) + "\n").getBytes(StandardCharsets.UTF_8));
+            tempOut.write(tail);
+            if (sync) {
+                tempOut.getChannel().force(true);
+            }
+        }
+        AtomicFile.replace(tempFile, journalFile);
+    }
+
+    /**
+     * Method to close the journal file
+     * The file is opened again on the next write
+     */
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                // Lines still waiting for a group force are forced here, since the channel goes
+                flush();
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Journal close error: " + e);
+            }
+            writer = null;
+            out = null;
+        }
+    }
+
+    /**
+     * Method to take the journal for this program, so no other program changes the
+     * member files at the same time (e.g. the command line while the GUI is open)
+     * The lock is taken on a file next to the journal, named like it with ".lock" added,
+     * since the journal itself is replaced whenever it starts again. It is held until
+     * unlock is called or the program ends.
+     *
+     * @throws IOException If the lock file cannot be opened or another program holds the lock
+     */
+    public synchronized void lock() throws IOException {
+        if (lockChannel != null) return;
+
+        File lockFile = new File(journalFile.getPath() + ".lock");
+        FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another journal on the same file in this program
+            lock = null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("The member files are in use by another program (" + lockFile + " is locked)");
+        }
+        lockChannel = channel;
+    }
+
+    /**
+     * Method to release the lock taken by lock, if held
+     */
+    public synchronized void unlock() {
+        if (lockChannel != null) {
+            try {
+                // Closing the channel releases the lock
+                lockChannel.close();
+            } catch (IOException e) {
+                System.err.println("Journal unlock error: " + e);
+            }
+            lockChannel = null;
+        }
+    }
+
+    /**
+     * Method to open the journal for appending if it is not open yet
+     *
+     * @throws IOException If the file cannot be opened
+     */
+    private void openWriter() throws IOException {
+        if (writer == null) {
+            // A line cut short by a crash would run into the next one: drop it if replay
+            // skipped it, otherwise end it, so a line that was applied is kept
+            long torn = tornAt();
+            if (torn >= 0 && torn == skippedLine) {
+                try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                    file.setLength(torn);
+                }
+            }
+            skippedLine = -1;
+            out = new FileOutputStream(journalFile, true);
+            if (torn >= 0 && journalFile.length() > torn) {
+                out.write('\n');
+            }
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Method to find a last line cut short by a crash
+     *
+     * @return Position of the start of the last line if it has no line break, or -1 if
+     *         the journal is missing, empty or ends with a line break
+     * @throws IOException If an error occurs during file reading
+     */
+    private long tornAt() throws IOException {
+        if (!journalFile.exists()) {
+            return -1;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "r")) {
+            long position = file.length();
+            if (position == 0) {
+                return -1;
+            }
+            file.seek(position - 1);
+            if (file.read() == '\n') {
+                return -1;
+            }
+            // Lines are short, so reading back one byte at a time is enough
+            while (position > 0) {
+                file.seek(position - 1);
+                if (file.read() == '\n') break;
+                position--;
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Method to apply one journal line to the registry
+     *
+     * @param registry The registry to change
+     * @param fields The fields of the journal line
+     */
+    private void apply(MemberRegistry registry, String[] fields) {
+        String operation = fields[0];
+        int id = Integer.parseInt(fields[1]);
+
+        if (ADD.equals(operation)) {
+            if (fields.length != 11) throw new IllegalArgumentException("Expected 11 fields, found " + fields.length);
+            GymMember member;
+            if (REGULAR.equals(fields[2])) {
+                member = new RegularMember(id, fields[3], fields[4], fields[5], fields[6],
+                                           fields[7], fields[8], fields[9], fields[10]);
+            } else {
+                member = new PremiumMember(id, fields[3], fields[4], fields[5], fields[6],
+                                           fields[7], fields[8], fields[9], fields[10]);
+            }
+            registry.addMember(member);
+            return;
+        }
+
+        GymMember member = registry.findMemberById(id);
+        if (member == null) {
+            throw new IllegalStateException("Member " + id + " not found");
+        }
+
+        // Parse every field before changing the member, so a line cut short changes nothing
+        if (fields.length != (member instanceof RegularMember ? 9 : 8)) {
+            throw new IllegalArgumentException("Expected " + (member instanceof RegularMember ? 9 : 8)
+                    + " fields, found " + fields.length);
+        }
+        int attendance = Integer.parseInt(fields[4]);
+        double loyaltyPoints = Double.parseDouble(fields[5]);
+        if (attendance < 0) throw new IllegalArgumentException("Attendance cannot be negative");
+        if (loyaltyPoints < 0) throw new IllegalArgumentException("Loyalty points cannot be negative");
+
+        // Restore the state the member had after the change; the checks that remain come first
+        if (member instanceof RegularMember) {
+            ((RegularMember) member).restoreRegularState(fields[6], "1".equals(fields[7]), fields[8]);
+        } else {
+            ((PremiumMember) member).restorePremiumState(Money.parse(fields[6]), fields[7]);
+        }
+        member.restoreState(attendance, loyaltyPoints, "1".equals(fields[3]));
+    }
+
+    /**
+     * Method to append the state of a member after a change to a journal line
+     * Fields: active, attendance, loyalty points, then plan, eligibility and removal reason
+     * for regular members or paid amount and trainer for premium members
+     * Check-ins call the journal without a lock, so active status, attendance,
+     * loyalty points and eligibility are read together from one state, and the
+     * plan or payment fields from another
+     *
+     * @param line The line being built
+     * @param member The member that changed
+     */
+    private static void appendState(StringBuilder line, GymMember member) {
+        GymMember.AttendanceState state = member.getAttendanceState();
+        line.append('\t').append(state.isActive() ? '1' : '0');
+        line.append('\t').append(state.getAttendance());
+        line.append('\t').append(state.getLoyaltyPoints());
+        if (member instanceof RegularMember) {
+            RegularMember.PlanState plan = ((RegularMember) member).getPlanState();
+            appendField(line, plan.getPlan());
+            line.append('\t').append(state.isEligibleForUpgrade() ? '1' : '0');
+            appendField(line, plan.getRemovalReason());
+        } else {
+            PremiumMember.PaymentState payment = ((PremiumMember) member).getPaymentState();
+            line.append('\t');
+            Money.append(line, payment.getPaidPaisa());
+            appendField(line, payment.getPersonalTrainer());
+        }
+    }
+
+    /**
+     * Method to describe the members file the journal continues from
+     *
+     * @param membersFile The members file
+     * @return The first line of the journal for that file
+     */
+    private static String describeBase(File membersFile) {
+        if (!membersFile.exists()) {
+            return BASE + "\t0\t0";
+        }
+        return BASE + "\t" + membersFile.length() + "\t" + membersFile.lastModified();
+    }
+
+    /**
+     * Method to append a field to a journal line
+     * Backslashes, tabs and line breaks are escaped so the line can be split again
+     *
+     * @param line The line being built
+     * @param value The field value
+     */
+    private static void appendField(StringBuilder line, String value) {
+        line.append('\t');
+        if (value == null) return;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                line.append("\\\\");
+            } else if (c == '\t') {
+                line.append("\\t");
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else if (c == '\r') {
+                line.append("\\r");
+            } else {
+                line.append(c);
+            }
+        }
+    }
+
+    /**
+     * Method to split a journal line into its fields
+     *
+     * @param line The journal line
+     * @return The unescaped fields
+     */
+    private static String[] splitFields(String line) {
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                if (next == 't') {
+                    field.append('\t');
+                } else if (next == 'n') {
+                    field.append('\n');
+                } else if (next == 'r') {
+                    field.append('\r');
+                } else {
+                    field.append(next);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
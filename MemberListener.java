@@ -0,0 +1,50 @@
+/**
+ * Interface for objects that want to know when a member changes
+ * Used to keep the operation journal in step with the members in memory
+ * 
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public interface MemberListener {
+    // Names of the operations that change a member
+    String ADD = "ADD";
+    String ACTIVATE = "ACTIVATE";
+    String DEACTIVATE = "DEACTIVATE";
+    String MARK_ATTENDANCE = "MARK_ATTENDANCE";
+    String UPGRADE_ELIGIBLE = "UPGRADE_ELIGIBLE";  // Fired once when a regular member reaches the attendance limit
+    String UPGRADE_PLAN = "UPGRADE_PLAN";
+    String PAY_DUE = "PAY_DUE";
+    String REVERT_REGULAR = "REVERT_REGULAR";
+    String REVERT_PREMIUM = "REVERT_PREMIUM";
+
+    /**
+     * Called after a member has been changed successfully
+     * 
+     * @param member The member that changed
+     * @param operation The operation that was applied (one of the constants above)
+     * @param argument The argument of the operation (plan, amount or reason), or an empty string
+     */
+    void memberChanged(GymMember member, String operation, String argument);
+
+    /**
+     * Called before a batch of changes is made on the current thread
+     * Listeners may hold back expensive work, such as forcing writes to disk,
+     * until the batch is finished
+     */
+    default void batchStarted() {
+    }
+
+    /**
+     * Called after a batch of changes has been made on the current thread
+     */
+    default void batchFinished() {
+    }
+
+    /**
+     * Called after every member has been removed from the registry (see MemberRegistry.clear)
+     * Members added afterwards take the registry positions from 0 again, so listeners
+     * keeping anything by position start over
+     */
+    default void membersCleared() {
+    }
+}
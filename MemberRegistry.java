@@ -0,0 +1,291 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Class holding all members of the gym
+ * Keeps members in insertion order for display and an ID index for lookups,
+ * so finding a member or checking for a duplicate ID does not walk the whole list
+ * Phone numbers and emails are indexed as well, so a person already registered under
+ * another ID is found without walking the list either, and names and locations
+ * are indexed by prefix for search-as-you-type, and start dates are kept sorted
+ * for date range queries
+ * Changes to registered members are passed on to the registry's listeners
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberRegistry implements MemberListener {
+    private final ArrayList<GymMember> members;                   // Members in the order they were added
+    private final IntMemberMap idIndex;                           // Member ID -> member, without boxing
+    private final HashMap<String, GymMember> phoneIndex;          // Normalized phone -> first member with it
+    private final HashMap<String, GymMember> emailIndex;          // Normalized email -> first member with it
+    private final MemberSearchIndex searchIndex;                  // Name and location prefixes -> members
+    private final MemberDateIndex startDateIndex;                 // Members sorted by start date
+    private final CopyOnWriteArrayList<MemberListener> listeners; // Notified of every member change
+
+    /**
+     * Constructor for MemberRegistry
+     * Creates an empty registry
+     */
+    public MemberRegistry() {
+        this.members = new ArrayList<>();
+        this.idIndex = new IntMemberMap();
+        this.phoneIndex = new HashMap<>();
+        this.emailIndex = new HashMap<>();
+        this.searchIndex = new MemberSearchIndex();
+        this.startDateIndex = new MemberDateIndex();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Method to add a listener for member changes
+     * 
+     * @param listener The listener to add
+     */
+    public void addMemberListener(MemberListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Method to remove a listener for member changes
+     * 
+     * @param listener The listener to remove
+     */
+    public void removeMemberListener(MemberListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Method called by members after they change
+     * Passes the change on to every registered listener
+     */
+    @Override
+    public void memberChanged(GymMember member, String operation, String argument) {
+        for (MemberListener listener : listeners) {
+            listener.memberChanged(member, operation, argument);
+        }
+    }
+
+    /**
+     * Method to tell the listeners that a batch of changes starts on the current thread
+     * Must be followed by endBatch, also if the batch fails
+     */
+    public void beginBatch() {
+        for (MemberListener listener : listeners) {
+            listener.batchStarted();
+        }
+    }
+
+    /**
+     * Method to tell the listeners that a batch of changes has finished on the current thread
+     */
+    public void endBatch() {
+        for (MemberListener listener : listeners) {
+            listener.batchFinished();
+        }
+    }
+
+    /**
+     * Method to add a member
+     * The member is only added if no other member has the same ID. Members sharing a
+     * phone number or email with an earlier member are still added, so files saved
+     * before duplicates were checked load completely; callers registering a new
+     * person check findMemberByPhone and findMemberByEmail first.
+     *
+     * @param member The member to add
+     * @return True if the member was added, false if the ID already exists
+     */
+    public boolean addMember(GymMember member) {
+        if (member == null) throw new IllegalArgumentException("Member cannot be null");
+
+        if (idIndex.containsKey(member.getId())) {
+            return false;
+        }
+        idIndex.put(member.getId(), member);
+        phoneIndex.putIfAbsent(normalizePhone(member.getPhone()), member);
+        emailIndex.putIfAbsent(normalizeEmail(member.getEmail()), member);
+        member.setOrdinal(members.size());
+        members.add(member);
+        searchIndex.add(member);
+        startDateIndex.add(member);
+        member.setListener(this);
+        memberChanged(member, ADD, "");
+        return true;
+    }
+
+    /**
+     * Method to find a member by ID
+     *
+     * @param id The member ID
+     * @return The member, or null if not found
+     */
+    public GymMember findMemberById(int id) {
+        return idIndex.get(id);
+    }
+
+    /**
+     * Method to check if a member exists
+     *
+     * @param id The member ID
+     * @return True if the member exists, false otherwise
+     */
+    public boolean memberExists(int id) {
+        return idIndex.containsKey(id);
+    }
+
+    /**
+     * Method to find a member by phone number
+     * Spaces, hyphens and dots are ignored, as when the number is validated
+     * Reverted members keep their phone number, so they are still found
+     *
+     * @param phone The phone number
+     * @return The member registered first with the number, or null if not found
+     */
+    public GymMember findMemberByPhone(String phone) {
+        if (phone == null) return null;
+        return phoneIndex.get(normalizePhone(phone));
+    }
+
+    /**
+     * Method to find a member by email
+     * Surrounding spaces and case are ignored
+     * Reverted members keep their email, so they are still found
+     *
+     * @param email The email
+     * @return The member registered first with the email, or null if not found
+     */
+    public GymMember findMemberByEmail(String email) {
+        if (email == null) return null;
+        return emailIndex.get(normalizeEmail(email));
+    }
+
+    /**
+     * Method to find members by the start of their name or location
+     *
+     * @param prefix The text typed so far
+     * @param limit Most members to return
+     * @return Matching members, name matches first
+     */
+    public List<GymMember> searchMembers(String prefix, int limit) {
+        int[] ordinals = searchIndex.search(prefix, limit);
+        ArrayList<GymMember> found = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            found.add(members.get(ordinal));
+        }
+        return found;
+    }
+
+    /**
+     * Method to find the members whose membership started within a date range
+     * e.g. everyone who joined in the first quarter of 2025:
+     * findMembersStartedBetween(EpochDays.of(2025, 1, 1), EpochDays.of(2025, 3, 31))
+     *
+     * @param fromEpochDay First day of the range (days since 1970-01-01)
+     * @param toEpochDay Last day of the range, included
+     * @return Matching members, earliest start date first
+     */
+    public List<GymMember> findMembersStartedBetween(int fromEpochDay, int toEpochDay) {
+        int[] ordinals = startDateIndex.find(fromEpochDay, toEpochDay);
+        ArrayList<GymMember> found = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            found.add(members.get(ordinal));
+        }
+        return found;
+    }
+
+    /**
+     * Method to count the members whose membership started within a date range
+     *
+     * @param fromEpochDay First day of the range (days since 1970-01-01)
+     * @param toEpochDay Last day of the range, included
+     * @return Number of members
+     */
+    public int countMembersStartedBetween(int fromEpochDay, int toEpochDay) {
+        return startDateIndex.count(fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * Method to clean up a phone number for comparison
+     * Removes spaces, hyphens and dots, like the phone validation of the GUI
+     *
+     * @param phone The phone number as entered
+     * @return The phone number without separators
+     */
+    public static String normalizePhone(String phone) {
+        StringBuilder cleaned = null;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c == '-' || c == '.' || c == ' ') {
+                if (cleaned == null) {
+                    cleaned = new StringBuilder(phone.length());
+                    cleaned.append(phone, 0, i);
+                }
+            } else if (cleaned != null) {
+                cleaned.append(c);
+            }
+        }
+        return cleaned == null ? phone : cleaned.toString();
+    }
+
+    /**
+     * Method to clean up an email for comparison
+     *
+     * @param email The email as entered
+     * @return The email trimmed and in lower case
+     */
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Method to get a member by position
+     * The position of a member is also available from its getOrdinal method
+     *
+     * @param index Position of the member in insertion order
+     * @return The member at that position
+     */
+    public GymMember getMember(int index) {
+        return members.get(index);
+    }
+
+    /**
+     * @return Read-only view of all members in insertion order
+     */
+    public List<GymMember> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * @return Number of members
+     */
+    public int size() { return members.size(); }
+
+    /**
+     * @return True if there are no members
+     */
+    public boolean isEmpty() { return members.isEmpty(); }
+
+    /**
+     * Method to remove all members
+     * The listeners are told with membersCleared once the members are gone
+     */
+    public void clear() {
+        for (GymMember member : members) {
+            member.setListener(null);
+            member.setOrdinal(-1);
+        }
+        members.clear();
+        idIndex.clear();
+        phoneIndex.clear();
+        emailIndex.clear();
+        searchIndex.clear();
+        startDateIndex.clear();
+        for (MemberListener listener : listeners) {
+            listener.membersCleared();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background writer for the members file and snapshot of a registry
+ * A save request only copies the member list and marks the journal; the files are
+ * written on one background thread, so the caller (e.g. the event dispatch thread)
+ * never waits for the disk. Both files are replaced atomically (see AtomicFile), and
+ * the journal then starts again from the snapshot. The journal names the new snapshot
+ * before it replaces the old one, so a crash before the journal is started again
+ * still leaves a journal that is replayed on the new snapshot.
+ *
+ * The saver listens to the registry and counts its changes, so a request when
+ * nothing has changed since the last one writes nothing. Requests made while an
+ * earlier one is still waiting to be written are coalesced into it: the waiting
+ * request takes the newer member list, and all of them are answered by that one
+ * write. Changes made while a save is being written stay in the journal, so they
+ * are never lost whether or not the save picked them up.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberSaver implements MemberListener {
+    private final File membersFile;        // Text members file, or null to write only the snapshot
+    private final File snapshotFile;       // Snapshot file
+    private final MemberJournal journal;   // Journal started again after each save, or null
+    private final ExecutorService writer;  // The one thread the files are written on
+    private final Object writeLock;        // Held while the files are written
+    private final AtomicLong changes;      // Changes seen so far
+
+    private MemberRegistry registry;       // Registry being saved
+    private long requestedChanges;         // Changes covered by the latest request
+    private long savedChanges;             // Changes covered by the last completed save
+    private Save waiting;                  // Request not yet being written, or null
+    private Save writing;                  // Request being written, or null
+
+    /**
+     * Class for one save request and the requests coalesced into it
+     */
+    private static class Save {
+        private ArrayList<GymMember> members;  // Members to write
+        private long mark;                     // Journal position before the members were copied
+        private long changes;                  // Changes covered by the members
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+    }
+
+    /**
+     * Constructor for MemberSaver
+     *
+     * @param registry The registry to save
+     * @param membersFile Text members file, or null to write only the snapshot
+     * @param snapshotFile Snapshot file
+     * @param journal Journal to start again from the snapshot after each save, or null
+     */
+    public MemberSaver(MemberRegistry registry, File membersFile, File snapshotFile, MemberJournal journal) {
+        if (registry == null) throw new IllegalArgumentException("Registry cannot be null");
+        if (snapshotFile == null) throw new IllegalArgumentException("Snapshot file cannot be null");
+
+        this.membersFile = membersFile;
+        this.snapshotFile = snapshotFile;
+        this.journal = journal;
+        this.writeLock = new Object();
+        this.changes = new AtomicLong();
+        this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "member-saver");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.registry = registry;
+        registry.addMemberListener(this);
+    }
+
+    /**
+     * Method called after a member changes
+     */
+    @Override
+    public void memberChanged(GymMember member, String operation, String argument) {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Method called after the registry has been cleared
+     */
+    @Override
+    public void membersCleared() {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Method to save another registry from now on
+     * A save of the old registry still waiting to be written is dropped.
+     *
+     * @param newRegistry The registry to save
+     * @param saved Whether the files already hold its members (e.g. they were just written
+     *              with replaceSnapshot); if not, the next request writes them
+     */
+    public synchronized void setRegistry(MemberRegistry newRegistry, boolean saved) {
+        if (newRegistry == null) throw new IllegalArgumentException("Registry cannot be null");
+
+        registry.removeMemberListener(this);
+        registry = newRegistry;
+        dropWaiting();
+        long seen = changes.incrementAndGet();
+        requestedChanges = saved ? seen : seen - 1;
+        savedChanges = requestedChanges;
+        registry.addMemberListener(this);
+    }
+
+    /**
+     * @return True if the registry has changed since the last completed save
+     */
+    public synchronized boolean isDirty() {
+        return changes.get() != savedChanges;
+    }
+
+    /**
+     * Method to ask for the registry to be saved in the background
+     * Must be called on the thread that changes the registry's member list, since
+     * the list is copied here.
+     *
+     * @return Completes with true once the files are written, false if there was nothing
+     *         to write, or with the exception if writing failed
+     */
+    public synchronized CompletableFuture<Boolean> requestSave() {
+        long seen = changes.get();
+        if (seen == requestedChanges) {
+            // Nothing new: answer with the save that covers these changes, if not yet done
+            Save pending = waiting != null ? waiting : writing;
+            return pending != null ? pending.result : CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+
+        if (waiting == null) {
+            waiting = new Save();
+            writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    writeWaiting();
+                }
+            });
+        }
+        // The mark comes first, so every change the copy may miss is after it in the journal
+        waiting.mark = journal != null ? journal.mark() : -1;
+        waiting.members = new ArrayList<>(registry.getMembers());
+        waiting.changes = seen;
+        requestedChanges = seen;
+        return waiting.result;
+    }
+
+    /**
+     * Method to write a snapshot of members that are about to replace the registry
+     * Runs on the calling thread, so the snapshot holds them before the registry is
+     * swapped with setRegistry. A save still waiting to be written is dropped; one
+     * being written finishes first. The journal starts again from the new snapshot
+     * just before it replaces the old one.
+     *
+     * @param members The members that replace the registry
+     * @throws IOException If an error occurs during file writing
+     */
+    public void replaceSnapshot(Collection<GymMember> members) throws IOException {
+        synchronized (this) {
+            dropWaiting();
+        }
+        synchronized (writeLock) {
+            new MemberSnapshot().write(snapshotFile, members, null, journal != null ? journal.restartingFrom() : null);
+        }
+    }
+
+    /**
+     * Method to finish the saves already requested and stop the background thread
+     *
+     * @param timeoutMillis Longest time to wait for the saves
+     * @return True if every change has been saved
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean close(long timeoutMillis) throws InterruptedException {
+        synchronized (this) {
+            registry.removeMemberListener(this);
+        }
+        writer.shutdown();
+        return writer.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS) && !isDirty();
+    }
+
+    /**
+     * Method run on the background thread to write the waiting request
+     */
+    private void writeWaiting() {
+        Save save;
+        synchronized (this) {
+            save = waiting;
+            waiting = null;
+            writing = save;
+        }
+        if (save == null) {
+            // Dropped by setRegistry or saveNow
+            return;
+        }
+
+        try {
+            synchronized (writeLock) {
+                if (membersFile != null) {
+                    new MemberFileWriter().write(membersFile, save.members);
+                }
+                new MemberSnapshot().write(snapshotFile, save.members, null,
+                                           journal != null ? journal.expectingBase() : null);
+                if (journal != null) {
+                    // The snapshot now holds every change up to the mark
+                    journal.checkpoint(snapshotFile, save.mark);
+                }
+            }
+            synchronized (this) {
+                savedChanges = Math.max(savedChanges, save.changes);
+                writing = null;
+            }
+            save.result.complete(Boolean.TRUE);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                writing = null;
+                if (waiting == null) {
+                    // Let the next request try again
+                    requestedChanges = savedChanges;
+                }
+            }
+            System.err.println("Member save error: " + e);
+            save.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Method to drop the request waiting to be written
+     * Must be called while holding this object's lock
+     */
+    private void dropWaiting() {
+        if (waiting != null) {
+            waiting.result.complete(Boolean.FALSE);
+            waiting = null;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Prefix index over member names and locations for search-as-you-type
+ * Every name and location is indexed as a whole and word by word, so "ram", "sharma"
+ * and "ram sh" all find "Ram Sharma". Each distinct term is kept once, with the
+ * registry positions of the members using it, so members sharing common names or
+ * towns cost four bytes each. A search finds the prefix in a sorted array of the
+ * terms and walks on from there, stopping as soon as it has enough members.
+ *
+ * Adding a member only touches hash maps; terms seen for the first time are sorted
+ * into the array on the next search, so loading many members sorts once instead of
+ * shifting the array for every new term.
+ *
+ * Members are added as they join the registry; names and locations never change
+ * afterwards, so the index does not need to listen for other changes.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberSearchIndex {
+    private final Terms nameTerms;      // Terms of member names
+    private final Terms locationTerms;  // Terms of member locations
+
+    /**
+     * Registry positions of the members using one term, in the order they were added
+     */
+    private static class Postings {
+        int[] ordinals = new int[1];  // Registry positions
+        int size;                     // Number of positions used
+
+        void add(int ordinal) {
+            // A member repeating a word (e.g. "Lal Lal") is only listed once
+            if (size > 0 && ordinals[size - 1] == ordinal) return;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    /**
+     * Distinct terms of one field with their members
+     */
+    private static class Terms {
+        final HashMap<String, Postings> postings = new HashMap<>(); // Term -> members with it
+        String[] sorted = new String[0];                            // Terms sorted so far
+        Postings[] sortedPostings = new Postings[0];                // Members of each sorted term
+        String[] pending = new String[16];                          // Terms added since the last sort
+        int pendingCount;                                           // Number of pending terms used
+
+        void add(String term, int ordinal) {
+            Postings members = postings.get(term);
+            if (members == null) {
+                members = new Postings();
+                postings.put(term, members);
+                if (pendingCount == pending.length) {
+                    pending = Arrays.copyOf(pending, pendingCount * 2);
+                }
+                pending[pendingCount++] = term;
+            }
+            members.add(ordinal);
+        }
+
+        /**
+         * Method to merge the pending terms into the sorted terms
+         */
+        void sort() {
+            if (pendingCount == 0) return;
+
+            Arrays.sort(pending, 0, pendingCount);
+            String[] merged = new String[sorted.length + pendingCount];
+            int i = 0, j = 0, k = 0;
+            while (i < sorted.length || j < pendingCount) {
+                if (j == pendingCount || (i < sorted.length && sorted[i].compareTo(pending[j]) < 0)) {
+                    merged[k++] = sorted[i++];
+                } else {
+                    merged[k++] = pending[j++];
+                }
+            }
+            Postings[] mergedPostings = new Postings[merged.length];
+            for (k = 0; k < merged.length; k++) {
+                mergedPostings[k] = postings.get(merged[k]);
+            }
+            sorted = merged;
+            sortedPostings = mergedPostings;
+            pending = new String[16];
+            pendingCount = 0;
+        }
+
+        void clear() {
+            postings.clear();
+            sorted = new String[0];
+            sortedPostings = new Postings[0];
+            pending = new String[16];
+            pendingCount = 0;
+        }
+    }
+
+    /**
+     * Constructor for MemberSearchIndex
+     * Creates an empty index
+     */
+    public MemberSearchIndex() {
+        this.nameTerms = new Terms();
+        this.locationTerms = new Terms();
+    }
+
+    /**
+     * Method to index a member
+     *
+     * @param member The member, with its registry position already set
+     */
+    public void add(GymMember member) {
+        int ordinal = member.getOrdinal();
+        addTerms(nameTerms, member.getName(), ordinal);
+        addTerms(locationTerms, member.getLocation(), ordinal);
+    }
+
+    /**
+     * Method to remove all members
+     */
+    public void clear() {
+        nameTerms.clear();
+        locationTerms.clear();
+    }
+
+    /**
+     * Method to find the members whose name or location starts with a prefix
+     * Name matches come before location matches; within each, matches are ordered by
+     * the matching term and then by registry position
+     *
+     * @param prefix The text typed so far; case and surrounding spaces are ignored
+     * @param limit Most members to return
+     * @return Registry positions of the matching members, without duplicates
+     */
+    public int[] search(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        int[] found = new int[limit];
+        int count = collect(nameTerms, key, found, 0);
+        count = collect(locationTerms, key, found, count);
+        return count == limit ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Method to collect the members of the terms starting with a prefix
+     *
+     * @param terms The terms to search
+     * @param key The normalized prefix
+     * @param found Positions found so far
+     * @param count Number of positions found so far
+     * @return Number of positions found afterwards
+     */
+    private static int collect(Terms terms, String key, int[] found, int count) {
+        terms.sort();
+        int first = Arrays.binarySearch(terms.sorted, key);
+        if (first < 0) {
+            first = -first - 1;
+        }
+        for (int t = first; t < terms.sorted.length; t++) {
+            if (count == found.length || !terms.sorted[t].startsWith(key)) {
+                break;
+            }
+            Postings postings = terms.sortedPostings[t];
+            for (int i = 0; i < postings.size && count < found.length; i++) {
+                if (!contains(found, count, postings.ordinals[i])) {
+                    found[count++] = postings.ordinals[i];
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return True if the first count positions include the ordinal
+     */
+    private static boolean contains(int[] found, int count, int ordinal) {
+        for (int i = 0; i < count; i++) {
+            if (found[i] == ordinal) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method to index a text as a whole and word by word
+     *
+     * @param terms The terms to add to
+     * @param text The name or location
+     * @param ordinal Registry position of the member
+     */
+    private static void addTerms(Terms terms, String text, int ordinal) {
+        String whole = normalize(text);
+        if (whole.isEmpty()) return;
+
+        terms.add(whole, ordinal);
+        int start = 0;
+        while (start < whole.length()) {
+            int end = whole.indexOf(' ', start);
+            if (end < 0) end = whole.length();
+            // The first word is already covered by the whole text
+            if (start > 0 && end > start) {
+                terms.add(whole.substring(start, end), ordinal);
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Method to clean up a name, location or prefix for comparison
+     *
+     * @param text The text
+     * @return The text trimmed, in lower case and with single spaces between words
+     */
+    private static String normalize(String text) {
+        if (text == null) return "";
+        String lower = text.trim().toLowerCase(Locale.ROOT);
+        if (lower.indexOf("  ") < 0 && lower.indexOf('\t') < 0) {
+            return lower;
+        }
+        return lower.replaceAll("\\s+", " ");
+    }
+}
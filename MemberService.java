@@ -0,0 +1,407 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Class for sharing one registry between several front-desk terminals
+ * Every change to a member runs while holding the lock of the member's stripe, so
+ * changes to the same member happen one after the other and none is lost, while
+ * changes to members on different stripes run in parallel. Check-ins take no lock at
+ * all. Adding members takes the registry's write lock; looking members up reads an
+ * unboxed ID index without locking (see ConcurrentIntMemberMap).
+ *
+ * Listeners of the registry (e.g. the journal) are called from the thread making
+ * the change. For changes other than check-ins that thread holds the member's stripe
+ * lock; check-ins call them without any lock, so a listener may see check-ins of the
+ * same member from several threads at once and should read the state it needs
+ * together (see GymMember.getAttendanceState).
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberService {
+    private final MemberRegistry registry;                       // Members shared by all terminals
+    private final ReentrantReadWriteLock registryLock;           // Guards the registry's member list
+    private final ConcurrentIntMemberMap idIndex;                // Member ID -> member, read without locking
+    private final Object[] stripes;                              // Locks shared by members with the same hash
+    private final int stripeMask;                                // Number of stripes - 1
+
+    /**
+     * Constructor for MemberService
+     * Uses a number of stripes based on the number of processors
+     *
+     * @param registry The registry to share; must not be changed other than through this service
+     */
+    public MemberService(MemberRegistry registry) {
+        this(registry, 16 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for MemberService
+     *
+     * @param registry The registry to share; must not be changed other than through this service
+     * @param stripeCount Number of member locks, rounded up to a power of two
+     */
+    public MemberService(MemberRegistry registry, int stripeCount) {
+        if (registry == null) throw new IllegalArgumentException("Registry cannot be null");
+        if (stripeCount <= 0) throw new IllegalArgumentException("Stripe count must be positive");
+
+        int size = 1;
+        while (size < stripeCount && size < (1 << 16)) {
+            size <<= 1;
+        }
+        this.registry = registry;
+        this.registryLock = new ReentrantReadWriteLock();
+        this.idIndex = new ConcurrentIntMemberMap(registry.size());
+        for (GymMember member : registry.getMembers()) {
+            idIndex.add(member.getId(), member);
+        }
+        this.stripes = new Object[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Object();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    /**
+     * Method to get the lock guarding a member
+     * Hold it to read several fields of the member consistently
+     *
+     * @param id The member ID
+     * @return The lock of the member's stripe
+     */
+    public Object lockFor(int id) {
+        int hash = id * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    /**
+     * Method to add a member
+     *
+     * @param member The member to add
+     * @return True if the member was added, false if the ID already exists
+     */
+    public boolean addMember(GymMember member) {
+        if (member == null) throw new IllegalArgumentException("Member cannot be null");
+
+        registryLock.writeLock().lock();
+        try {
+            synchronized (lockFor(member.getId())) {
+                if (!registry.addMember(member)) {
+                    return false;
+                }
+                idIndex.add(member.getId(), member);
+                return true;
+            }
+        } finally {
+            registryLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Method to find a member by ID
+     *
+     * @param id The member ID
+     * @return The member, or null if not found
+     */
+    public GymMember findMemberById(int id) {
+        return idIndex.get(id);
+    }
+
+    /**
+     * Method to check if a member exists
+     *
+     * @param id The member ID
+     * @return True if the member exists, false otherwise
+     */
+    public boolean memberExists(int id) {
+        return findMemberById(id) != null;
+    }
+
+    /**
+     * Method to find a member by phone number
+     *
+     * @param phone The phone number; spaces, hyphens and dots are ignored
+     * @return The member, or null if not found
+     */
+    public GymMember findMemberByPhone(String phone) {
+        registryLock.readLock().lock();
+        try {
+            return registry.findMemberByPhone(phone);
+        } finally {
+            registryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Method to find a member by email
+     *
+     * @param email The email; surrounding spaces and case are ignored
+     * @return The member, or null if not found
+     */
+    public GymMember findMemberByEmail(String email) {
+        registryLock.readLock().lock();
+        try {
+            return registry.findMemberByEmail(email);
+        } finally {
+            registryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Method to find the members whose membership started within a date range
+     *
+     * @param fromEpochDay First day of the range (days since 1970-01-01)
+     * @param toEpochDay Last day of the range, included
+     * @return Matching members, earliest start date first
+     */
+    public List<GymMember> findMembersStartedBetween(int fromEpochDay, int toEpochDay) {
+        registryLock.readLock().lock();
+        try {
+            return registry.findMembersStartedBetween(fromEpochDay, toEpochDay);
+        } finally {
+            registryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of members
+     */
+    public int size() {
+        registryLock.readLock().lock();
+        try {
+            return registry.size();
+        } finally {
+            registryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Copy of the member list in insertion order
+     */
+    public List<GymMember> getMembers() {
+        registryLock.readLock().lock();
+        try {
+            return new ArrayList<>(registry.getMembers());
+        } finally {
+            registryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Method to activate a membership
+     *
+     * @param id The member ID
+     * @throws IllegalArgumentException If the member does not exist
+     */
+    public void activateMembership(int id) {
+        GymMember member = requireMember(id);
+        synchronized (lockFor(id)) {
+            member.activateMembership();
+        }
+    }
+
+    /**
+     * Method to deactivate a membership
+     *
+     * @param id The member ID
+     * @throws IllegalArgumentException If the member does not exist
+     */
+    public void deactivateMembership(int id) {
+        GymMember member = requireMember(id);
+        synchronized (lockFor(id)) {
+            member.deactivateMembership();
+        }
+    }
+
+    /**
+     * Method to mark attendance
+     * Takes no lock: the lookup reads the lock-free ID index and the member records the
+     * visit with a compare-and-set, so check-ins for the same member only retry
+     * each other and check-ins for different members never meet
+     *
+     * @param id The member ID
+     * @return True if attendance was marked, false if the membership is not active
+     * @throws IllegalArgumentException If the member does not exist
+     */
+    public boolean markAttendance(int id) {
+        return requireMember(id).markAttendance();
+    }
+
+    /**
+     * Method to mark attendance and get the state it left
+     * Takes no lock, like markAttendance. Other check-ins may change the member as soon
+     * as this one is done, so the returned state is what to report for this one.
+     *
+     * @param id The member ID
+     * @return The state just after the check-in, or null if the membership is not active
+     * @throws IllegalArgumentException If the member does not exist
+     */
+    public GymMember.AttendanceState checkIn(int id) {
+        return requireMember(id).checkIn();
+    }
+
+    /**
+     * Method to check in a batch of turnstile entries
+     * IDs are resolved and marked one after the other in a single pass with the same
+     * rules as markAttendance: only active members are checked in, regular members earn
+     * 5 and premium members 10 loyalty points, and regular members reaching the
+     * attendance limit become eligible for upgrade. Each result holds the state left by
+     * its own check-in, even if other threads check in the same member meanwhile. The
+     * registry's listeners are told about the whole batch, so the journal forces it to
+     * disk once.
+     *
+     * @param memberIds Member IDs of the entries
+     * @param timestamps Time of each entry (e.g. milliseconds since the epoch), passed through to the results
+     * @return One result per entry, in the order of the entries
+     * @throws IllegalArgumentException If the arrays differ in length
+     */
+    public CheckInResult[] checkInBatch(int[] memberIds, long[] timestamps) {
+        if (memberIds == null || timestamps == null || memberIds.length != timestamps.length) {
+            throw new IllegalArgumentException("Every member ID needs one timestamp");
+        }
+
+        CheckInResult[] results = new CheckInResult[memberIds.length];
+        registry.beginBatch();
+        try {
+            for (int i = 0; i < memberIds.length; i++) {
+                int id = memberIds[i];
+                GymMember member = idIndex.get(id);
+                if (member == null) {
+                    results[i] = new CheckInResult(id, timestamps[i], CheckInResult.NOT_FOUND, -1, -1, false);
+                    continue;
+                }
+
+                GymMember.AttendanceState state = member.checkIn();
+                String status = CheckInResult.CHECKED_IN;
+                if (state == null) {
+                    // Not checked in, so nothing changes it: report the member as it is
+                    status = CheckInResult.INACTIVE;
+                    state = member.getAttendanceState();
+                }
+                results[i] = new CheckInResult(id, timestamps[i], status, state.getAttendance(),
+                                               state.getLoyaltyPoints(), state.isEligibleForUpgrade());
+            }
+        } finally {
+            registry.endBatch();
+        }
+        return results;
+    }
+
+    /**
+     * Method to upgrade the plan of a regular member
+     *
+     * @param id The member ID
+     * @param plan The new plan (basic, standard, or deluxe)
+     * @return A message indicating success or failure
+     * @throws IllegalArgumentException If the member does not exist or is not a regular member
+     */
+    public String upgradePlan(int id, String plan) {
+        RegularMember member = requireRegularMember(id);
+        synchronized (lockFor(id)) {
+            return member.upgradePlan(plan);
+        }
+    }
+
+    /**
+     * Method to revert a regular member
+     *
+     * @param id The member ID
+     * @param reason The reason for removal
+     * @throws IllegalArgumentException If the member does not exist or is not a regular member
+     */
+    public void revertRegularMember(int id, String reason) {
+        RegularMember member = requireRegularMember(id);
+        synchronized (lockFor(id)) {
+            member.revertRegularMember(reason);
+        }
+    }
+
+    /**
+     * Method to pay part of the premium charge of a premium member
+     *
+     * @param id The member ID
+     * @param amount The amount to pay
+     * @return A message indicating success or failure
+     * @throws IllegalArgumentException If the member does not exist or is not a premium member
+     */
+    public String payDueAmount(int id, double amount) {
+        PremiumMember member = requirePremiumMember(id);
+        synchronized (lockFor(id)) {
+            return member.payDueAmount(amount);
+        }
+    }
+
+    /**
+     * Method to pay part of the premium charge of a premium member
+     *
+     * @param id The member ID
+     * @param amount The amount to pay in paisa
+     * @return A message indicating success or failure
+     * @throws IllegalArgumentException If the member does not exist or is not a premium member
+     */
+    public String payDuePaisa(int id, long amount) {
+        PremiumMember member = requirePremiumMember(id);
+        synchronized (lockFor(id)) {
+            return member.payDuePaisa(amount);
+        }
+    }
+
+    /**
+     * Method to revert a premium member
+     *
+     * @param id The member ID
+     * @throws IllegalArgumentException If the member does not exist or is not a premium member
+     */
+    public void revertPremiumMember(int id) {
+        PremiumMember member = requirePremiumMember(id);
+        synchronized (lockFor(id)) {
+            member.revertPremiumMember();
+        }
+    }
+
+    /**
+     * Method to find a member that must exist
+     *
+     * @param id The member ID
+     * @return The member
+     * @throws IllegalArgumentException If the member does not exist
+     */
+    private GymMember requireMember(int id) {
+        GymMember member = findMemberById(id);
+        if (member == null) {
+            throw new IllegalArgumentException("Member not found: " + id);
+        }
+        return member;
+    }
+
+    /**
+     * Method to find a regular member that must exist
+     *
+     * @param id The member ID
+     * @return The member
+     * @throws IllegalArgumentException If the member does not exist or is not a regular member
+     */
+    private RegularMember requireRegularMember(int id) {
+        GymMember member = requireMember(id);
+        if (!(member instanceof RegularMember)) {
+            throw new IllegalArgumentException("Member " + id + " is not a regular member");
+        }
+        return (RegularMember) member;
+    }
+
+    /**
+     * Method to find a premium member that must exist
+     *
+     * @param id The member ID
+     * @return The member
+     * @throws IllegalArgumentException If the member does not exist or is not a premium member
+     */
+    private PremiumMember requirePremiumMember(int id) {
+        GymMember member = requireMember(id);
+        if (!(member instanceof PremiumMember)) {
+            throw new IllegalArgumentException("Member " + id + " is not a premium member");
+        }
+        return (PremiumMember) member;
+    }
+}
@@ -0,0 +1,690 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the full state of all members
+ * The text members file drops gender, date of birth, referral, trainer, removal reason
+ * and eligibility, and loading it means trimming padding and parsing numbers. A
+ * snapshot keeps every field, with numbers in their binary form and texts as a
+ * length followed by UTF-8 bytes, and is read in large blocks through a FileChannel,
+ * so restoring a registry is mostly creating the member objects.
+ *
+ * Layout (little endian):
+ * header of HEADER_SIZE bytes: magic, version, member count, reserved, body length,
+ * CRC32 of the body and CRC32 of the header bytes before it; then one record per
+ * member: id, type, flags (active, eligible), plan, attendance, loyalty points,
+ * date of birth and start date (epoch days), paid amount (paisa), then name,
+ * location, phone, email, gender, referral or trainer and removal reason, each
+ * a length (7 bits per byte, high bit set on all but the last byte) and UTF-8 bytes.
+ *
+ * A snapshot is written to a temporary file that is forced to disk and renamed over the
+ * old one (see AtomicFile), and is only loaded once both checksums match, so a damaged
+ * snapshot never half-fills a registry.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberSnapshot {
+    public static final int HEADER_SIZE = 32;     // Size of the header in bytes
+
+    private static final int MAGIC = 0x504d5947;  // "GYMP" as the first four bytes
+    private static final int VERSION = 1;
+
+    // Header fields
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_COUNT = 8;
+    private static final int HEADER_BODY_LENGTH = 16;
+    private static final int HEADER_BODY_CRC = 24;
+    private static final int HEADER_CRC = 28;
+
+    // Size of the fixed part of a record
+    private static final int FIXED_SIZE = 4 + 1 + 1 + 1 + 1 + 4 + 8 + 4 + 4 + 8;
+
+    private static final byte REGULAR = 1;
+    private static final byte PREMIUM = 2;
+    private static final byte ACTIVE = 1;         // Flag bits
+    private static final byte ELIGIBLE = 2;
+    private static final String[] PLANS = {"basic", "standard", "deluxe"};
+
+    // Size of the blocks written and read
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Number of members written between progress reports
+    private static final int PROGRESS_STEP = 4096;
+
+    private ByteBuffer buffer;    // Block being written or read
+    private FileChannel channel;  // File being written or read
+    private CRC32 crc;            // Checksum of the body so far
+    private long bodyLength;      // Bytes of the body written or read so far
+    private long expectedLength;  // Length of the body being read, from the header
+
+    /**
+     * Constructor for MemberSnapshot
+     */
+    public MemberSnapshot() {
+    }
+
+    /**
+     * Method to write all members to a snapshot file
+     *
+     * @param file The snapshot file
+     * @param members The members to write
+     * @throws IOException If an error occurs during file writing
+     */
+    public void write(File file, Collection<GymMember> members) throws IOException {
+        write(file, members, null);
+    }
+
+    /**
+     * Method to write all members to a snapshot file, reporting progress in members written
+     * The snapshot is written to a temporary file next to it, forced to disk and renamed
+     * over the file, so a failed or cancelled write or a crash leaves the old snapshot as it was
+     *
+     * @param file The snapshot file
+     * @param members The members to write
+     * @param progress Listener told about progress from time to time, or null
+     * @throws IOException If an error occurs during file writing
+     * @throws CancellationException If the listener cancels the write
+     */
+    public void write(File file, Collection<GymMember> members, ProgressListener progress) throws IOException {
+        write(file, members, progress, null);
+    }
+
+    /**
+     * Method to write all members to a snapshot file, doing some work before it replaces the old one
+     * Works like write, and calls beforeReplace once the new snapshot is on disk under
+     * its temporary name (e.g. so the journal can name it, see MemberJournal.expectBase)
+     *
+     * @param file The snapshot file
+     * @param members The members to write
+     * @param progress Listener told about progress from time to time, or null
+     * @param beforeReplace Called before the new snapshot is renamed over the file, or null
+     * @throws IOException If an error occurs during file writing
+     * @throws CancellationException If the listener cancels the write
+     */
+    public void write(File file, final Collection<GymMember> members, final ProgressListener progress,
+                      AtomicFile.BeforeReplace beforeReplace) throws IOException {
+        AtomicFile.write(file, new AtomicFile.Content() {
+            @Override
+            public void writeTo(FileChannel channel) throws IOException {
+                write(channel, members, progress);
+            }
+        }, beforeReplace);
+    }
+
+    /**
+     * Method to write a snapshot of all members to an empty channel
+     *
+     * @param out The channel to write to, positioned at its start
+     * @param members The members to write
+     * @param progress Listener told about progress from time to time, or null
+     * @throws IOException If an error occurs during writing
+     * @throws CancellationException If the listener cancels the write
+     */
+    public void write(FileChannel out, Collection<GymMember> members, ProgressListener progress) throws IOException {
+        channel = out;
+        buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        crc = new CRC32();
+        bodyLength = 0;
+        try {
+            // The header is written last, once the body checksum is known
+            channel.position(HEADER_SIZE);
+
+            int total = members.size();
+            int count = 0;
+            for (GymMember member : members) {
+                if (member == null) continue;
+                putMember(member);
+
+                count++;
+                if (progress != null && count % PROGRESS_STEP == 0 && !progress.progress(count, total)) {
+                    throw new CancellationException("Writing cancelled");
+                }
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_VERSION, VERSION);
+            header.putInt(HEADER_COUNT, count);
+            header.putLong(HEADER_BODY_LENGTH, bodyLength);
+            header.putInt(HEADER_BODY_CRC, (int) crc.getValue());
+            header.putInt(HEADER_CRC, headerCrc(header));
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     * Method to load all members of a snapshot into a registry
+     * Clears the registry before loading
+     *
+     * @param file The snapshot file
+     * @param registry The registry to fill
+     * @return Number of members loaded, or -1 if the file is empty
+     * @throws IOException If an error occurs during file reading or the snapshot is damaged
+     */
+    public int read(File file, MemberRegistry registry) throws IOException {
+        return read(file, registry, null);
+    }
+
+    /**
+     * Method to load all members of a snapshot into a registry, reporting progress in bytes
+     * Clears the registry before loading. The registry is only changed once the whole
+     * snapshot has been read and its checksums match.
+     *
+     * @param file The snapshot file
+     * @param registry The registry to fill
+     * @param progress Listener told about progress after every block, or null
+     * @return Number of members loaded, or -1 if the file is empty
+     * @throws IOException If an error occurs during file reading or the snapshot is damaged
+     * @throws CancellationException If the listener cancels the load
+     */
+    public int read(File file, MemberRegistry registry, ProgressListener progress) throws IOException {
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size == 0) {
+                return -1;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && in.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(HEADER_MAGIC) != MAGIC) {
+                throw new IOException("Not a member snapshot: " + file);
+            }
+            if (header.getInt(HEADER_CRC) != headerCrc(header)) {
+                throw new IOException("Snapshot header is damaged: " + file);
+            }
+            if (header.getInt(HEADER_VERSION) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + header.getInt(HEADER_VERSION) + ": " + file);
+            }
+            int count = header.getInt(HEADER_COUNT);
+            expectedLength = header.getLong(HEADER_BODY_LENGTH);
+            if (count < 0 || expectedLength != size - HEADER_SIZE) {
+                throw new IOException("Snapshot is truncated: " + file);
+            }
+            if (count > expectedLength / FIXED_SIZE) {
+                throw new IOException("Snapshot is damaged: " + file + " (" + count + " members cannot fit)");
+            }
+
+            channel = in;
+            buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            crc = new CRC32();
+            bodyLength = 0;
+            ArrayList<GymMember> members = new ArrayList<>(count);
+            try {
+                long reported = 0;
+                for (int i = 0; i < count; i++) {
+                    members.add(getMember());
+                    if (progress != null && bodyLength - reported >= BUFFER_SIZE) {
+                        reported = bodyLength;
+                        if (!progress.progress(HEADER_SIZE + bodyLength, size)) {
+                            throw new CancellationException("Loading cancelled");
+                        }
+                    }
+                }
+                if (buffer.hasRemaining() || fill() > 0) {
+                    throw new IOException("Snapshot has data after its last member: " + file);
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IOException("Snapshot is damaged: " + file + " (" + e.getMessage() + ")");
+            } finally {
+                channel = null;
+                buffer = null;
+            }
+            if ((int) crc.getValue() != header.getInt(HEADER_BODY_CRC)) {
+                throw new IOException("Snapshot is damaged: " + file);
+            }
+
+            registry.clear();
+            int membersLoaded = 0;
+            for (GymMember member : members) {
+                if (registry.addMember(member)) {
+                    membersLoaded++;
+                } else {
+                    System.out.println("Duplicate member ID: " + member.getId());
+                }
+            }
+            return membersLoaded;
+        }
+    }
+
+    /**
+     * Method to restore members at startup
+     * Loads the snapshot and replays the journal on top of it. Without a snapshot, as
+     * after an update from a version that only wrote the text members file, the text
+     * file is loaded instead and written out as the first snapshot. A snapshot that
+     * cannot be read (damaged, or written by a newer version) is moved aside, never
+     * overwritten, and the text file is loaded the same way. The journal then continues
+     * from the new snapshot.
+     *
+     * The journal is only started again once it has been replayed or holds no change.
+     * A journal with changes that continues from neither file fails the restore and is
+     * left as it is, as are the snapshot and text file, so no change is thrown away.
+     * Errors while replaying or starting the journal are not covered by loading the
+     * text file either; they fail the restore.
+     *
+     * @param snapshotFile The snapshot file
+     * @param textFile The text members file
+     * @param registry The registry to fill
+     * @param journal The journal
+     * @param progress Listener told about loading progress, or null
+     * @return Number of journal entries replayed, or -1 if there was no journal for the loaded file
+     * @throws IOException If an error occurs during file reading or writing, or the journal
+     *                     holds changes that cannot be applied
+     */
+    public static int restore(File snapshotFile, File textFile, MemberRegistry registry,
+                              MemberJournal journal, ProgressListener progress) throws IOException {
+        return restore(snapshotFile, textFile, registry, journal, progress, false);
+    }
+
+    /**
+     * Method to load members the way restore does, without writing any file
+     * For commands that only read the members (e.g. a report): the snapshot is not
+     * written, an unreadable one is not moved aside and the journal is not started again.
+     *
+     * @param snapshotFile The snapshot file
+     * @param textFile The text members file
+     * @param registry The registry to fill
+     * @param journal The journal
+     * @param progress Listener told about loading progress, or null
+     * @return Number of journal entries replayed, or -1 if there was no journal for the loaded file
+     * @throws IOException If an error occurs during file reading, or the journal holds
+     *                     changes that cannot be applied
+     */
+    public static int restoreReadOnly(File snapshotFile, File textFile, MemberRegistry registry,
+                                      MemberJournal journal, ProgressListener progress) throws IOException {
+        return restore(snapshotFile, textFile, registry, journal, progress, true);
+    }
+
+    /**
+     * Method to restore members, writing the files only if allowed
+     *
+     * @param snapshotFile The snapshot file
+     * @param textFile The text members file
+     * @param registry The registry to fill
+     * @param journal The journal
+     * @param progress Listener told about loading progress, or null
+     * @param readOnly True to leave every file as it is
+     * @return Number of journal entries replayed, or -1 if there was no journal for the loaded file
+     * @throws IOException If an error occurs during file reading or writing, or the journal
+     *                     holds changes that cannot be applied
+     */
+    private static int restore(File snapshotFile, File textFile, MemberRegistry registry, MemberJournal journal,
+                               ProgressListener progress, boolean readOnly) throws IOException {
+        IOException unreadable = null;
+        if (snapshotFile.exists()) {
+            try {
+                new MemberSnapshot().read(snapshotFile, registry, progress);
+            } catch (IOException e) {
+                unreadable = e;
+                registry.clear();
+            }
+            if (unreadable == null) {
+                int replayed = journal.replay(registry, snapshotFile);
+                if (replayed < 0) {
+                    if (journal.hasEntries()) {
+                        throw new IOException("Journal does not continue from " + snapshotFile
+                                + " but holds changes; it was left as it is");
+                    }
+                    if (!readOnly) {
+                        // No journal for this snapshot yet, start one
+                        journal.checkpoint(snapshotFile);
+                    }
+                }
+                return replayed;
+            }
+        }
+
+        if (textFile.exists()) {
+            new ParallelMemberLoader().load(textFile, registry, progress);
+        }
+        int replayed = journal.replay(registry, textFile);
+        if (replayed < 0 && journal.hasEntries()) {
+            throw new IOException((unreadable != null ? unreadable.getMessage() + ", and the journal" : "Journal")
+                    + " does not continue from " + textFile + " but holds changes; the files were left as they are");
+        }
+        if (readOnly) {
+            if (unreadable != null) {
+                System.err.println(unreadable.getMessage() + "; loaded " + textFile + " instead");
+            }
+            return replayed;
+        }
+        if (unreadable != null) {
+            File aside = moveAside(snapshotFile);
+            System.err.println(unreadable.getMessage() + "; moved it to " + aside + " and loaded " + textFile + " instead");
+        }
+        new MemberSnapshot().write(snapshotFile, registry.getMembers());
+        journal.checkpoint(snapshotFile);
+        return replayed;
+    }
+
+    /**
+     * Method to rename a snapshot that cannot be read, so it is kept for inspection
+     *
+     * @param snapshotFile The snapshot file
+     * @return The new name of the snapshot
+     * @throws IOException If the file cannot be renamed
+     */
+    private static File moveAside(File snapshotFile) throws IOException {
+        File aside = new File(snapshotFile.getPath() + ".unreadable-" + System.currentTimeMillis());
+        Files.move(snapshotFile.toPath(), aside.toPath());
+        return aside;
+    }
+
+    /**
+     * Method to check if a file starts like a snapshot
+     *
+     * @param file The file
+     * @return True if the file exists and begins with the snapshot magic number
+     */
+    public static boolean isSnapshot(File file) {
+        if (!file.isFile() || file.length() < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && in.read(magic) >= 0) {
+                // Keep reading until the magic number is complete
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method to put one member record into the block, writing the block out first if
+     * the record might not fit
+     *
+     * @param member The member
+     */
+    private void putMember(GymMember member) throws IOException {
+        // Read once: check-ins change the member without a lock while this runs
+        GymMember.AttendanceState state = member.getAttendanceState();
+        String extra;
+        String removalReason = "";
+        byte type;
+        byte flags = state.isActive() ? ACTIVE : 0;
+        byte plan = 0;
+        long paid = 0;
+        if (member instanceof RegularMember) {
+            RegularMember regMember = (RegularMember) member;
+            RegularMember.PlanState planState = regMember.getPlanState();
+            type = REGULAR;
+            extra = regMember.getReferralSource();
+            removalReason = planState.getRemovalReason();
+            if (state.isEligibleForUpgrade()) flags |= ELIGIBLE;
+            plan = planCode(planState.getPlan());
+        } else {
+            PremiumMember.PaymentState payment = ((PremiumMember) member).getPaymentState();
+            type = PREMIUM;
+            extra = payment.getPersonalTrainer();
+            paid = payment.getPaidPaisa();
+        }
+
+        String name = member.getName();
+        String location = member.getLocation();
+        String phone = member.getPhone();
+        String email = member.getEmail();
+        String gender = member.getGender();
+        // Each character takes at most three bytes, and each length at most five
+        long maxSize = FIXED_SIZE + 7 * 5 + 3L * (length(name) + length(location) + length(phone)
+                + length(email) + length(gender) + length(extra) + length(removalReason));
+        if (buffer.remaining() < maxSize) {
+            flush();
+            if (buffer.capacity() < maxSize) {
+                buffer = ByteBuffer.allocate((int) maxSize).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        buffer.putInt(member.getId());
+        buffer.put(type);
+        buffer.put(flags);
+        buffer.put(plan);
+        buffer.put((byte) 0);  // Reserved
+        buffer.putInt(state.getAttendance());
+        buffer.putDouble(state.getLoyaltyPoints());
+        buffer.putInt(member.getDOBEpochDay());
+        buffer.putInt(member.getMembershipStartEpochDay());
+        buffer.putLong(paid);
+        putText(name);
+        putText(location);
+        putText(phone);
+        putText(email);
+        putText(gender);
+        putText(extra);
+        putText(removalReason);
+    }
+
+    /**
+     * Method to read one member record
+     *
+     * @return The member with its saved state
+     * @throws IOException If an error occurs during file reading
+     */
+    private GymMember getMember() throws IOException {
+        require(FIXED_SIZE);
+        int id = buffer.getInt();
+        byte type = buffer.get();
+        byte flags = buffer.get();
+        byte plan = buffer.get();
+        buffer.get();  // Reserved
+        int attendance = buffer.getInt();
+        double loyaltyPoints = buffer.getDouble();
+        int dob = buffer.getInt();
+        int startDate = buffer.getInt();
+        long paid = buffer.getLong();
+        String name = getText();
+        String location = getText();
+        String phone = getText();
+        String email = getText();
+        String gender = getText();
+        String extra = getText();
+        String removalReason = getText();
+
+        GymMember member;
+        if (type == REGULAR) {
+            if (plan < 0 || plan >= PLANS.length) throw new IllegalArgumentException("Invalid plan " + plan);
+            RegularMember regMember = new RegularMember(id, name, location, phone, email, gender, dob, startDate, extra);
+            regMember.restoreRegularState(PLANS[plan], (flags & ELIGIBLE) != 0, removalReason);
+            member = regMember;
+        } else if (type == PREMIUM) {
+            PremiumMember premMember = new PremiumMember(id, name, location, phone, email, gender, dob, startDate, extra);
+            premMember.restorePremiumState(paid, extra);
+            member = premMember;
+        } else {
+            throw new IllegalArgumentException("Invalid member type " + type);
+        }
+        member.restoreState(attendance, loyaltyPoints, (flags & ACTIVE) != 0);
+        return member;
+    }
+
+    /**
+     * Method to put a text as its length and UTF-8 bytes
+     * ASCII texts, the usual case, are copied without encoding
+     *
+     * @param text The text; null is written as an empty text
+     */
+    private void putText(String text) {
+        int length = length(text);
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+
+        if (ascii) {
+            putLength(length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+        } else {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            putLength(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Method to read a text written by putText
+     *
+     * @return The text
+     * @throws IOException If an error occurs during file reading
+     */
+    private String getText() throws IOException {
+        int length = getLength();
+        require(length);
+        int start = buffer.position();
+        buffer.position(start + length);
+        if (length == 4 && matches(start, "Male")) return "Male";
+        if (length == 6 && matches(start, "Female")) return "Female";
+        return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return True if the bytes at a position are the ASCII text
+     */
+    private boolean matches(int start, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer.get(start + i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method to put a length, 7 bits per byte with the high bit set on all but the last byte
+     */
+    private void putLength(int length) {
+        while (length >= 0x80) {
+            buffer.put((byte) (length | 0x80));
+            length >>>= 7;
+        }
+        buffer.put((byte) length);
+    }
+
+    /**
+     * Method to read a length written by putLength
+     */
+    private int getLength() throws IOException {
+        int length = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            require(1);
+            byte b = buffer.get();
+            length |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                if (length < 0) break;
+                return length;
+            }
+        }
+        throw new IllegalArgumentException("Invalid text length");
+    }
+
+    /**
+     * Method to make sure the block holds a number of unread bytes, reading more of the file if needed
+     * The lengths asked for come from the file before its checksum is checked, so a
+     * length the rest of the body cannot hold is rejected before any room is made for it
+     *
+     * @param bytes Number of bytes needed
+     * @throws IOException If the number is negative or the body ends first
+     */
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes && bytes >= 0) {
+            return;
+        }
+        if (bytes < 0 || bytes - buffer.remaining() > expectedLength - bodyLength) {
+            throw new IOException("Snapshot is damaged (" + bytes + " bytes needed, "
+                    + (buffer.remaining() + expectedLength - bodyLength) + " left)");
+        }
+        if (bytes > buffer.capacity()) {
+            // A very long text; make room for it
+            ByteBuffer larger = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            larger.put(buffer);
+            larger.flip();
+            buffer = larger;
+        }
+        while (buffer.remaining() < bytes) {
+            if (fill() < 0) {
+                throw new IOException("Snapshot ends inside a member");
+            }
+        }
+    }
+
+    /**
+     * Method to read more of the file after the unread bytes of the block
+     *
+     * @return Number of bytes read, or -1 at the end of the file
+     */
+    private int fill() throws IOException {
+        buffer.compact();
+        int start = buffer.position();
+        int read = channel.read(buffer);
+        if (read > 0) {
+            ByteBuffer added = buffer.duplicate();
+            added.position(start).limit(start + read);
+            crc.update(added);
+            bodyLength += read;
+        }
+        buffer.flip();
+        return read;
+    }
+
+    /**
+     * Method to write out the block and start a new one
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        bodyLength += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return Checksum of the header bytes before the header checksum
+     */
+    private static int headerCrc(ByteBuffer header) {
+        CRC32 headerCrc = new CRC32();
+        headerCrc.update(header.array(), header.arrayOffset(), HEADER_CRC);
+        return (int) headerCrc.getValue();
+    }
+
+    /**
+     * @return Plan code of a regular member's plan
+     */
+    private static byte planCode(String plan) {
+        for (byte code = 0; code < PLANS.length; code++) {
+            if (PLANS[code].equals(plan)) return code;
+        }
+        throw new IllegalArgumentException("Invalid plan: " + plan);
+    }
+
+    /**
+     * @return Number of characters of a text, 0 for null
+     */
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+}
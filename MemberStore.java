@@ -0,0 +1,630 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Class for the memory-mapped member store
+ * Every member has one fixed-size binary record in a data file that is mapped into
+ * memory, and an index from member ID to record number is built when the store is
+ * opened. A single member can therefore be read or changed in place without loading
+ * or rewriting the other members. Only the index is kept on the heap, as two ints
+ * per member slot (see IntIntMap) rather than boxed entries; the records stay in
+ * the mapped file, of which the operating system keeps only the pages in use.
+ *
+ * Attached to a registry as a listener, the store writes the state of a member
+ * after each change (e.g. attendance and loyalty points after markAttendance) into
+ * its record. Changed pages are written back by the operating system; force writes
+ * them out at once. checkIn marks a member's attendance without any registry, reading
+ * and rewriting only that member's record, so the command line (GymCli with --store)
+ * can keep its members here instead of in the snapshot and journal.
+ *
+ * Record layout (little endian, RECORD_SIZE bytes):
+ * id, type, active, eligible, plan, attendance, loyalty points, paid amount (paisa), then
+ * name, location, phone, email, gender, DOB, start date, referral or trainer and
+ * removal reason, each a 2-byte length followed by UTF-8 bytes in a fixed-size slot.
+ * The first RECORD_SIZE bytes of the file hold the header instead.
+ *
+ * A text too long for its slot (the members file allows wider values) is appended to
+ * an overflow file next to the store, named like it with ".overflow" added, and its
+ * slot holds OVERFLOW as the length, then the length in bytes and the position in the
+ * overflow file. Writing the same long text again reuses it.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberStore implements MemberListener {
+    public static final int RECORD_SIZE = 512;  // Size of one record in bytes
+
+    private static final int MAGIC = 0x47594d53;  // "GYMS"
+    private static final int VERSION = 3;
+    private static final int VERSION_DOUBLE_AMOUNTS = 1;  // Paid amount stored as a double of rupees
+    private static final int VERSION_NO_OVERFLOW = 2;     // No texts in an overflow file
+
+    // Header fields
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_RECORD_SIZE = 8;
+    private static final int HEADER_COUNT = 12;
+
+    // Record fields
+    private static final int ID = 0;
+    private static final int TYPE = 4;
+    private static final int ACTIVE = 5;
+    private static final int ELIGIBLE = 6;
+    private static final int PLAN = 7;
+    private static final int ATTENDANCE = 8;
+    private static final int LOYALTY = 12;
+    private static final int PAID = 20;
+    private static final int NAME = 28;
+    private static final int LOCATION = NAME + 64;
+    private static final int PHONE = LOCATION + 64;
+    private static final int EMAIL = PHONE + 32;
+    private static final int GENDER = EMAIL + 64;
+    private static final int DOB = GENDER + 16;
+    private static final int START_DATE = DOB + 16;
+    private static final int EXTRA = START_DATE + 16;
+    private static final int REMOVAL_REASON = EXTRA + 64;
+    private static final int END = REMOVAL_REASON + 64;
+
+    private static final byte REGULAR = 1;
+    private static final byte PREMIUM = 2;
+    private static final String[] PLANS = {"basic", "standard", "deluxe"};
+    private static final byte[] EMPTY_RECORD = new byte[RECORD_SIZE];
+    private static final short OVERFLOW = -1;  // Slot length of a text kept in the overflow file
+
+    // The file is mapped in segments, each holding a whole number of records
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long MIN_MAPPING = 1L << 20;
+
+    private final FileChannel channel;             // Open data file
+    private final File overflowFile;               // File holding texts too long for their slots
+    private FileChannel overflow;                  // Open overflow file, or null until needed
+    private MappedByteBuffer[] segments;           // Mapped segments, the last one may be shorter
+    private final IntIntMap index;                 // Member ID -> record number
+    private int count;                             // Number of records
+    private final File lockFile;                   // File locked while a program changes the store
+    private FileChannel lockChannel;               // Open lock file while the lock is held, or null
+
+    /**
+     * Constructor for MemberStore
+     * Opens the store file, or creates an empty store if the file does not exist
+     * The overflow file is only created once a text needs it
+     *
+     * @param file The store file
+     * @throws IOException If the file cannot be opened or is not a member store
+     */
+    public MemberStore(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.overflowFile = new File(file.getPath() + ".overflow");
+        this.lockFile = new File(file.getPath() + ".lock");
+        this.segments = new MappedByteBuffer[0];
+        this.index = new IntIntMap();
+
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = segmentFor(0, RECORD_SIZE);
+                header.putInt(HEADER_MAGIC, MAGIC);
+                header.putInt(HEADER_VERSION, VERSION);
+                header.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+                header.putInt(HEADER_COUNT, 0);
+            } else {
+                ByteBuffer header = segmentFor(0, RECORD_SIZE);
+                int version = header.getInt(HEADER_VERSION);
+                if (header.getInt(HEADER_MAGIC) != MAGIC || version < VERSION_DOUBLE_AMOUNTS || version > VERSION
+                        || header.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+                    throw new IOException("Not a member store: " + file);
+                }
+                count = header.getInt(HEADER_COUNT);
+                if (version == VERSION_DOUBLE_AMOUNTS) {
+                    convertAmounts();
+                }
+                // Older stores have no overflow texts; marking the version keeps older code off this one
+                header.putInt(HEADER_VERSION, VERSION);
+            }
+
+            // Build the ID index from the records
+            for (int record = 0; record < count; record++) {
+                ByteBuffer buffer = recordBuffer(record);
+                index.put(buffer.getInt(offset(record) + ID), record);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Method called after a member changes
+     * Writes a new member's record, or the new state into the member's record
+     */
+    @Override
+    public synchronized void memberChanged(GymMember member, String operation, String argument) {
+        try {
+            if (ADD.equals(operation) || !index.containsKey(member.getId())) {
+                put(member);
+            } else {
+                updateState(member);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Log the exception, the change itself has already been made in memory
+            System.err.println("Member store write error: " + e);
+        }
+    }
+
+    /**
+     * Method to write a member's full record
+     * A member not in the store yet gets a new record at the end
+     *
+     * @param member The member to write
+     * @throws IOException If the file or the overflow file cannot be extended or mapped
+     */
+    public synchronized void put(GymMember member) throws IOException {
+        int record = index.get(member.getId());
+        if (record < 0) {
+            record = count;
+        }
+
+        // Mapped directly, so a file that cannot grow gives an IOException
+        ByteBuffer buffer = segmentFor(position(record), RECORD_SIZE);
+        int base = offset(record);
+        buffer.position(base);
+        buffer.put(EMPTY_RECORD);
+
+        buffer.putInt(base + ID, member.getId());
+        buffer.put(base + TYPE, member instanceof RegularMember ? REGULAR : PREMIUM);
+        putText(buffer, base + NAME, LOCATION - NAME, member.getName());
+        putText(buffer, base + LOCATION, PHONE - LOCATION, member.getLocation());
+        putText(buffer, base + PHONE, EMAIL - PHONE, member.getPhone());
+        putText(buffer, base + EMAIL, GENDER - EMAIL, member.getEmail());
+        putText(buffer, base + GENDER, DOB - GENDER, member.getGender());
+        putText(buffer, base + DOB, START_DATE - DOB, member.getDOB());
+        putText(buffer, base + START_DATE, EXTRA - START_DATE, member.getMembershipStartDate());
+        if (member instanceof RegularMember) {
+            putText(buffer, base + EXTRA, REMOVAL_REASON - EXTRA, ((RegularMember) member).getReferralSource());
+        }
+        putState(buffer, base, member);
+
+        if (record == count) {
+            count++;
+            index.put(member.getId(), record);
+            segments[0].putInt(HEADER_COUNT, count);
+        }
+    }
+
+    /**
+     * Method to write a member's changeable state into its record
+     * Only the state fields are written; the rest of the record is left as it is
+     *
+     * @param member The member to write
+     * @throws IOException If a long text cannot be written to the overflow file
+     * @throws IllegalArgumentException If the member is not in the store
+     */
+    public synchronized void updateState(GymMember member) throws IOException {
+        int record = index.get(member.getId());
+        if (record < 0) {
+            throw new IllegalArgumentException("Member " + member.getId() + " is not in the store");
+        }
+        putState(recordBuffer(record), offset(record), member);
+    }
+
+    /**
+     * Method to read a member from its record
+     * The member is not attached to any registry
+     *
+     * @param id The member ID
+     * @return The member, or null if not in the store
+     */
+    public synchronized GymMember read(int id) {
+        int record = index.get(id);
+        return record < 0 ? null : readRecord(record);
+    }
+
+    /**
+     * Method to mark the attendance of a member in its record
+     * Builds the member from its record alone, marks attendance as markAttendance does
+     * and writes the new state back; no other record is read or written
+     *
+     * @param id The member ID
+     * @param timestamp Time of the check-in, passed through to the result
+     * @return The result, NOT_FOUND if the member is not in the store
+     * @throws IOException If a long text cannot be written to the overflow file
+     */
+    public synchronized CheckInResult checkIn(int id, long timestamp) throws IOException {
+        int record = index.get(id);
+        if (record < 0) {
+            return new CheckInResult(id, timestamp, CheckInResult.NOT_FOUND, -1, -1, false);
+        }
+
+        GymMember member = readRecord(record);
+        GymMember.AttendanceState state = member.checkIn();
+        String status = CheckInResult.CHECKED_IN;
+        if (state == null) {
+            status = CheckInResult.INACTIVE;
+            state = member.getAttendanceState();
+        } else {
+            putState(recordBuffer(record), offset(record), member);
+        }
+        return new CheckInResult(id, timestamp, status, state.getAttendance(),
+                                 state.getLoyaltyPoints(), state.isEligibleForUpgrade());
+    }
+
+    /**
+     * Method to read the attendance of a member without building the member
+     *
+     * @param id The member ID
+     * @return The attendance, or -1 if not in the store
+     */
+    public synchronized int readAttendance(int id) {
+        int record = index.get(id);
+        return record < 0 ? -1 : recordBuffer(record).getInt(offset(record) + ATTENDANCE);
+    }
+
+    /**
+     * Method to read all members into a registry, in the order they were added
+     * Clears the registry before loading
+     *
+     * @param registry The registry to fill
+     * @return Number of members loaded
+     */
+    public synchronized int readAll(MemberRegistry registry) {
+        registry.clear();
+        for (int record = 0; record < count; record++) {
+            registry.addMember(readRecord(record));
+        }
+        return count;
+    }
+
+    /**
+     * Method to check if a member is in the store
+     *
+     * @param id The member ID
+     * @return True if the store has a record for the member
+     */
+    public synchronized boolean contains(int id) {
+        return index.containsKey(id);
+    }
+
+    /**
+     * @return Number of members in the store
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Method to write all changed records to disk
+     */
+    public synchronized void force() {
+        if (overflow != null) {
+            try {
+                // The texts first, so no forced record points past the end of the overflow file
+                overflow.force(false);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot write member store overflow: " + e.getMessage(), e);
+            }
+        }
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Method to take the store for this program, so no other program changes it at the same time
+     * The lock is taken on a file next to the store, named like it with ".lock" added.
+     * It is held until unlock is called or the program ends.
+     *
+     * @throws IOException If the lock file cannot be opened or another program holds the lock
+     */
+    public synchronized void lock() throws IOException {
+        if (lockChannel != null) return;
+
+        FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another store on the same file in this program
+            lock = null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("The member store is in use by another program (" + lockFile + " is locked)");
+        }
+        lockChannel = channel;
+    }
+
+    /**
+     * Method to release the lock taken by lock, if held
+     */
+    public synchronized void unlock() {
+        if (lockChannel != null) {
+            try {
+                // Closing the channel releases the lock
+                lockChannel.close();
+            } catch (IOException e) {
+                System.err.println("Member store unlock error: " + e);
+            }
+            lockChannel = null;
+        }
+    }
+
+    /**
+     * Method to write all changed records to disk and close the file
+     * Releases the lock as well, if held
+     *
+     * @throws IOException If the file cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        try {
+            force();
+            segments = new MappedByteBuffer[0];
+            if (overflow != null) {
+                overflow.close();
+                overflow = null;
+            }
+            channel.close();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Method to build a member from its record
+     *
+     * @param record The record number
+     * @return The member
+     */
+    private GymMember readRecord(int record) {
+        ByteBuffer buffer = recordBuffer(record);
+        int base = offset(record);
+
+        int id = buffer.getInt(base + ID);
+        String name = getText(buffer, base + NAME);
+        String location = getText(buffer, base + LOCATION);
+        String phone = getText(buffer, base + PHONE);
+        String email = getText(buffer, base + EMAIL);
+        String gender = getText(buffer, base + GENDER);
+        String dob = getText(buffer, base + DOB);
+        String startDate = getText(buffer, base + START_DATE);
+        String extra = getText(buffer, base + EXTRA);
+
+        GymMember member;
+        if (buffer.get(base + TYPE) == REGULAR) {
+            RegularMember regMember = new RegularMember(id, name, location, phone, email, gender, dob, startDate, extra);
+            regMember.restoreRegularState(PLANS[buffer.get(base + PLAN)], buffer.get(base + ELIGIBLE) != 0,
+                                          getText(buffer, base + REMOVAL_REASON));
+            member = regMember;
+        } else {
+            PremiumMember premMember = new PremiumMember(id, name, location, phone, email, gender, dob, startDate, extra);
+            premMember.restorePremiumState(buffer.getLong(base + PAID), extra);
+            member = premMember;
+        }
+        member.restoreState(buffer.getInt(base + ATTENDANCE), buffer.getDouble(base + LOYALTY),
+                            buffer.get(base + ACTIVE) != 0);
+        return member;
+    }
+
+    /**
+     * Method to rewrite the paid amounts of a version 1 store, which were rupees in a
+     * double, as paisa in a long; both take the same eight bytes
+     */
+    private void convertAmounts() {
+        for (int record = 0; record < count; record++) {
+            ByteBuffer buffer = recordBuffer(record);
+            int base = offset(record);
+            if (buffer.get(base + TYPE) == PREMIUM) {
+                buffer.putLong(base + PAID, Money.toPaisa(buffer.getDouble(base + PAID)));
+            }
+        }
+    }
+
+    /**
+     * Method to write the state fields of a member
+     *
+     * @param buffer Segment holding the record
+     * @param base Offset of the record in the segment
+     * @param member The member
+     */
+    private void putState(ByteBuffer buffer, int base, GymMember member) throws IOException {
+        // Read once: check-ins change the member without a lock while this runs
+        GymMember.AttendanceState state = member.getAttendanceState();
+        buffer.put(base + ACTIVE, (byte) (state.isActive() ? 1 : 0));
+        buffer.putInt(base + ATTENDANCE, state.getAttendance());
+        buffer.putDouble(base + LOYALTY, state.getLoyaltyPoints());
+        buffer.put(base + ELIGIBLE, (byte) (state.isEligibleForUpgrade() ? 1 : 0));
+        if (member instanceof RegularMember) {
+            RegularMember.PlanState planState = ((RegularMember) member).getPlanState();
+            int plan = Arrays.asList(PLANS).indexOf(planState.getPlan());
+            if (plan < 0) throw new IllegalArgumentException("Invalid plan: " + planState.getPlan());
+            buffer.put(base + PLAN, (byte) plan);
+            putText(buffer, base + REMOVAL_REASON, END - REMOVAL_REASON, planState.getRemovalReason());
+        } else {
+            PremiumMember.PaymentState payment = ((PremiumMember) member).getPaymentState();
+            buffer.putLong(base + PAID, payment.getPaidPaisa());
+            putText(buffer, base + EXTRA, REMOVAL_REASON - EXTRA, payment.getPersonalTrainer());
+        }
+    }
+
+    /**
+     * Method to write a text field into its slot
+     * A text too long for the slot goes to the overflow file, unless the slot already
+     * points to the same text there
+     *
+     * @param buffer Segment holding the record
+     * @param offset Offset of the slot
+     * @param slotSize Size of the slot including the length
+     * @param value The text, null is written as empty
+     * @throws IOException If the overflow file cannot be read or written
+     */
+    private void putText(ByteBuffer buffer, int offset, int slotSize, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= slotSize - 2) {
+            buffer.putShort(offset, (short) bytes.length);
+            for (int i = 0; i < bytes.length; i++) {
+                buffer.put(offset + 2 + i, bytes[i]);
+            }
+            return;
+        }
+
+        // Long texts like a trainer's name are written again with every state change
+        if (buffer.getShort(offset) == OVERFLOW && buffer.getInt(offset + 2) == bytes.length
+                && Arrays.equals(readOverflow(buffer.getLong(offset + 6), bytes.length), bytes)) {
+            return;
+        }
+        long position = appendOverflow(bytes);
+        buffer.putShort(offset, OVERFLOW);
+        buffer.putInt(offset + 2, bytes.length);
+        buffer.putLong(offset + 6, position);
+    }
+
+    /**
+     * Method to read a text field from its slot
+     *
+     * @param buffer Segment holding the record
+     * @param offset Offset of the slot
+     * @return The text
+     */
+    private String getText(ByteBuffer buffer, int offset) {
+        int length = buffer.getShort(offset);
+        byte[] bytes;
+        if (length == OVERFLOW) {
+            try {
+                bytes = readOverflow(buffer.getLong(offset + 6), buffer.getInt(offset + 2));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read member store overflow: " + e.getMessage(), e);
+            }
+        } else {
+            bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(offset + 2 + i);
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to append a text to the end of the overflow file
+     *
+     * @param bytes The text as UTF-8
+     * @return Position of the text in the overflow file
+     * @throws IOException If the overflow file cannot be written
+     */
+    private long appendOverflow(byte[] bytes) throws IOException {
+        openOverflow();
+        long position = overflow.size();
+        ByteBuffer data = ByteBuffer.wrap(bytes);
+        while (data.hasRemaining()) {
+            overflow.write(data, position + data.position());
+        }
+        return position;
+    }
+
+    /**
+     * Method to read a text from the overflow file
+     *
+     * @param position Position of the text
+     * @param length Length of the text in bytes
+     * @return The text as UTF-8
+     * @throws IOException If the overflow file cannot be read or is too short
+     */
+    private byte[] readOverflow(long position, int length) throws IOException {
+        if (length < 0) throw new IOException("Invalid overflow text length: " + length);
+        openOverflow();
+        ByteBuffer data = ByteBuffer.allocate(length);
+        while (data.hasRemaining()) {
+            if (overflow.read(data, position + data.position()) < 0) {
+                throw new IOException("Member store overflow is truncated: " + overflowFile);
+            }
+        }
+        return data.array();
+    }
+
+    /**
+     * Method to open the overflow file if it is not open yet, creating it if needed
+     *
+     * @throws IOException If the file cannot be opened
+     */
+    private void openOverflow() throws IOException {
+        if (overflow == null) {
+            overflow = FileChannel.open(overflowFile.toPath(), StandardOpenOption.CREATE,
+                                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * @param record A record number
+     * @return Position of the record in the file, after the header
+     */
+    private static long position(int record) {
+        return (record + 1L) * RECORD_SIZE;
+    }
+
+    /**
+     * @param record A record number
+     * @return Offset of the record in its segment
+     */
+    private static int offset(int record) {
+        return (int) (position(record) & (SEGMENT_SIZE - 1));
+    }
+
+    /**
+     * Method to get the segment holding a record, mapping more of the file if needed
+     *
+     * @param record The record number
+     * @return The mapped segment
+     */
+    private ByteBuffer recordBuffer(int record) {
+        try {
+            return segmentFor(position(record), RECORD_SIZE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map member store: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Method to get the segment holding a range of the file
+     * A segment is mapped at twice the size it needs, up to the segment size,
+     * so growing the store remaps it only now and then
+     *
+     * @param position Position in the file
+     * @param length Length of the range
+     * @return The mapped segment
+     * @throws IOException If the file cannot be mapped
+     */
+    private ByteBuffer segmentFor(long position, int length) throws IOException {
+        int segment = (int) (position >>> SEGMENT_SHIFT);
+        long needed = (position & (SEGMENT_SIZE - 1)) + length;
+        if (segment >= segments.length) {
+            segments = Arrays.copyOf(segments, segment + 1);
+        }
+        MappedByteBuffer mapped = segments[segment];
+        if (mapped == null || mapped.capacity() < needed) {
+            long mapLength = Math.max(MIN_MAPPING, Math.max(needed, mapped == null ? 0 : 2L * mapped.capacity()));
+            if (channel.size() > ((long) segment << SEGMENT_SHIFT) + mapLength) {
+                // Map everything the file already has in this segment
+                mapLength = channel.size() - ((long) segment << SEGMENT_SHIFT);
+            }
+            mapLength = Math.min(mapLength, SEGMENT_SIZE);
+            if (mapped != null) {
+                mapped.force();
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, (long) segment << SEGMENT_SHIFT, mapLength);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            segments[segment] = mapped;
+        }
+        return mapped;
+    }
+}
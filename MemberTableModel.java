@@ -0,0 +1,468 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model listing the members of a registry
+ * Cells are read from the members when the table asks for them, so the table only
+ * touches the rows that are on screen. The model itself holds one int per shown row:
+ * the registry positions of the members that pass the filter, in sorted order.
+ *
+ * Sort keys (type, plan, status, attendance) are small integers, so rows are sorted
+ * by counting them into buckets in one pass instead of comparing members. A change to
+ * a member only repaints its row, unless it moves the member in or out of the filter
+ * or past its neighbours; then the rows are rebuilt once after the pending changes.
+ * A rebuild takes the members passing the type, plan and status filters from the
+ * registry's bitmap indexes and only looks at those members for the attendance filter.
+ *
+ * Must be used on the event dispatch thread. Changes reported from other threads are
+ * passed on to it.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberTableModel extends AbstractTableModel implements MemberListener {
+    private static final long serialVersionUID = 1L;
+
+    // Column positions
+    public static final int COLUMN_ID = 0;
+    public static final int COLUMN_NAME = 1;
+    public static final int COLUMN_TYPE = 2;
+    public static final int COLUMN_PLAN = 3;
+    public static final int COLUMN_STATUS = 4;
+    public static final int COLUMN_ATTENDANCE = 5;
+    public static final int COLUMN_LOYALTY = 6;
+    public static final int COLUMN_PHONE = 7;
+    public static final int COLUMN_EMAIL = 8;
+    public static final int COLUMN_LOCATION = 9;
+    public static final int COLUMN_START_DATE = 10;
+
+    private static final String[] COLUMN_NAMES = {
+        "ID", "Name", "Type", "Plan", "Status", "Attendance", "Loyalty Points",
+        "Phone", "Email", "Location", "Start Date"
+    };
+
+    // Plan shown for premium members, which have no plan
+    private static final String PREMIUM_PLAN = "premium";
+
+    private MemberRegistry registry;  // Registry the rows are read from
+    private MemberBitmaps bitmaps;    // Bitmap indexes of the registry
+    private int[] rows;               // Registry position of each shown row
+    private int rowCount;             // Number of shown rows
+    private int[] rowOf;              // Registry position -> shown row, or -1 if filtered out
+
+    private String typeFilter;        // "Regular", "Premium" or null for all
+    private String planFilter;        // "basic", "standard", "deluxe", "premium" or null for all
+    private String statusFilter;      // "Active", "Inactive" or null for all
+    private int minAttendance;        // Members with less attendance are filtered out
+
+    private int sortColumn = -1;      // Column the rows are sorted by, or -1 for registry order
+    private boolean ascending = true; // Sort direction
+    private boolean rebuildPending;   // Whether a rebuild has been scheduled
+
+    /**
+     * Constructor for MemberTableModel
+     * Starts listening to the registry
+     *
+     * @param registry The registry to list
+     */
+    public MemberTableModel(MemberRegistry registry) {
+        this.rows = new int[0];
+        this.rowOf = new int[0];
+        setRegistry(registry);
+    }
+
+    /**
+     * Method to list another registry, e.g. after members were read from file
+     *
+     * @param registry The registry to list
+     */
+    public void setRegistry(MemberRegistry registry) {
+        if (this.registry != null) {
+            this.registry.removeMemberListener(this);
+            bitmaps.dispose();
+        }
+        this.registry = registry;
+        // Added before this model, so the bitmaps are up to date when a change reaches the model
+        this.bitmaps = new MemberBitmaps(registry);
+        registry.addMemberListener(this);
+        rebuild();
+    }
+
+    /**
+     * Method to stop listening to the registry once the table is closed
+     */
+    public void dispose() {
+        registry.removeMemberListener(this);
+        bitmaps.dispose();
+    }
+
+    /**
+     * Method to set the filters
+     *
+     * @param type "Regular", "Premium" or null for all
+     * @param plan "basic", "standard", "deluxe", "premium" or null for all
+     * @param status "Active", "Inactive" or null for all
+     * @param minAttendance Lowest attendance shown
+     */
+    public void setFilter(String type, String plan, String status, int minAttendance) {
+        this.typeFilter = type;
+        this.planFilter = plan;
+        this.statusFilter = status;
+        this.minAttendance = minAttendance;
+        rebuild();
+    }
+
+    /**
+     * Method to sort the rows by a column
+     * Sorting by the same column again reverses the direction.
+     * Only type, plan, status and attendance can be sorted; other columns
+     * go back to registry order.
+     *
+     * @param column The column to sort by
+     */
+    public void sortBy(int column) {
+        if (!isSortable(column)) {
+            sortColumn = -1;
+            ascending = true;
+        } else if (column == sortColumn) {
+            ascending = !ascending;
+        } else {
+            sortColumn = column;
+            ascending = true;
+        }
+        rebuild();
+    }
+
+    /**
+     * @param column A column position
+     * @return True if the rows can be sorted by the column
+     */
+    public static boolean isSortable(int column) {
+        return column == COLUMN_TYPE || column == COLUMN_PLAN || column == COLUMN_STATUS
+                || column == COLUMN_ATTENDANCE;
+    }
+
+    /**
+     * @return Number of members in the registry, shown or not
+     */
+    public int getMemberCount() {
+        return registry.size();
+    }
+
+    /**
+     * Method to get the member shown in a row
+     *
+     * @param row The row
+     * @return The member
+     */
+    public GymMember getMemberAt(int row) {
+        if (row < 0 || row >= rowCount) throw new IndexOutOfBoundsException("Row " + row);
+        return registry.getMember(rows[row]);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        if (column == COLUMN_ID || column == COLUMN_ATTENDANCE) return Integer.class;
+        if (column == COLUMN_LOYALTY) return Double.class;
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        GymMember member = getMemberAt(row);
+        switch (column) {
+            case COLUMN_ID: return member.getId();
+            case COLUMN_NAME: return member.getName();
+            case COLUMN_TYPE: return member instanceof RegularMember ? "Regular" : "Premium";
+            case COLUMN_PLAN: return planOf(member);
+            case COLUMN_STATUS: return member.getActiveStatus() ? "Active" : "Inactive";
+            case COLUMN_ATTENDANCE: return member.getAttendance();
+            case COLUMN_LOYALTY: return member.getLoyaltyPoints();
+            case COLUMN_PHONE: return member.getPhone();
+            case COLUMN_EMAIL: return member.getEmail();
+            case COLUMN_LOCATION: return member.getLocation();
+            case COLUMN_START_DATE: return member.getMembershipStartDate();
+            default: return null;
+        }
+    }
+
+    /**
+     * Method called after a member changes
+     * Repaints the member's row, adds a new member's row or schedules a rebuild
+     */
+    @Override
+    public void memberChanged(final GymMember member, final String operation, final String argument) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    memberChanged(member, operation, argument);
+                }
+            });
+            return;
+        }
+        if (rebuildPending) return;
+
+        int ordinal = member.getOrdinal();
+        if (ordinal < 0 || registry.getMember(ordinal) != member) {
+            // Belongs to another registry or was removed
+            return;
+        }
+
+        if (ADD.equals(operation)) {
+            if (!accepts(member)) {
+                ensureRowOf(ordinal + 1);
+                rowOf[ordinal] = -1;
+            } else if (sortColumn < 0 && ordinal == registry.size() - 1) {
+                // Registry order, so the new member goes last
+                ensureRowOf(ordinal + 1);
+                ensureRows(rowCount + 1);
+                rows[rowCount] = ordinal;
+                rowOf[ordinal] = rowCount;
+                rowCount++;
+                fireTableRowsInserted(rowCount - 1, rowCount - 1);
+            } else {
+                scheduleRebuild();
+            }
+            return;
+        }
+
+        int row = ordinal < rowOf.length ? rowOf[ordinal] : -1;
+        if (row < 0) {
+            if (accepts(member)) {
+                scheduleRebuild();
+            }
+        } else if (!accepts(member) || !inOrder(row)) {
+            scheduleRebuild();
+        } else {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    /**
+     * Method called after the registry has been cleared
+     * Lists the registry again; the bitmaps have already started over
+     */
+    @Override
+    public void membersCleared() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    membersCleared();
+                }
+            });
+            return;
+        }
+        if (!rebuildPending) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Method to filter and sort all rows again
+     */
+    public void rebuild() {
+        rebuildPending = false;
+        int size = registry.size();
+        ensureRowOf(size);
+        Arrays.fill(rowOf, -1);
+
+        // Members passing the filter, in registry order
+        BitSet candidates = bitmaps.filter(typeFilter, planFilter, statusFilter, null, null);
+        int[] accepted = new int[Math.min(size, candidates.cardinality())];
+        int count = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0 && i < size; i = candidates.nextSetBit(i + 1)) {
+            if (minAttendance <= 0 || registry.getMember(i).getAttendance() >= minAttendance) {
+                accepted[count++] = i;
+            }
+        }
+
+        rows = sortColumn < 0 ? accepted : sortRows(accepted, count);
+        rowCount = count;
+        for (int row = 0; row < rowCount; row++) {
+            rowOf[rows[row]] = row;
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Method to sort registry positions by the sort column
+     * Members are counted into one bucket per key, which keeps equal keys in
+     * registry order. Very spread out attendance is sorted as packed keys instead.
+     *
+     * @param accepted Registry positions in registry order
+     * @param count Number of positions used
+     * @return The positions in sorted order
+     */
+    private int[] sortRows(int[] accepted, int count) {
+        int[] keys = new int[count];
+        int maxKey = 0;
+        for (int i = 0; i < count; i++) {
+            keys[i] = sortKey(registry.getMember(accepted[i]));
+            maxKey = Math.max(maxKey, keys[i]);
+        }
+
+        int[] sorted = new int[count];
+        if (maxKey > 4 * count + 1024) {
+            long[] packed = new long[count];
+            for (int i = 0; i < count; i++) {
+                int key = ascending ? keys[i] : Integer.MAX_VALUE - keys[i];
+                packed[i] = ((long) key << 32) | i;
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < count; i++) {
+                sorted[i] = accepted[(int) packed[i]];
+            }
+            return sorted;
+        }
+
+        // Start of each bucket
+        int[] starts = new int[maxKey + 2];
+        for (int i = 0; i < count; i++) {
+            starts[(ascending ? keys[i] : maxKey - keys[i]) + 1]++;
+        }
+        for (int key = 1; key < starts.length; key++) {
+            starts[key] += starts[key - 1];
+        }
+        for (int i = 0; i < count; i++) {
+            sorted[starts[ascending ? keys[i] : maxKey - keys[i]]++] = accepted[i];
+        }
+        return sorted;
+    }
+
+    /**
+     * Method to check whether a row is still in order with its neighbours
+     *
+     * @param row The row
+     * @return True if the rows do not need to be sorted again
+     */
+    private boolean inOrder(int row) {
+        if (sortColumn < 0) return true;
+        int key = directedKey(registry.getMember(rows[row]));
+        if (row > 0 && directedKey(registry.getMember(rows[row - 1])) > key) return false;
+        if (row < rowCount - 1 && directedKey(registry.getMember(rows[row + 1])) < key) return false;
+        return true;
+    }
+
+    /**
+     * @param member A member
+     * @return The sort key, negated when sorting in descending order
+     */
+    private int directedKey(GymMember member) {
+        return ascending ? sortKey(member) : -sortKey(member);
+    }
+
+    /**
+     * Method to get the sort key of a member for the sort column
+     *
+     * @param member The member
+     * @return A small non-negative key
+     */
+    private int sortKey(GymMember member) {
+        switch (sortColumn) {
+            case COLUMN_TYPE:
+                return member instanceof RegularMember ? 0 : 1;
+            case COLUMN_PLAN:
+                String plan = planOf(member);
+                if (plan.equals("basic")) return 0;
+                if (plan.equals("standard")) return 1;
+                if (plan.equals("deluxe")) return 2;
+                return 3;
+            case COLUMN_STATUS:
+                return member.getActiveStatus() ? 0 : 1;
+            case COLUMN_ATTENDANCE:
+                return member.getAttendance();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Method to check a member against the filters
+     *
+     * @param member The member
+     * @return True if the member is shown
+     */
+    private boolean accepts(GymMember member) {
+        if (typeFilter != null
+                && !typeFilter.equals(member instanceof RegularMember ? "Regular" : "Premium")) {
+            return false;
+        }
+        if (planFilter != null && !planFilter.equals(planOf(member))) {
+            return false;
+        }
+        if (statusFilter != null
+                && !statusFilter.equals(member.getActiveStatus() ? "Active" : "Inactive")) {
+            return false;
+        }
+        return member.getAttendance() >= minAttendance;
+    }
+
+    /**
+     * @param member A member
+     * @return The plan of a regular member, or "premium" for premium members
+     */
+    private static String planOf(GymMember member) {
+        if (member instanceof RegularMember) {
+            return ((RegularMember) member).getPlan();
+        }
+        return PREMIUM_PLAN;
+    }
+
+    /**
+     * Method to rebuild the rows once after the changes reported so far
+     */
+    private void scheduleRebuild() {
+        rebuildPending = true;
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                if (rebuildPending) {
+                    rebuild();
+                }
+            }
+        });
+    }
+
+    /**
+     * Method to make room in the row array
+     *
+     * @param capacity Number of rows needed
+     */
+    private void ensureRows(int capacity) {
+        if (rows.length < capacity) {
+            rows = Arrays.copyOf(rows, Math.max(capacity, rows.length * 2));
+        }
+    }
+
+    /**
+     * Method to make room in the registry position array
+     *
+     * @param capacity Number of registry positions needed
+     */
+    private void ensureRowOf(int capacity) {
+        if (rowOf.length < capacity) {
+            int oldLength = rowOf.length;
+            rowOf = Arrays.copyOf(rowOf, Math.max(capacity, oldLength * 2));
+            Arrays.fill(rowOf, oldLength, rowOf.length, -1);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Amounts of money as whole paisa in a long
+ * Plan prices, premium charges, payments and discounts are kept as paisa (1/100 of a
+ * rupee) so adding them up is exact integer arithmetic: no rounding errors build up
+ * over many payments and "paid in full" is a plain comparison instead of one within
+ * a tolerance. Rupees as text or double only appear at the edges (forms, files,
+ * messages) with the methods here.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public final class Money {
+    public static final long PAISA_PER_RUPEE = 100;
+
+    // Largest amount accepted, so sums of millions of amounts cannot overflow a long
+    private static final long MAX_PAISA = 1_000_000_000_000L;
+
+    /**
+     * Constructor for Money
+     * Not used; all methods are static
+     */
+    private Money() {
+    }
+
+    /**
+     * Method to convert rupees to paisa
+     * Rounds to the nearest paisa, so 0.1 + 0.2 rupees becomes 30 paisa
+     *
+     * @param rupees The amount in rupees
+     * @return The amount in paisa
+     * @throws IllegalArgumentException If the amount is not a number or too large
+     */
+    public static long toPaisa(double rupees) {
+        if (Double.isNaN(rupees) || Math.abs(rupees) > MAX_PAISA / PAISA_PER_RUPEE) {
+            throw new IllegalArgumentException("Invalid amount: " + rupees);
+        }
+        return Math.round(rupees * PAISA_PER_RUPEE);
+    }
+
+    /**
+     * @param paisa The amount in paisa
+     * @return The amount in rupees, for display and for callers that work in rupees
+     */
+    public static double toRupees(long paisa) {
+        return paisa / (double) PAISA_PER_RUPEE;
+    }
+
+    /**
+     * Method to parse an amount in rupees such as "1500", "1500.5" or "1500.50"
+     * The digits are read directly, so the amount is exact without going through a double
+     *
+     * @param text The amount; surrounding spaces are ignored
+     * @return The amount in paisa
+     * @throws IllegalArgumentException If the text is not an amount with at most two decimals
+     */
+    public static long parse(String text) {
+        if (text == null) throw new IllegalArgumentException("Amount cannot be empty");
+        return parse(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Method to parse an amount in rupees inside a character buffer
+     *
+     * @param buf Buffer holding the amount
+     * @param start Start of the amount, surrounding spaces allowed
+     * @param end End of the amount (exclusive)
+     * @return The amount in paisa
+     * @throws IllegalArgumentException If the characters are not an amount with at most two decimals
+     */
+    public static long parse(char[] buf, int start, int end) {
+        while (start < end && buf[start] <= ' ') start++;
+        while (end > start && buf[end - 1] <= ' ') end--;
+
+        boolean negative = start < end && buf[start] == '-';
+        int i = negative ? start + 1 : start;
+        long paisa = 0;
+        int digitCount = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                if (decimals == 2) {
+                    // More decimals than paisa; only zeros are allowed (e.g. "1500.000")
+                    if (c != '0') break;
+                    continue;
+                }
+                paisa = paisa * 10 + (c - '0');
+                digitCount++;
+                if (decimals >= 0) decimals++;
+                if (paisa > MAX_PAISA) break;
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                break;
+            }
+        }
+        if (i < end || digitCount == 0) {
+            throw new IllegalArgumentException("Invalid amount: " + new String(buf, start, end - start));
+        }
+
+        // Scale to paisa: no decimals or one decimal still need zeros added
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            paisa *= 10;
+        }
+        return negative ? -paisa : paisa;
+    }
+
+    /**
+     * Method to format an amount with two decimals, e.g. "45000.50"
+     *
+     * @param paisa The amount in paisa
+     * @return The amount in rupees as text
+     */
+    public static String format(long paisa) {
+        StringBuilder text = new StringBuilder(16);
+        append(text, paisa);
+        return text.toString();
+    }
+
+    /**
+     * Method to append an amount with two decimals, e.g. "45000.50"
+     *
+     * @param out The builder to append to
+     * @param paisa The amount in paisa
+     */
+    public static void append(StringBuilder out, long paisa) {
+        if (paisa < 0) {
+            out.append('-');
+            paisa = -paisa;
+        }
+        long fraction = paisa % PAISA_PER_RUPEE;
+        out.append(paisa / PAISA_PER_RUPEE).append('.');
+        if (fraction < 10) out.append('0');
+        out.append(fraction);
+    }
+}
@@ -0,0 +1,218 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Class for loading large members files on all cores
+ * The file is split into chunks on line boundaries, every chunk is parsed by a
+ * fork-join task with MemberFileReader.parseLine, and the parsed members are added
+ * to the registry chunk by chunk in file order. Adding stays on one thread, so
+ * duplicate IDs are found by the registry exactly as with the single-threaded reader:
+ * the first line with an ID wins, wherever the chunk boundaries fall.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class ParallelMemberLoader {
+    // Files smaller than two chunks are read by MemberFileReader on the calling thread
+    private static final long MIN_CHUNK_SIZE = 4L << 20;
+
+    // Bytes read at a time when looking for the end of a line
+    private static final int SCAN_SIZE = 4096;
+
+    private final ForkJoinPool pool;  // Pool the chunks are parsed on
+    private final Charset charset;    // Charset the file was written with
+
+    /**
+     * Constructor for ParallelMemberLoader
+     * Uses the common fork-join pool and the platform charset
+     */
+    public ParallelMemberLoader() {
+        this(ForkJoinPool.commonPool(), Charset.defaultCharset());
+    }
+
+    /**
+     * Constructor for ParallelMemberLoader
+     *
+     * @param pool Pool the chunks are parsed on
+     * @param charset Charset the file was written with
+     */
+    public ParallelMemberLoader(ForkJoinPool pool, Charset charset) {
+        this.pool = pool;
+        this.charset = charset;
+    }
+
+    /**
+     * Method to load all members of a file into a registry
+     * Clears the registry before loading. Lines that cannot be parsed are skipped.
+     *
+     * @param file The members file
+     * @param registry The registry to fill
+     * @return Number of members loaded, or -1 if the file is empty
+     * @throws IOException If an error occurs during file reading
+     */
+    public int load(File file, MemberRegistry registry) throws IOException {
+        return load(file, registry, null);
+    }
+
+    /**
+     * Method to load all members of a file into a registry, reporting progress in bytes
+     * Clears the registry before loading. Lines that cannot be parsed are skipped.
+     *
+     * @param file The members file
+     * @param registry The registry to fill
+     * @param progress Listener told about progress after every chunk, or null
+     * @return Number of members loaded, or -1 if the file is empty
+     * @throws IOException If an error occurs during file reading
+     * @throws CancellationException If the listener cancels the load
+     */
+    public int load(File file, MemberRegistry registry, ProgressListener progress) throws IOException {
+        // Line breaks can only be found by byte in charsets that write ASCII as single bytes
+        boolean splittable = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+        if (!splittable || file.length() < 2 * MIN_CHUNK_SIZE || pool.getParallelism() < 2) {
+            return new MemberFileReader(charset).read(file, registry, progress);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return -1;
+            }
+
+            // Skip header line
+            long dataStart = nextLineStart(channel, 0, size);
+            registry.clear();
+
+            // Split the rest into chunks that start and end on line boundaries
+            int chunkCount = (int) Math.max(1, Math.min((size - dataStart) / MIN_CHUNK_SIZE,
+                                                        pool.getParallelism() * 4L));
+            long chunkSize = (size - dataStart) / chunkCount;
+            ArrayList<ChunkTask> tasks = new ArrayList<>();
+            long chunkStart = dataStart;
+            for (int i = 0; i < chunkCount && chunkStart < size; i++) {
+                long chunkEnd = i == chunkCount - 1 ? size
+                        : nextLineStart(channel, Math.max(chunkStart, dataStart + chunkSize * (i + 1)), size);
+                ChunkTask task = new ChunkTask(channel, chunkStart, chunkEnd, charset);
+                pool.execute(task);
+                tasks.add(task);
+                chunkStart = chunkEnd;
+            }
+
+            // Merge in file order while later chunks are still being parsed
+            int membersLoaded = 0;
+            for (ChunkTask task : tasks) {
+                ArrayList<GymMember> members;
+                try {
+                    members = task.join();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                for (GymMember member : members) {
+                    if (registry.addMember(member)) {
+                        membersLoaded++;
+                    } else {
+                        System.out.println("Duplicate member ID: " + member.getId());
+                    }
+                }
+
+                if (progress != null && !progress.progress(task.end, size)) {
+                    for (ChunkTask other : tasks) {
+                        other.cancel(false);
+                    }
+                    throw new CancellationException("Loading cancelled");
+                }
+            }
+            return membersLoaded;
+        }
+    }
+
+    /**
+     * Method to find the start of the line after a position
+     *
+     * @param channel The file channel
+     * @param position Position to search from
+     * @param size Size of the file
+     * @return Position just after the next line break, or the file size if there is none
+     * @throws IOException If an error occurs during file reading
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Fork-join task parsing the lines of one chunk of the file
+     */
+    private static class ChunkTask extends RecursiveTask<ArrayList<GymMember>> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;  // Channel shared by all chunks, read by position
+        private final long start;           // First byte of the chunk
+        private final long end;             // End of the chunk (exclusive)
+        private final Charset charset;      // Charset the file was written with
+
+        ChunkTask(FileChannel channel, long start, long end, Charset charset) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.charset = charset;
+        }
+
+        @Override
+        protected ArrayList<GymMember> compute() {
+            try {
+                // Read and decode the whole chunk
+                ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+                while (bytes.hasRemaining()) {
+                    if (channel.read(bytes, start + bytes.position()) < 0) break;
+                }
+                bytes.flip();
+                CharBuffer chars = charset.newDecoder()
+                                          .onMalformedInput(CodingErrorAction.REPLACE)
+                                          .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                                          .decode(bytes);
+
+                char[] buf = chars.array();
+                int limit = chars.limit();
+                ArrayList<GymMember> members = new ArrayList<>(limit / 200 + 1);
+                int lineStart = 0;
+                for (int i = 0; i <= limit; i++) {
+                    if (i < limit && buf[i] != '\n') continue;
+                    if (i > lineStart) {
+                        GymMember member = MemberFileReader.parseLineOrSkip(buf, lineStart, i);
+                        if (member != null) {
+                            members.add(member);
+                        }
+                    }
+                    lineStart = i + 1;
+                }
+                return members;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -3,19 +3,22 @@
  * Extends GymMember abstract class
  * Contains specific attributes and methods for premium members
  * 
+ * Trainer, paid amount, full payment status and discount are kept together in one
+ * immutable PaymentState held in a volatile field. Changes are made under the member's
+ * lock (see MemberService.lockFor), while the journal, saves and the HTTP server read
+ * without it, so they always see a paid amount with its own payment status.
+ * 
  * @author Bhumika Rayamajhi
  * @version 2.0
  */
 public class PremiumMember extends GymMember {
-    // Constant for premium charge
+    // Constant for premium charge, in rupees and in paisa
     public static final double PREMIUM_CHARGE = 50000.0;
+    public static final long PREMIUM_CHARGE_PAISA = 5000000;
     
-    // Private attributes specific to PremiumMember
-    private final double premiumCharge;    // Fixed charge for premium membership
-    private String personalTrainer;        // Name of personal trainer
-    private boolean isFullPayment;         // Whether full payment has been made
-    private double paidAmount;             // Amount paid so far
-    private double discountAmount;         // Discount amount (calculated if full payment)
+    // Private attributes specific to PremiumMember; amounts are in paisa (see Money)
+    private final long premiumCharge;      // Fixed charge for premium membership
+    private volatile PaymentState paymentState; // Trainer, amount paid so far, full payment status and discount
     
     /**
      * Constructor for PremiumMember
@@ -28,33 +31,77 @@ public class PremiumMember extends GymMember {
      * @param phone Member's phone number
      * @param email Member's email address
      * @param gender Member's gender
-     * @param DOB Member's date of birth
-     * @param startDate Membership start date
+     * @param DOB Member's date of birth (YYYY-MM-DD)
+     * @param startDate Membership start date (YYYY-MM-DD)
      * @param personalTrainer Name of personal trainer
+     * @throws IllegalArgumentException If a value is missing or a date is not valid
      */
     public PremiumMember(int id, String name, String location, String phone, 
                         String email, String gender, String DOB, 
                         String startDate, String personalTrainer) {
+        this(id, name, location, phone, email, gender, EpochDays.parse(DOB), EpochDays.parse(startDate), personalTrainer);
+    }
+
+    /**
+     * Constructor for PremiumMember
+     * Takes the dates as epoch days, for callers that have already parsed them
+     * 
+     * @param id Member ID (unique)
+     * @param name Member's full name
+     * @param location Member's location/address
+     * @param phone Member's phone number
+     * @param email Member's email address
+     * @param gender Member's gender
+     * @param dobEpochDay Member's date of birth (days since 1970-01-01)
+     * @param startEpochDay Membership start date (days since 1970-01-01)
+     * @param personalTrainer Name of personal trainer
+     */
+    public PremiumMember(int id, String name, String location, String phone, 
+                        String email, String gender, int dobEpochDay, 
+                        int startEpochDay, String personalTrainer) {
         // Call parent constructor to initialize common attributes
-        super(id, name, location, phone, email, gender, DOB, startDate);
-        this.premiumCharge = PREMIUM_CHARGE;  // Use the constant
-        this.personalTrainer = personalTrainer;
-        this.isFullPayment = false;        // Not fully paid by default
-        this.paidAmount = 0;               // No payment made by default
-        this.discountAmount = 0;           // No discount by default
+        super(id, name, location, phone, email, gender, dobEpochDay, startEpochDay);
+        this.premiumCharge = PREMIUM_CHARGE_PAISA;  // Use the constant
+        // Not fully paid, no payment made and no discount by default
+        this.paymentState = new PaymentState(personalTrainer, 0, false, 0);
     }
     
     /**
      * Method to mark attendance
      * Increments attendance by 1 and adds 10 loyalty points
      * Only works if membership is active
+     * Safe to call from several threads without a lock
      */
     @Override
-    public void markAttendance() {
-        if (activeStatus) {
-            this.attendance++;
-            this.loyaltyPoints += 10;  // Premium members get more loyalty points
-        }
+    public boolean markAttendance() {
+        return checkIn() != null;
+    }
+
+    /**
+     * Method to mark attendance and get the state it left
+     * Works like markAttendance
+     * 
+     * @return The state just after this check-in, or null if the membership is not active
+     */
+    @Override
+    public AttendanceState checkIn() {
+        // Premium members get more loyalty points
+        AttendanceState state = recordAttendance(10);
+        if (state == null) return null;
+        fireChanged(MemberListener.MARK_ATTENDANCE, "");
+        return state;
+    }
+    
+    /**
+     * Method to pay due amount
+     * Rounds the amount to whole paisa and pays it with payDuePaisa
+     * 
+     * @param amount The amount to pay in rupees
+     * @return A message indicating success or failure
+     */
+    public String payDueAmount(double amount) {
+        // Amounts above the charge are refused by payDuePaisa; they only need to stay in range here
+        return payDuePaisa(amount > 0 ? Money.toPaisa(Math.min(amount, PREMIUM_CHARGE + 1)) : 0);
     }
     
     /**
@@ -62,12 +109,13 @@ public class PremiumMember extends GymMember {
      * Adds to paidAmount and checks if full payment has been made
      * Calculates discount if full payment
      * 
-     * @param amount The amount to pay
+     * @param amount The amount to pay in paisa
      * @return A message indicating success or failure
      */
-    public String payDueAmount(double amount) {
+    public String payDuePaisa(long amount) {
+        PaymentState current = paymentState;
         // Check if already fully paid
-        if (isFullPayment) {
+        if (current.isFullPayment) {
             return "Payment is already complete!";
         }
         
@@ -77,23 +125,23 @@ public class PremiumMember extends GymMember {
         }
         
         // Check if payment exceeds due amount
-        double remainingAmount = premiumCharge - paidAmount;
+        long remainingAmount = premiumCharge - current.paidAmount;
         if (amount > remainingAmount) {
-            return "Payment amount exceeds the due amount of Rs. " + remainingAmount + "!";
+            return "Payment amount exceeds the due amount of Rs. " + Money.toRupees(remainingAmount) + "!";
         }
         
-        // Process payment
-        paidAmount += amount;
-        
-        // Check if full payment
-        if (Math.abs(paidAmount - premiumCharge) < 0.01) { // Using epsilon comparison for floating point
-            isFullPayment = true;
-            calculateDiscount();  // Calculate discount on full payment
-        }
+        // Process payment; check if full payment, amounts are exact, so no tolerance is needed
+        long paidAmount = current.paidAmount + amount;
+        boolean fullPayment = paidAmount == premiumCharge;
+        // Calculate discount on full payment
+        paymentState = new PaymentState(current.personalTrainer, paidAmount, fullPayment,
+                                         fullPayment ? discountFor(premiumCharge) : current.discountAmount);
         
+        fireChanged(MemberListener.PAY_DUE, Money.format(amount));
+
         // Return success message with remaining amount
         remainingAmount = premiumCharge - paidAmount;
-        return "Payment successful! Remaining amount: Rs. " + remainingAmount;
+        return "Payment successful! Remaining amount: Rs. " + Money.toRupees(remainingAmount);
     }
     
     /**
@@ -101,10 +149,19 @@ public class PremiumMember extends GymMember {
      * Calculates 10% discount if isFullPayment is true
      */
     public void calculateDiscount() {
-        if (isFullPayment) {
-            discountAmount = premiumCharge * 0.10;  // 10% discount on full payment
+        PaymentState current = paymentState;
+        if (current.isFullPayment) {
+            paymentState = new PaymentState(current.personalTrainer, current.paidAmount, true,
+                                            discountFor(premiumCharge));
         }
     }
+
+    /**
+     * @return Discount on a fully paid charge
+     */
+    private static long discountFor(long premiumCharge) {
+        return premiumCharge / 10;  // 10% discount on full payment
+    }
     
     /**
      * Method to revert premium member
@@ -112,37 +169,73 @@ public class PremiumMember extends GymMember {
      */
     public void revertPremiumMember() {
         resetMember();
-        this.personalTrainer = "";
-        this.isFullPayment = false;
-        this.paidAmount = 0;
-        this.discountAmount = 0;
+        this.paymentState = new PaymentState("", 0, false, 0);
+        fireChanged(MemberListener.REVERT_PREMIUM, "");
+    }
+    
+    /**
+     * Method to restore saved payment details
+     * Sets paid amount, full payment status, discount and trainer directly when loading members from a file
+     * Attendance and loyalty points are restored with restoreState
+     * 
+     * @param paidAmount Saved amount paid so far in paisa
+     * @param personalTrainer Saved name of personal trainer
+     */
+    public void restorePremiumState(long paidAmount, String personalTrainer) {
+        if (paidAmount < 0 || paidAmount > premiumCharge) {
+            throw new IllegalArgumentException("Invalid paid amount: " + Money.format(paidAmount));
+        }
+
+        boolean fullPayment = paidAmount == premiumCharge;
+        this.paymentState = new PaymentState(personalTrainer, paidAmount, fullPayment,
+                                             fullPayment ? discountFor(premiumCharge) : 0);
     }
     
     // Getter methods for PremiumMember-specific attributes
     /**
-     * @return Premium charge (fixed)
+     * @return Premium charge (fixed) in rupees
+     */
+    public double getPremiumCharge() { return Money.toRupees(premiumCharge); }
+    
+    /**
+     * @return Premium charge (fixed) in paisa
      */
-    public double getPremiumCharge() { return premiumCharge; }
+    public long getPremiumChargePaisa() { return premiumCharge; }
     
     /**
      * @return Name of personal trainer
      */
-    public String getPersonalTrainer() { return personalTrainer; }
+    public String getPersonalTrainer() { return paymentState.personalTrainer; }
     
     /**
      * @return Whether full payment has been made
      */
-    public boolean isFullPayment() { return isFullPayment; }
+    public boolean isFullPayment() { return paymentState.isFullPayment; }
+    
+    /**
+     * @return Amount paid so far in rupees
+     */
+    public double getPaidAmount() { return Money.toRupees(paymentState.paidAmount); }
+    
+    /**
+     * @return Amount paid so far in paisa
+     */
+    public long getPaidPaisa() { return paymentState.paidAmount; }
     
     /**
-     * @return Amount paid so far
+     * @return Discount amount in rupees
      */
-    public double getPaidAmount() { return paidAmount; }
+    public double getDiscountAmount() { return Money.toRupees(paymentState.discountAmount); }
     
     /**
-     * @return Discount amount
+     * @return Discount amount in paisa
      */
-    public double getDiscountAmount() { return discountAmount; }
+    public long getDiscountPaisa() { return paymentState.discountAmount; }
+    
+    /**
+     * @return Trainer, paid amount, full payment status and discount read together
+     */
+    public PaymentState getPaymentState() { return paymentState; }
     
     /**
      * Method to display member information
@@ -150,15 +243,54 @@ public class PremiumMember extends GymMember {
      */
     @Override
     public void display() {
+        PaymentState current = paymentState;
         super.display();
         System.out.println("Membership Type: Premium");
-        System.out.println("Premium Charge: Rs. " + premiumCharge);
-        System.out.println("Personal Trainer: " + personalTrainer);
-        System.out.println("Paid Amount: Rs. " + paidAmount);
-        System.out.println("Payment Status: " + (isFullPayment ? "Complete" : "Incomplete"));
-        if (isFullPayment) {
-            System.out.println("Discount Amount: Rs. " + discountAmount);
+        System.out.println("Premium Charge: Rs. " + Money.toRupees(premiumCharge));
+        System.out.println("Personal Trainer: " + current.personalTrainer);
+        System.out.println("Paid Amount: Rs. " + Money.toRupees(current.paidAmount));
+        System.out.println("Payment Status: " + (current.isFullPayment ? "Complete" : "Incomplete"));
+        if (current.isFullPayment) {
+            System.out.println("Discount Amount: Rs. " + Money.toRupees(current.discountAmount));
+        }
+        System.out.println("Remaining Amount: Rs. " + Money.toRupees(premiumCharge - current.paidAmount));
+    }
+
+    /**
+     * Trainer, paid amount, full payment status and discount of a premium member at one moment
+     * Never changed after it is created; a change makes a new one
+     */
+    public static final class PaymentState {
+        private final String personalTrainer;  // Name of personal trainer
+        private final long paidAmount;         // Amount paid so far in paisa
+        private final boolean isFullPayment;   // Whether full payment has been made
+        private final long discountAmount;     // Discount amount in paisa (calculated if full payment)
+
+        PaymentState(String personalTrainer, long paidAmount, boolean isFullPayment, long discountAmount) {
+            this.personalTrainer = personalTrainer;
+            this.paidAmount = paidAmount;
+            this.isFullPayment = isFullPayment;
+            this.discountAmount = discountAmount;
         }
-        System.out.println("Remaining Amount: Rs. " + (premiumCharge - paidAmount));
+
+        /**
+         * @return Name of personal trainer
+         */
+        public String getPersonalTrainer() { return personalTrainer; }
+
+        /**
+         * @return Amount paid so far in paisa
+         */
+        public long getPaidPaisa() { return paidAmount; }
+
+        /**
+         * @return Whether full payment has been made
+         */
+        public boolean isFullPayment() { return isFullPayment; }
+
+        /**
+         * @return Discount amount in paisa
+         */
+        public long getDiscountPaisa() { return discountAmount; }
     }
 }
\ No newline at end of file
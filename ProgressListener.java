@@ -0,0 +1,17 @@
+/**
+ * Interface for following the progress of a long file operation
+ * Also lets the caller cancel the operation
+ * 
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public interface ProgressListener {
+    /**
+     * Called from time to time while the operation runs
+     * 
+     * @param done Amount of work done so far
+     * @param total Total amount of work
+     * @return True to carry on, false to cancel the operation
+     */
+    boolean progress(long done, long total);
+}
@@ -3,22 +3,27 @@
  * Extends GymMember abstract class
  * Contains specific attributes and methods for regular members
  * 
+ * Plan, price and removal reason are kept together in one immutable PlanState held in a
+ * volatile field. Changes are made under the member's lock (see MemberService.lockFor),
+ * while the journal, saves and the HTTP server read without it, so they always see a
+ * plan with its own price.
+ * 
  * @author Bhumika Rayamajhi
  * @version 2.0
  */
 public class RegularMember extends GymMember {
-    // Constants for plan prices
+    // Constants for plan prices, in rupees and in paisa
     public static final double BASIC_PRICE = 6500.0;
     public static final double STANDARD_PRICE = 12500.0;
     public static final double DELUXE_PRICE = 18500.0;
+    public static final long BASIC_PRICE_PAISA = 650000;
+    public static final long STANDARD_PRICE_PAISA = 1250000;
+    public static final long DELUXE_PRICE_PAISA = 1850000;
     
     // Private attributes specific to RegularMember
     private final int attendanceLimit;     // Attendance limit for upgrade eligibility
-    private boolean isEligibleForUpgrade;  // Whether member is eligible for plan upgrade
-    private String removalReason;          // Reason for membership removal
-    private String referralSource;         // Source of referral
-    private String plan;                   // Current plan (basic, standard, deluxe)
-    private double price;                  // Price of current plan
+    private final String referralSource;   // Source of referral
+    private volatile PlanState planState;  // Current plan, its price and the removal reason
     
     /**
      * Constructor for RegularMember
@@ -31,21 +36,40 @@ public class RegularMember extends GymMember {
      * @param phone Member's phone number
      * @param email Member's email address
      * @param gender Member's gender
-     * @param DOB Member's date of birth
-     * @param startDate Membership start date
+     * @param DOB Member's date of birth (YYYY-MM-DD)
+     * @param startDate Membership start date (YYYY-MM-DD)
      * @param referralSource Source of referral
+     * @throws IllegalArgumentException If a value is missing or a date is not valid
      */
     public RegularMember(int id, String name, String location, String phone, 
                         String email, String gender, String DOB, 
                         String startDate, String referralSource) {
+        this(id, name, location, phone, email, gender, EpochDays.parse(DOB), EpochDays.parse(startDate), referralSource);
+    }
+
+    /**
+     * Constructor for RegularMember
+     * Takes the dates as epoch days, for callers that have already parsed them
+     * 
+     * @param id Member ID (unique)
+     * @param name Member's full name
+     * @param location Member's location/address
+     * @param phone Member's phone number
+     * @param email Member's email address
+     * @param gender Member's gender
+     * @param dobEpochDay Member's date of birth (days since 1970-01-01)
+     * @param startEpochDay Membership start date (days since 1970-01-01)
+     * @param referralSource Source of referral
+     */
+    public RegularMember(int id, String name, String location, String phone, 
+                        String email, String gender, int dobEpochDay, 
+                        int startEpochDay, String referralSource) {
         // Call parent constructor to initialize common attributes
-        super(id, name, location, phone, email, gender, DOB, startDate);
+        super(id, name, location, phone, email, gender, dobEpochDay, startEpochDay);
         this.referralSource = referralSource;
         this.attendanceLimit = 30;         // Set attendance limit to 30
-        this.isEligibleForUpgrade = false; // Not eligible for upgrade by default
-        this.plan = "basic";               // Default plan is basic
-        this.price = 6500;                 // Default price for basic plan
-        this.removalReason = "";           // No removal reason by default
+        // Default plan is basic, with no removal reason
+        this.planState = new PlanState("basic", BASIC_PRICE_PAISA, "");
     }
     
     /**
@@ -53,18 +77,49 @@ public class RegularMember extends GymMember {
      * Increments attendance by 1 and adds 5 loyalty points
      * Checks if eligible for upgrade based on attendance limit
      * Only works if membership is active
+     * Safe to call from several threads without a lock; when check-ins race past the
+     * attendance limit, exactly one of them makes the member eligible. Eligibility is
+     * part of the attendance state, so a check-in racing a revert either lands before
+     * it and is reset, or sees the inactive member and does nothing.
+     */
+    @Override
+    public boolean markAttendance() {
+        return checkIn() != null;
+    }
+
+    /**
+     * Method to mark attendance and get the state it left
+     * Works like markAttendance
+     * 
+     * @return The state just after this check-in, or null if the membership is not active
      */
     @Override
-    public void markAttendance() {
-        if (activeStatus) {
-            this.attendance++;
-            this.loyaltyPoints += 5;
-            
-            // Check if eligible for upgrade
-            if (this.attendance >= attendanceLimit && !this.isEligibleForUpgrade) {
-                this.isEligibleForUpgrade = true;
-            }
+    public AttendanceState checkIn() {
+        AttendanceState current;
+        AttendanceState next;
+        do {
+            current = getAttendanceState();
+            if (!current.isActive()) return null;
+            // Check if eligible for upgrade, in the same step as the attendance
+            boolean eligible = current.isEligibleForUpgrade() || current.getAttendance() + 1 >= attendanceLimit;
+            next = current.checkedIn(5, eligible);
+        } while (!compareAndSetState(current, next));
+
+        fireChanged(MemberListener.MARK_ATTENDANCE, "");
+        if (next.isEligibleForUpgrade() && !current.isEligibleForUpgrade()) {
+            fireChanged(MemberListener.UPGRADE_ELIGIBLE, "");
         }
+        return next;
+    }
+
+    /**
+     * Method to check if a plan name is one of the plans
+     * 
+     * @param plan The plan name, in any case
+     * @return True for basic, standard or deluxe
+     */
+    public static boolean isValidPlan(String plan) {
+        return getPlanPrice(plan) != -1;
     }
     
     /**
@@ -72,17 +127,17 @@ public class RegularMember extends GymMember {
      * Returns the price for a given plan
      * 
      * @param plan The plan name (basic, standard, deluxe)
-     * @return The price of the plan, or -1 if invalid plan
+     * @return The price of the plan in paisa, or -1 if invalid plan
      */
-    private double getPlanPrice(String plan) {
+    private static long getPlanPrice(String plan) {
         if (plan.equalsIgnoreCase("basic")) {
-            return BASIC_PRICE;
+            return BASIC_PRICE_PAISA;
         } else if (plan.equalsIgnoreCase("standard")) {
-            return STANDARD_PRICE;
+            return STANDARD_PRICE_PAISA;
         } else if (plan.equalsIgnoreCase("deluxe")) {
-            return DELUXE_PRICE;
+            return DELUXE_PRICE_PAISA;
         } else {
-            return -1.0; // Invalid plan
+            return -1; // Invalid plan
         }
     }
     
@@ -95,25 +150,27 @@ public class RegularMember extends GymMember {
      */
     public String upgradePlan(String plan) {
         // Check if eligible for upgrade
-        if (!isEligibleForUpgrade) {
+        if (!getIsEligibleForUpgrade()) {
             return "Not eligible for upgrade. Need at least " + attendanceLimit + " attendances.";
         }
         
         // Check if plan is valid and get its price
-        double newPrice = getPlanPrice(plan);
-        if (newPrice == -1.0) {
+        long newPrice = getPlanPrice(plan);
+        if (newPrice == -1) {
             return "Invalid plan selected. Choose basic, standard, or deluxe.";
         }
         
         // Check if same plan is selected
-        if (this.plan.equalsIgnoreCase(plan)) {
+        PlanState current = planState;
+        if (current.plan.equalsIgnoreCase(plan)) {
             return "You are already on the " + plan + " plan.";
         }
         
         // Upgrade plan
-        this.plan = plan.toLowerCase();
-        this.price = newPrice;
-        return "Plan upgraded successfully to " + plan + " for Rs. " + price;
+        PlanState upgraded = new PlanState(plan.toLowerCase(), newPrice, current.removalReason);
+        planState = upgraded;
+        fireChanged(MemberListener.UPGRADE_PLAN, upgraded.plan);
+        return "Plan upgraded successfully to " + plan + " for Rs. " + Money.toRupees(upgraded.price);
     }
     
     /**
@@ -124,12 +181,26 @@ public class RegularMember extends GymMember {
      */
     public void revertRegularMember(String reason) {
         resetMember();
-        this.removalReason = reason;
-        this.plan = "basic";
-        this.price = 6500;
-        this.isEligibleForUpgrade = false;
+        this.planState = new PlanState("basic", BASIC_PRICE_PAISA, reason);
+        fireChanged(MemberListener.REVERT_REGULAR, reason);
     }
     
+    /**
+     * Method to restore saved plan details
+     * Sets plan, price and upgrade eligibility directly when loading members from a file
+     * Attendance and loyalty points are restored with restoreState
+     * 
+     * @param plan The saved plan (basic, standard, or deluxe)
+     * @param isEligibleForUpgrade Saved upgrade eligibility
+     * @param removalReason Saved removal reason
+     */
+    public void restoreRegularState(String plan, boolean isEligibleForUpgrade, String removalReason) {
+        long planPrice = getPlanPrice(plan);
+        if (planPrice == -1) throw new IllegalArgumentException("Invalid plan: " + plan);
+
+        this.planState = new PlanState(plan.toLowerCase(), planPrice, removalReason == null ? "" : removalReason);
+        setEligibleForUpgrade(isEligibleForUpgrade);
+    }
     
     // Getter methods for RegularMember-specific attributes
     /**
@@ -140,24 +211,34 @@ public class RegularMember extends GymMember {
     /**
      * @return Whether member is eligible for upgrade
      */
-    public boolean getIsEligibleForUpgrade() { return isEligibleForUpgrade; }
+    public boolean getIsEligibleForUpgrade() { return getAttendanceState().isEligibleForUpgrade(); }
     
     /**
      * @return Reason for membership removal
      */
-    public String getRemovalReason() { return removalReason; }
+    public String getRemovalReason() { return planState.removalReason; }
     
     
     
     /**
      * @return Current plan
      */
-    public String getPlan() { return plan; }
+    public String getPlan() { return planState.plan; }
+    
+    /**
+     * @return Price of current plan in rupees
+     */
+    public double getPrice() { return Money.toRupees(planState.price); }
+    
+    /**
+     * @return Price of current plan in paisa
+     */
+    public long getPricePaisa() { return planState.price; }
     
     /**
-     * @return Price of current plan
+     * @return Plan, price and removal reason read together
      */
-    public double getPrice() { return price; }
+    public PlanState getPlanState() { return planState; }
     
     /**
      * Gets the referral source for this member
@@ -174,15 +255,47 @@ public class RegularMember extends GymMember {
      */
     @Override
     public void display() {
+        PlanState current = planState;
         super.display();
         System.out.println("Membership Type: Regular");
-        System.out.println("Plan: " + plan);
-        System.out.println("Price: Rs. " + price);
+        System.out.println("Plan: " + current.plan);
+        System.out.println("Price: Rs. " + Money.toRupees(current.price));
         System.out.println("Referral Source: " + referralSource);
         System.out.println("Attendance Limit: " + attendanceLimit);
-        System.out.println("Eligible for Upgrade: " + isEligibleForUpgrade);
-        if (!removalReason.isEmpty()) {
-            System.out.println("Removal Reason: " + removalReason);
+        System.out.println("Eligible for Upgrade: " + getIsEligibleForUpgrade());
+        if (!current.removalReason.isEmpty()) {
+            System.out.println("Removal Reason: " + current.removalReason);
+        }
+    }
+
+    /**
+     * Plan, price and removal reason of a regular member at one moment
+     * Never changed after it is created; a change makes a new one
+     */
+    public static final class PlanState {
+        private final String plan;           // Plan (basic, standard, deluxe)
+        private final long price;            // Price of the plan in paisa
+        private final String removalReason;  // Reason for membership removal, or empty
+
+        PlanState(String plan, long price, String removalReason) {
+            this.plan = plan;
+            this.price = price;
+            this.removalReason = removalReason;
         }
+
+        /**
+         * @return Plan (basic, standard, deluxe)
+         */
+        public String getPlan() { return plan; }
+
+        /**
+         * @return Price of the plan in paisa
+         */
+        public long getPricePaisa() { return price; }
+
+        /**
+         * @return Reason for membership removal, or empty
+         */
+        public String getRemovalReason() { return removalReason; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,228 @@
+import gym.bench.Workload;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class implementing the benchmark operations on the gym members
+ * Operations go round the members one after the other, so every member count
+ * touches all of its members.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class GymWorkload implements Workload {
+    private static final double PAYMENT = 1000;  // Amount paid per payDueAmount call
+    private static final int CHANGES_PER_FLUSH = 100; // Check-ins between autosave flushes
+
+    private MemberRegistry registry;                 // Members being changed
+    private MemberRegistry readRegistry;             // Registry the members file is read into
+    private RegularMember[] regulars;                // Regular members in ID order
+    private PremiumMember[] premiums;                // Premium members in ID order
+    private int[] lookupIds;                         // Member IDs in random order
+    private HashMap<Integer, GymMember> boxedIndex;  // Same members in a boxed map, for comparison
+    private MemberColumns columns;                   // Column copy of the members, not kept in step
+    private File file;                               // Members file, or null
+    private File snapshotFile;                       // Snapshot of the same members, or null
+    private File storeFile;                          // Member store of the same members, or null
+    private MemberStore store;                       // Open member store, or null until first flushed
+    private MemberAutosaver autosaver;               // Writes changed members into the store
+    private int regularCursor;                       // Next regular member
+    private int premiumCursor;                       // Next premium member
+    private int lookupCursor;                        // Next ID to look up
+
+    @Override
+    public void setUp(int memberCount, File dir) throws IOException {
+        registry = new MemberRegistry();
+        readRegistry = new MemberRegistry();
+        boxedIndex = new HashMap<>();
+        regulars = new RegularMember[(memberCount + 1) / 2];
+        premiums = new PremiumMember[memberCount / 2];
+
+        for (int id = 1; id <= memberCount; id++) {
+            GymMember member;
+            if (id % 2 == 1) {
+                RegularMember regMember = new RegularMember(id, "Member " + id, "Kathmandu", "98" + (10000000 + id),
+                        "member" + id + "@gym.com", "Male", "1990-01-01", "2024-01-01", "Friend");
+                // Eligible for upgrade, so upgradePlan gets past the attendance check
+                regMember.restoreRegularState("basic", true, "");
+                regulars[id / 2] = regMember;
+                member = regMember;
+            } else {
+                PremiumMember premMember = new PremiumMember(id, "Member " + id, "Pokhara", "98" + (10000000 + id),
+                        "member" + id + "@gym.com", "Female", "1990-01-01", "2024-01-01", "Trainer");
+                premiums[id / 2 - 1] = premMember;
+                member = premMember;
+            }
+            registry.addMember(member);
+            boxedIndex.put(id, member);
+            member.activateMembership();
+        }
+
+        // Copied once and detached, so the other benchmarks do not pay for keeping it up to date
+        columns = new MemberColumns(registry);
+        columns.dispose();
+
+        // Shuffled IDs, so lookups do not walk memory in order
+        Random random = new Random(42);
+        lookupIds = new int[memberCount];
+        for (int i = 0; i < memberCount; i++) {
+            lookupIds[i] = i + 1;
+        }
+        for (int i = memberCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = lookupIds[i];
+            lookupIds[i] = lookupIds[j];
+            lookupIds[j] = temp;
+        }
+
+        if (dir != null) {
+            file = new File(dir, "members.txt");
+            snapshotFile = new File(dir, "members.snapshot");
+            storeFile = new File(dir, "members.store");
+            writeMembers();
+            writeSnapshot();
+        }
+    }
+
+    @Override
+    public void tearDown() {
+        if (autosaver != null) {
+            try {
+                autosaver.close();
+                store.close();
+            } catch (InterruptedException | IOException e) {
+                System.err.println("Member store close error: " + e);
+            }
+            autosaver = null;
+        }
+        if (file != null) {
+            file.delete();
+            snapshotFile.delete();
+            storeFile.delete();
+        }
+    }
+
+    @Override
+    public int markAttendanceRegular() {
+        RegularMember member = regulars[regularCursor];
+        regularCursor = regularCursor + 1 == regulars.length ? 0 : regularCursor + 1;
+        member.markAttendance();
+        return member.getAttendance();
+    }
+
+    @Override
+    public int markAttendancePremium() {
+        PremiumMember member = premiums[premiumCursor];
+        premiumCursor = premiumCursor + 1 == premiums.length ? 0 : premiumCursor + 1;
+        member.markAttendance();
+        return member.getAttendance();
+    }
+
+    @Override
+    public String upgradePlan() {
+        RegularMember member = regulars[regularCursor];
+        regularCursor = regularCursor + 1 == regulars.length ? 0 : regularCursor + 1;
+        return member.upgradePlan("standard".equals(member.getPlan()) ? "deluxe" : "standard");
+    }
+
+    @Override
+    public String payDueAmount() {
+        PremiumMember member = premiums[premiumCursor];
+        premiumCursor = premiumCursor + 1 == premiums.length ? 0 : premiumCursor + 1;
+        if (member.isFullPayment()) {
+            // Start paying again once the charge has been paid in full
+            member.restorePremiumState(0, member.getPersonalTrainer());
+        }
+        return member.payDueAmount(PAYMENT);
+    }
+
+    @Override
+    public Object findMemberById() {
+        int id = lookupIds[lookupCursor];
+        lookupCursor = lookupCursor + 1 == lookupIds.length ? 0 : lookupCursor + 1;
+        return registry.findMemberById(id);
+    }
+
+    @Override
+    public Object findMemberByIdBoxed() {
+        int id = lookupIds[lookupCursor];
+        lookupCursor = lookupCursor + 1 == lookupIds.length ? 0 : lookupCursor + 1;
+        return boxedIndex.get(id);
+    }
+
+    @Override
+    public int countActivePremiumByWalk() {
+        int count = 0;
+        for (GymMember member : registry.getMembers()) {
+            if (member instanceof PremiumMember && member.getActiveStatus()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int countActivePremiumByColumns() {
+        return columns.countType(MemberColumns.PREMIUM, true);
+    }
+
+    @Override
+    public double totalLoyaltyPointsByWalk() {
+        double total = 0;
+        for (GymMember member : registry.getMembers()) {
+            total += member.getLoyaltyPoints();
+        }
+        return total;
+    }
+
+    @Override
+    public double totalLoyaltyPointsByColumns() {
+        return columns.totalLoyaltyPoints();
+    }
+
+    @Override
+    public void writeMembers() throws IOException {
+        new MemberFileWriter().write(file, registry.getMembers());
+    }
+
+    @Override
+    public int readMembers() throws IOException {
+        return new MemberFileReader().read(file, readRegistry);
+    }
+
+    @Override
+    public int loadMembersParallel() throws IOException {
+        return new ParallelMemberLoader().load(file, readRegistry);
+    }
+
+    @Override
+    public void writeSnapshot() throws IOException {
+        new MemberSnapshot().write(snapshotFile, registry.getMembers());
+    }
+
+    @Override
+    public int readSnapshot() throws IOException {
+        return new MemberSnapshot().read(snapshotFile, readRegistry);
+    }
+
+    @Override
+    public int flushChangedMembers() throws IOException {
+        if (autosaver == null) {
+            // Created on first use, so only this benchmark pays for the store file
+            store = new MemberStore(storeFile);
+            for (GymMember member : registry.getMembers()) {
+                store.put(member);
+            }
+            store.force();
+            // Flushed only by this benchmark, not by the background thread
+            autosaver = new MemberAutosaver(registry, store, TimeUnit.HOURS.toMillis(1), Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < CHANGES_PER_FLUSH; i++) {
+            markAttendanceRegular();
+        }
+        return autosaver.flush();
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.HashMap;
+
+/**
+ * Heap used per member by the registry's ID index against a boxed HashMap
+ * Creates the members first, then fills one index at a time and measures how much
+ * the used heap grows after garbage collection. Integers above 127 are not cached,
+ * so every boxed key is a separate object, as it is when IDs are read from file.
+ *
+ * Usage: java -cp target/benchmarks.jar IdIndexFootprint [members]
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class IdIndexFootprint {
+    /**
+     * Main method - measures both indexes
+     *
+     * @param args Optional member count
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int memberCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        GymMember[] members = new GymMember[memberCount];
+        for (int i = 0; i < memberCount; i++) {
+            int id = i + 1;
+            members[i] = new RegularMember(id, "Member " + id, "Kathmandu", "98" + (10000000 + id),
+                    "member" + id + "@gym.com", "Male", "1990-01-01", "2024-01-01", "Friend");
+        }
+
+        long before = usedHeap();
+        IntMemberMap intMap = new IntMemberMap();
+        for (GymMember member : members) {
+            intMap.put(member.getId(), member);
+        }
+        long intMapBytes = usedHeap() - before;
+        check(intMap.get(memberCount / 2) == members[memberCount / 2 - 1]);
+        intMap = null;
+
+        before = usedHeap();
+        HashMap<Integer, GymMember> boxedMap = new HashMap<>();
+        for (GymMember member : members) {
+            boxedMap.put(member.getId(), member);
+        }
+        long boxedBytes = usedHeap() - before;
+        check(boxedMap.get(memberCount / 2) == members[memberCount / 2 - 1]);
+        boxedMap = null;
+
+        System.out.println(memberCount + " members");
+        System.out.println(String.format("IntMemberMap:              %6.1f MB, %5.1f bytes per member",
+                intMapBytes / 1e6, intMapBytes / (double) memberCount));
+        System.out.println(String.format("HashMap<Integer, GymMember>: %6.1f MB, %5.1f bytes per member",
+                boxedBytes / 1e6, boxedBytes / (double) memberCount));
+    }
+
+    /**
+     * @return Heap in use after collecting garbage
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Repeat until a collection frees nothing more
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(50);
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) break;
+            used = now;
+        }
+        return used;
+    }
+
+    /**
+     * Method to make sure a measured index really holds the members
+     */
+    private static void check(boolean found) {
+        if (!found) {
+            throw new IllegalStateException("Index lost a member");
+        }
+    }
+}
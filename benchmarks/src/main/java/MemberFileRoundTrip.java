@@ -0,0 +1,128 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * Round-trip check for the members file
+ * Writes members with MemberFileWriter and reads them back with MemberFileReader and
+ * ParallelMemberLoader. Besides ordinary members the file holds values longer than
+ * their columns (names, locations, phones and emails, and IDs with more than five
+ * digits), which push the rest of their line to the right. Every member must come
+ * back with the same fields the file keeps.
+ *
+ * Usage: java -cp target/benchmarks.jar MemberFileRoundTrip
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberFileRoundTrip {
+    /**
+     * Main method - runs the round trip
+     *
+     * @param args Not used
+     */
+    public static void main(String[] args) throws IOException {
+        ArrayList<GymMember> members = new ArrayList<>();
+        members.add(regular(1, "Bhumika Rayamajhi Long", "Kathmandu", "9812345678", "bhumika.rayamajhi@gmail.com"));
+        members.add(regular(2, "Ram", "Pokhara", "9800000002", "ram@gym.com"));
+        members.add(premium(3, "Sita Kumari Shrestha", "Lalitpur", "9800000003", "sita@gym.com"));
+        members.add(regular(4, "Hari", "Kathmandu Metropolitan City", "9800000004", "hari@gym.com"));
+        members.add(premium(5, "Gita", "Bhaktapur", "+977 980 000 0005", "gita@gym.com"));
+        members.add(regular(6, "Krishna Prasad Bahadur", "Chitwan", "9800000006",
+                            "krishna.prasad.bahadur@example.com"));
+        members.add(regular(7, "Exactly Fifteen", "Exactly fifteen", "980000000000007", "exactly.twenty.five@x.com"));
+        members.add(premium(8, "Bhumika Rayamaj Long", "Butwal", "9800000008", "b@gym.com"));
+        members.add(regular(9, "Name", "", "9800000009", "name9@gym.com"));
+        members.add(premium(1234567, "Wide Id Member With Long Name", "Dharan", "9800000010",
+                            "wide.id.member.with.long.name@gym.com"));
+
+        File dir = Files.createTempDirectory("gym-roundtrip").toFile();
+        File file = new File(dir, "members.txt");
+        boolean passed;
+        try {
+            new MemberFileWriter().write(file, members);
+
+            MemberRegistry read = new MemberRegistry();
+            new MemberFileReader().read(file, read);
+            passed = compare("MemberFileReader", members, read);
+
+            MemberRegistry loaded = new MemberRegistry();
+            new ParallelMemberLoader().load(file, loaded);
+            passed &= compare("ParallelMemberLoader", members, loaded);
+        } finally {
+            file.delete();
+            dir.delete();
+        }
+
+        System.out.println(passed ? "PASSED" : "FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method to check that a registry holds the same members as were written
+     *
+     * @return True if every member came back the same
+     */
+    private static boolean compare(String label, ArrayList<GymMember> written, MemberRegistry read) {
+        boolean passed = read.size() == written.size();
+        if (!passed) {
+            System.out.println(label + ": " + read.size() + " of " + written.size() + " members read");
+        }
+        for (GymMember member : written) {
+            GymMember back = read.findMemberById(member.getId());
+            String expected = describe(member);
+            String actual = back == null ? "missing" : describe(back);
+            if (!expected.equals(actual)) {
+                System.out.println(label + ": expected " + expected + "\n" + spaces(label) + "  but got  " + actual);
+                passed = false;
+            }
+        }
+        System.out.println(label + ": " + read.size() + " members read");
+        return passed;
+    }
+
+    /**
+     * @return The fields the members file keeps, as one line
+     */
+    private static String describe(GymMember member) {
+        String text = member.getId() + "|" + member.getName() + "|" + member.getLocation() + "|"
+                + member.getPhone() + "|" + member.getEmail() + "|" + member.getMembershipStartDate() + "|"
+                + member.getAttendance() + "|" + member.getLoyaltyPoints() + "|" + member.getActiveStatus();
+        if (member instanceof RegularMember) {
+            return text + "|" + ((RegularMember) member).getPlan();
+        }
+        return text + "|premium|" + ((PremiumMember) member).getPaidPaisa();
+    }
+
+    /**
+     * @return Spaces as wide as a label
+     */
+    private static String spaces(String label) {
+        return new String(new char[label.length()]).replace('\0', ' ');
+    }
+
+    /**
+     * @return An active regular member on the standard plan with some check-ins
+     */
+    private static RegularMember regular(int id, String name, String location, String phone, String email) {
+        RegularMember member = new RegularMember(id, name, location, phone, email, "Male",
+                                                 "1990-01-01", "2025-01-01", "Friend");
+        member.restoreState(id % 40, (id % 40) * 5.0, true);
+        member.restoreRegularState("standard", true, "");
+        return member;
+    }
+
+    /**
+     * @return A premium member who has paid part of the charge
+     */
+    private static PremiumMember premium(int id, String name, String location, String phone, String email) {
+        PremiumMember member = new PremiumMember(id, name, location, phone, email, "Female",
+                                                 "1990-01-01", "2024-06-15", "Trainer");
+        member.restoreState(id % 30, (id % 30) * 10.0, id % 2 == 0);
+        member.restorePremiumState(1234550, member.getPersonalTrainer());
+        return member;
+    }
+}
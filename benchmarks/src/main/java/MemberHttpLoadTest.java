@@ -0,0 +1,180 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Load test for MemberHttpServer
+ * Starts the server on a free port over a registry of generated members, then lets a
+ * number of clients send requests back to back: mostly check-ins, plus lookups,
+ * payments and activations, like kiosks and turnstiles would. After a warm-up the
+ * latency of every request is recorded, and the test prints the sustained throughput
+ * and the 50th, 90th, 99th and 99.9th percentile latencies.
+ *
+ * Usage: java -cp target/benchmarks.jar MemberHttpLoadTest [clients] [seconds] [members]
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberHttpLoadTest {
+    private static final int WARM_UP_SECONDS = 3;
+
+    /**
+     * Main method - runs the load test
+     *
+     * @param args Optional client count, measured seconds and member count
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        final int memberCount = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+
+        MemberRegistry registry = new MemberRegistry();
+        for (int id = 1; id <= memberCount; id++) {
+            GymMember member;
+            if (id % 2 == 1) {
+                member = new RegularMember(id, "Member " + id, "Kathmandu", "98" + (10000000 + id),
+                        "member" + id + "@gym.com", "Male", "1990-01-01", "2024-01-01", "Friend");
+            } else {
+                member = new PremiumMember(id, "Member " + id, "Pokhara", "98" + (10000000 + id),
+                        "member" + id + "@gym.com", "Female", "1990-01-01", "2024-01-01", "Trainer");
+            }
+            member.activateMembership();
+            registry.addMember(member);
+        }
+
+        MemberHttpServer.enableNoDelay();
+        MemberHttpServer server = new MemberHttpServer(new MemberService(registry), 0);
+        server.start();
+        final String base = "http://localhost:" + server.getPort() + "/members/";
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.println("Server on port " + server.getPort() + " with " + memberCount + " members, requests on "
+                + (MemberHttpServer.usesVirtualThreads() ? "virtual threads" : "a thread pool"));
+        System.out.println(clients + " clients, " + WARM_UP_SECONDS + " s warm-up, " + seconds + " s measured");
+
+        final long start = System.nanoTime();
+        final long measureFrom = start + WARM_UP_SECONDS * 1000000000L;
+        final long measureUntil = measureFrom + seconds * 1000000000L;
+        final long[][] latencies = new long[clients][];
+        final int[] counts = new int[clients];
+        final int[] errors = new int[clients];
+        final CountDownLatch finished = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            final int client_ = c;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(client_);
+                    long[] recorded = new long[1 << 16];
+                    int count = 0;
+                    int failed = 0;
+                    try {
+                        long now = System.nanoTime();
+                        while (now < measureUntil) {
+                            HttpRequest request = nextRequest(base, random, memberCount);
+                            boolean ok;
+                            try {
+                                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                                ok = response.statusCode() < 500;
+                            } catch (IOException e) {
+                                ok = false;
+                            }
+                            long end = System.nanoTime();
+                            if (now >= measureFrom) {
+                                if (count == recorded.length) {
+                                    recorded = Arrays.copyOf(recorded, count * 2);
+                                }
+                                recorded[count++] = end - now;
+                                if (!ok) failed++;
+                            }
+                            now = end;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        latencies[client_] = recorded;
+                        counts[client_] = count;
+                        errors[client_] = failed;
+                        finished.countDown();
+                    }
+                }
+            }, "client-" + c);
+            thread.start();
+        }
+        finished.await();
+        server.stop(0);
+
+        int total = 0;
+        int failed = 0;
+        for (int c = 0; c < clients; c++) {
+            total += counts[c];
+            failed += errors[c];
+        }
+        long[] all = new long[total];
+        int next = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, next, counts[c]);
+            next += counts[c];
+        }
+        Arrays.sort(all);
+
+        System.out.println("Requests: " + total + " (" + failed + " failed)");
+        System.out.println(String.format("Throughput: %.0f requests/s", total / (double) seconds));
+        if (total > 0) {
+            System.out.println(String.format("Latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                    percentile(all, 0.999), all[total - 1] / 1e6));
+        }
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method to pick the next request
+     * 70% check-ins, 20% lookups, 5% payments or plan changes and 5% activations
+     *
+     * @param base URL of the members path
+     * @param random Random numbers of the client
+     * @param memberCount Number of members
+     * @return The request
+     */
+    private static HttpRequest nextRequest(String base, Random random, int memberCount) {
+        int id = 1 + random.nextInt(memberCount);
+        int kind = random.nextInt(100);
+        if (kind < 70) {
+            return post(base + id + "/attendance");
+        } else if (kind < 90) {
+            return HttpRequest.newBuilder(URI.create(base + id)).GET().build();
+        } else if (kind < 95) {
+            return post(id % 2 == 0 ? base + id + "/payment?amount=1" : base + id + "/plan?plan=standard");
+        } else {
+            return post(base + id + "/activate");
+        }
+    }
+
+    /**
+     * @return POST request without a body
+     */
+    private static HttpRequest post(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    /**
+     * @return Latency at the given fraction of the sorted latencies, in milliseconds
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,482 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test for MemberService
+ * Several threads mark attendance, pay dues, change plans and activate members at
+ * random through one service, counting every change that succeeded. Afterwards each
+ * member's attendance, loyalty points and paid amount must match the counts, and the
+ * registry listener must have seen every change exactly once. Any lost update shows
+ * up as a difference.
+ *
+ * Runs once with a few hot members that every thread fights over and once with many
+ * members, then checks that regular members racing past the attendance limit are made
+ * eligible for upgrade exactly once, that a check-in racing a revert never leaves a
+ * reverted member eligible, and that concurrent batch check-ins each report the state
+ * left by their own check-in. Last, it times check-ins journaled with sync on from one
+ * thread and from all threads, where concurrent check-ins share forces to disk, and
+ * replays the journal to check that no check-in was lost. With "unsafe" as argument the members are changed
+ * directly, without the service, to show that the test does catch lost updates
+ * (check-ins are lock-free in the members themselves, payments are not).
+ *
+ * Usage: java -cp target/benchmarks.jar MemberServiceStress [threads] [operations per thread] [unsafe]
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class MemberServiceStress {
+    /**
+     * Main method - runs the stress test
+     *
+     * @param args Optional thread count, operations per thread and "unsafe"
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        boolean unsafe = args.length > 2 && args[2].equals("unsafe");
+
+        boolean passed = run("hot members", 8, threads, operations, unsafe)
+                       & run("many members", 100000, threads, operations, unsafe)
+                       & runEligibility(threads)
+                       & runRevertRace(200000)
+                       & runBatchResults(threads)
+                       & runJournaled(1)
+                       & runJournaled(threads);
+        System.out.println(passed ? "PASSED" : "FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method to run one round of the stress test
+     *
+     * @param label Name of the round
+     * @param memberCount Number of members, half regular and half premium
+     * @param threadCount Number of threads
+     * @param operations Operations per thread
+     * @param unsafe True to change the members without the service
+     * @return True if no update was lost
+     */
+    private static boolean run(String label, final int memberCount, int threadCount, final int operations,
+                               final boolean unsafe) throws InterruptedException {
+        MemberRegistry registry = new MemberRegistry();
+        final MemberService service = new MemberService(registry);
+        for (int id = 1; id <= memberCount; id++) {
+            GymMember member;
+            if (id % 2 == 1) {
+                RegularMember regMember = new RegularMember(id, "Member " + id, "Kathmandu", "98" + (10000000 + id),
+                        "member" + id + "@gym.com", "Male", "1990-01-01", "2024-01-01", "Friend");
+                regMember.restoreRegularState("basic", true, "");
+                member = regMember;
+            } else {
+                member = new PremiumMember(id, "Member " + id, "Pokhara", "98" + (10000000 + id),
+                        "member" + id + "@gym.com", "Female", "1990-01-01", "2024-01-01", "Trainer");
+            }
+            member.activateMembership();
+            service.addMember(member);
+        }
+
+        // Changes seen by the registry's listeners
+        final AtomicLong changesSeen = new AtomicLong();
+        registry.addMemberListener(new MemberListener() {
+            @Override
+            public void memberChanged(GymMember member, String operation, String argument) {
+                changesSeen.incrementAndGet();
+            }
+        });
+
+        // Successful changes per member, counted by every thread on its own
+        final long[][] attended = new long[threadCount][memberCount + 1];
+        final long[][] paid = new long[threadCount][memberCount + 1];
+        final long[] changesMade = new long[threadCount];
+
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(thread);
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < operations; i++) {
+                        int id = 1 + random.nextInt(memberCount);
+                        int choice = random.nextInt(10);
+                        if (choice < 6) {
+                            if (markAttendance(service, id, unsafe)) {
+                                attended[thread][id]++;
+                                changesMade[thread]++;
+                            }
+                        } else if (choice < 8 && id % 2 == 0) {
+                            String message = unsafe
+                                    ? ((PremiumMember) service.findMemberById(id)).payDueAmount(1)
+                                    : service.payDueAmount(id, 1);
+                            if (message.startsWith("Payment successful")) {
+                                paid[thread][id]++;
+                                changesMade[thread]++;
+                            }
+                        } else if (choice < 9 && id % 2 == 1) {
+                            RegularMember member = (RegularMember) service.findMemberById(id);
+                            String plan = "standard".equals(member.getPlan()) ? "deluxe" : "standard";
+                            String message = unsafe ? member.upgradePlan(plan) : service.upgradePlan(id, plan);
+                            if (message.startsWith("Plan upgraded")) {
+                                changesMade[thread]++;
+                            }
+                        } else if (choice == 9) {
+                            if (unsafe) {
+                                service.findMemberById(id).activateMembership();
+                            } else {
+                                service.activateMembership(id);
+                            }
+                            changesMade[thread]++;
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        // Compare every member with the counts
+        int wrong = 0;
+        long totalChanges = 0;
+        for (long changes : changesMade) {
+            totalChanges += changes;
+        }
+        for (int id = 1; id <= memberCount; id++) {
+            long attendance = 0;
+            long payments = 0;
+            for (int t = 0; t < threadCount; t++) {
+                attendance += attended[t][id];
+                payments += paid[t][id];
+            }
+            GymMember member = service.findMemberById(id);
+            synchronized (service.lockFor(id)) {
+                double pointsPerVisit = member instanceof RegularMember ? 5 : 10;
+                boolean ok = member.getAttendance() == attendance
+                        && member.getLoyaltyPoints() == attendance * pointsPerVisit
+                        && (member instanceof RegularMember || ((PremiumMember) member).getPaidAmount() == payments);
+                if (!ok) {
+                    wrong++;
+                }
+            }
+        }
+
+        boolean passed = wrong == 0 && changesSeen.get() == totalChanges;
+        System.out.println(label + ": " + threadCount + " threads x " + operations + " operations in "
+                + elapsed / 1000000 + " ms, " + totalChanges + " changes made, " + changesSeen.get()
+                + " seen by the listener, " + wrong + " members with lost updates"
+                + (passed ? "" : " <-- FAILED"));
+        return passed;
+    }
+
+    /**
+     * Method to mark attendance with or without the service
+     *
+     * @param service The service
+     * @param id The member ID
+     * @param unsafe True to change the member without the service
+     * @return True if attendance was marked
+     */
+    private static boolean markAttendance(MemberService service, int id, boolean unsafe) {
+        return unsafe ? service.findMemberById(id).markAttendance() : service.markAttendance(id);
+    }
+
+    /**
+     * Method to check that reaching the attendance limit makes a regular member
+     * eligible for upgrade exactly once while every thread checks in the same members
+     *
+     * @param threadCount Number of threads
+     * @return True if every member became eligible exactly once
+     */
+    private static boolean runEligibility(int threadCount) throws InterruptedException {
+        final int memberCount = 1000;
+        final MemberService service = new MemberService(new MemberRegistry());
+        final int[] eligibleEvents = new int[memberCount + 1];
+        for (int id = 1; id <= memberCount; id++) {
+            RegularMember member = new RegularMember(id, "Member " + id, "Kathmandu", "98" + (10000000 + id),
+                    "member" + id + "@gym.com", "Male", "1990-01-01", "2024-01-01", "Friend");
+            member.activateMembership();
+            service.addMember(member);
+            member.setListener(new MemberListener() {
+                @Override
+                public void memberChanged(GymMember changed, String operation, String argument) {
+                    if (UPGRADE_ELIGIBLE.equals(operation)) {
+                        synchronized (eligibleEvents) {
+                            eligibleEvents[changed.getId()]++;
+                        }
+                    }
+                }
+            });
+        }
+
+        // Every thread checks in every member up to twice the limit
+        final int checkIns = 2 * ((RegularMember) service.findMemberById(1)).getAttendanceLimit();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < checkIns; i++) {
+                        for (int id = 1; id <= memberCount; id++) {
+                            service.markAttendance(id);
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        int wrong = 0;
+        for (int id = 1; id <= memberCount; id++) {
+            RegularMember member = (RegularMember) service.findMemberById(id);
+            if (eligibleEvents[id] != 1 || !member.getIsEligibleForUpgrade()
+                    || member.getAttendance() != threadCount * checkIns) {
+                wrong++;
+            }
+        }
+        System.out.println("upgrade eligibility: " + threadCount + " threads x " + checkIns + " check-ins for "
+                + memberCount + " members, " + wrong + " members not made eligible exactly once"
+                + (wrong == 0 ? "" : " <-- FAILED"));
+        return wrong == 0;
+    }
+
+    /**
+     * Method to check that a check-in racing a revert cannot make the reverted member eligible
+     * In every round one thread checks in a member one attendance short of the limit while
+     * another reverts it. Whichever goes first, the member must end up inactive, with no
+     * attendance and not eligible for upgrade.
+     *
+     * @param rounds Number of rounds
+     * @return True if no round left the reverted member eligible
+     */
+    private static boolean runRevertRace(final int rounds) throws InterruptedException {
+        final MemberService service = new MemberService(new MemberRegistry());
+        final RegularMember member = new RegularMember(1, "Member 1", "Kathmandu", "9810000001",
+                "member1@gym.com", "Male", "1990-01-01", "2024-01-01", "Friend");
+        service.addMember(member);
+        final int limit = member.getAttendanceLimit();
+        final CyclicBarrier start = new CyclicBarrier(2, new Runnable() {
+            @Override
+            public void run() {
+                // Set up the next round while both threads wait
+                member.restoreState(limit - 1, 5.0 * (limit - 1), true);
+                member.restoreRegularState("basic", false, "");
+            }
+        });
+        final CyclicBarrier end = new CyclicBarrier(2);
+
+        Thread checkIns = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < rounds; i++) {
+                        start.await();
+                        service.markAttendance(1);
+                        end.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    // The other thread stopped, so stop too
+                }
+            }
+        });
+        checkIns.start();
+
+        int wrong = 0;
+        try {
+            for (int i = 0; i < rounds; i++) {
+                start.await();
+                service.revertRegularMember(1, "Moved away");
+                end.await();
+                GymMember.AttendanceState state = member.getAttendanceState();
+                if (state.isActive() || state.getAttendance() != 0 || state.isEligibleForUpgrade()) {
+                    wrong++;
+                }
+            }
+        } catch (BrokenBarrierException e) {
+            throw new IllegalStateException("Check-in thread stopped", e);
+        }
+        checkIns.join();
+
+        System.out.println("revert race: " + rounds + " rounds, " + wrong
+                + " reverted members left active, attended or eligible" + (wrong == 0 ? "" : " <-- FAILED"));
+        return wrong == 0;
+    }
+
+    /**
+     * Method to check that batch check-in results hold the state of their own check-in
+     * Every thread checks in the same few members in batches. Each check-in adds one
+     * attendance, so across all threads every attendance of a member must be reported
+     * exactly once, with the loyalty points and eligibility that go with it.
+     *
+     * @param threadCount Number of threads
+     * @return True if every result matched its own check-in
+     */
+    private static boolean runBatchResults(int threadCount) throws InterruptedException {
+        final int memberCount = 4;
+        final int batches = 2000;
+        MemberRegistry registry = new MemberRegistry();
+        final MemberService service = new MemberService(registry);
+        for (int id = 1; id <= memberCount; id++) {
+            RegularMember member = new RegularMember(id, "Member " + id, "Kathmandu", "98" + (10000000 + id),
+                    "member" + id + "@gym.com", "Male", "1990-01-01", "2024-01-01", "Friend");
+            member.activateMembership();
+            service.addMember(member);
+        }
+        final int limit = ((RegularMember) service.findMemberById(1)).getAttendanceLimit();
+
+        final int[] ids = new int[memberCount];
+        final long[] timestamps = new long[memberCount];
+        for (int i = 0; i < memberCount; i++) {
+            ids[i] = i + 1;
+        }
+        final int total = threadCount * batches;
+        final boolean[][] reported = new boolean[memberCount + 1][total + 1];
+        final AtomicLong wrong = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int b = 0; b < batches; b++) {
+                        for (CheckInResult result : service.checkInBatch(ids, timestamps)) {
+                            int attendance = result.getAttendance();
+                            boolean ok = result.isCheckedIn() && attendance >= 1 && attendance <= total
+                                    && result.getLoyaltyPoints() == attendance * 5.0
+                                    && result.isEligibleForUpgrade() == (attendance >= limit);
+                            synchronized (reported) {
+                                if (ok && !reported[result.getMemberId()][attendance]) {
+                                    reported[result.getMemberId()][attendance] = true;
+                                } else {
+                                    wrong.incrementAndGet();
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        System.out.println("batch results: " + threadCount + " threads x " + batches + " batches of "
+                + memberCount + " members, " + wrong.get() + " results not matching their own check-in"
+                + (wrong.get() == 0 ? "" : " <-- FAILED"));
+        return wrong.get() == 0;
+    }
+
+    /**
+     * Method to time journaled check-ins and check that the journal holds all of them
+     * Each thread checks in its own members for a fixed time, through a journal with sync
+     * on, so every check-in waits until its line is on disk. A check-in that shares a
+     * force with others returns sooner; with one thread every check-in forces alone.
+     * The journal is then replayed into a new registry, which must end up with the same
+     * attendance as the members checked in.
+     *
+     * @param threadCount Number of threads
+     * @return True if the replayed attendance matched
+     */
+    private static boolean runJournaled(int threadCount) throws InterruptedException, IOException {
+        final long runNanos = 2000000000L;
+        File membersFile = File.createTempFile("stress-members", ".txt");
+        File journalFile = new File(membersFile.getPath() + ".journal");
+        try {
+            MemberRegistry registry = new MemberRegistry();
+            final MemberService service = new MemberService(registry);
+            MemberJournal journal = new MemberJournal(journalFile, true);
+            journal.checkpoint(membersFile);
+            registry.addMemberListener(journal);
+            for (int id = 1; id <= threadCount; id++) {
+                PremiumMember member = new PremiumMember(id, "Member " + id, "Kathmandu", "98" + (10000000 + id),
+                        "member" + id + "@gym.com", "Male", "1990-01-01", "2024-01-01", "Trainer");
+                member.activateMembership();
+                service.addMember(member);
+            }
+
+            final AtomicLong checkIns = new AtomicLong();
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread[] workers = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                final int id = t + 1;
+                workers[t] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        long end = System.nanoTime() + runNanos;
+                        long count = 0;
+                        while (System.nanoTime() < end) {
+                            if (service.markAttendance(id)) {
+                                count++;
+                            }
+                        }
+                        checkIns.addAndGet(count);
+                    }
+                });
+                workers[t].start();
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+            journal.close();
+
+            MemberRegistry replayed = new MemberRegistry();
+            new MemberJournal(journalFile, true).replay(replayed, membersFile);
+            long wrong = 0;
+            for (int id = 1; id <= threadCount; id++) {
+                GymMember member = replayed.findMemberById(id);
+                if (member == null || member.getAttendance() != service.findMemberById(id).getAttendance()) {
+                    wrong++;
+                }
+            }
+
+            System.out.println(String.format("journaled check-ins: %d threads, %.0f check-ins/s, %d members replayed wrong%s",
+                    threadCount, checkIns.get() / seconds, wrong, wrong == 0 ? "" : " <-- FAILED"));
+            return wrong == 0;
+        } finally {
+            journalFile.delete();
+            membersFile.delete();
+        }
+    }
+}
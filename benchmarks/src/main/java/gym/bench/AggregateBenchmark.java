@@ -0,0 +1,60 @@
+package gym.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Report totals computed from the member objects against the member columns
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AggregateBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int memberCount;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws IOException {
+        workload = Workload.create();
+        workload.setUp(memberCount, null);
+    }
+
+    @Benchmark
+    public int countActivePremiumByWalk() {
+        return workload.countActivePremiumByWalk();
+    }
+
+    @Benchmark
+    public int countActivePremiumByColumns() {
+        return workload.countActivePremiumByColumns();
+    }
+
+    @Benchmark
+    public double totalLoyaltyPointsByWalk() {
+        return workload.totalLoyaltyPointsByWalk();
+    }
+
+    @Benchmark
+    public double totalLoyaltyPointsByColumns() {
+        return workload.totalLoyaltyPointsByColumns();
+    }
+}
@@ -0,0 +1,36 @@
+package gym.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar
+ * Runs JMH with the usual command line options, always with the GC profiler so
+ * the allocation rate is reported next to ops/s, and writes the results to
+ * jmh-result.json for publishing.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public class BenchmarkMain {
+    /**
+     * Main method - runs the benchmarks
+     *
+     * @param args JMH command line options, e.g. a benchmark name pattern or -p memberCount=1000
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
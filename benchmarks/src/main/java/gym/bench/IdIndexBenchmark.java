@@ -0,0 +1,52 @@
+package gym.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup latency of the registry's ID index against a boxed HashMap
+ * Both look up the same shuffled IDs, so at large member counts every lookup
+ * misses the CPU caches the way a desk lookup would.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IdIndexBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int memberCount;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws IOException {
+        workload = Workload.create();
+        workload.setUp(memberCount, null);
+    }
+
+    @Benchmark
+    public Object intMemberMap() {
+        return workload.findMemberById();
+    }
+
+    @Benchmark
+    public Object boxedHashMap() {
+        return workload.findMemberByIdBoxed();
+    }
+}
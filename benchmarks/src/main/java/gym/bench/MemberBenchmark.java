@@ -0,0 +1,66 @@
+package gym.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the member operations behind the GUI buttons
+ * Each call works on the next member, going round all members of the registry.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MemberBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int memberCount;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws IOException {
+        workload = Workload.create();
+        workload.setUp(memberCount, null);
+    }
+
+    @Benchmark
+    public int markAttendanceRegular() {
+        return workload.markAttendanceRegular();
+    }
+
+    @Benchmark
+    public int markAttendancePremium() {
+        return workload.markAttendancePremium();
+    }
+
+    @Benchmark
+    public String upgradePlan() {
+        return workload.upgradePlan();
+    }
+
+    @Benchmark
+    public String payDueAmount() {
+        return workload.payDueAmount();
+    }
+
+    @Benchmark
+    public Object findMemberById() {
+        return workload.findMemberById();
+    }
+}
@@ -0,0 +1,86 @@
+package gym.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of writing and reading the members file and the snapshot
+ * writeMembers is what "Save to file" does, readMembers and loadMembersParallel
+ * what "Read from file" does for small and large files. writeSnapshot and
+ * readSnapshot are the binary snapshot written along with the members file and
+ * restored at startup. flushChangedMembers is an autosave of 100 changed members
+ * into the member store, which costs the same for every member count.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int memberCount;
+
+    private Workload workload;
+    private File dir;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("gym-bench").toFile();
+        workload = Workload.create();
+        workload.setUp(memberCount, dir);
+    }
+
+    @TearDown
+    public void tearDown() {
+        workload.tearDown();
+        dir.delete();
+    }
+
+    @Benchmark
+    public void writeMembers() throws IOException {
+        workload.writeMembers();
+    }
+
+    @Benchmark
+    public int readMembers() throws IOException {
+        return workload.readMembers();
+    }
+
+    @Benchmark
+    public int loadMembersParallel() throws IOException {
+        return workload.loadMembersParallel();
+    }
+
+    @Benchmark
+    public void writeSnapshot() throws IOException {
+        workload.writeSnapshot();
+    }
+
+    @Benchmark
+    public int readSnapshot() throws IOException {
+        return workload.readSnapshot();
+    }
+
+    @Benchmark
+    public int flushChangedMembers() throws IOException {
+        return workload.flushChangedMembers();
+    }
+}
@@ -0,0 +1,160 @@
+package gym.bench;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Member operations measured by the benchmarks
+ * The application classes are in the default package, which the benchmark classes
+ * generated by JMH cannot refer to. The benchmarks therefore call the application
+ * through this interface, implemented by GymWorkload in the default package.
+ *
+ * @author Bhumika Rayamajhi
+ * @version 2.0
+ */
+public interface Workload {
+    /**
+     * Method to create the members, half regular and half premium, all active
+     *
+     * @param memberCount Number of members
+     * @param dir Directory for the members file, or null if no file is needed
+     * @throws IOException If the members file cannot be written
+     */
+    void setUp(int memberCount, File dir) throws IOException;
+
+    /**
+     * Method to remove the members file
+     */
+    void tearDown();
+
+    /**
+     * Method to mark attendance for the next regular member
+     *
+     * @return The member's attendance
+     */
+    int markAttendanceRegular();
+
+    /**
+     * Method to mark attendance for the next premium member
+     *
+     * @return The member's attendance
+     */
+    int markAttendancePremium();
+
+    /**
+     * Method to move the next regular member between the standard and deluxe plans
+     *
+     * @return The message of upgradePlan
+     */
+    String upgradePlan();
+
+    /**
+     * Method to pay part of the premium charge of the next premium member
+     *
+     * @return The message of payDueAmount
+     */
+    String payDueAmount();
+
+    /**
+     * Method to look up the next member of a shuffled list of IDs
+     *
+     * @return The member found
+     */
+    Object findMemberById();
+
+    /**
+     * Method to look up the next member of the same shuffled IDs in a
+     * HashMap<Integer, GymMember>, the registry's ID index before IntMemberMap
+     *
+     * @return The member found
+     */
+    Object findMemberByIdBoxed();
+
+    /**
+     * Method to count the active premium members by walking the member objects
+     *
+     * @return Number of active premium members
+     */
+    int countActivePremiumByWalk();
+
+    /**
+     * Method to count the active premium members in the member columns
+     *
+     * @return Number of active premium members
+     */
+    int countActivePremiumByColumns();
+
+    /**
+     * Method to add up the loyalty points by walking the member objects
+     *
+     * @return Total loyalty points
+     */
+    double totalLoyaltyPointsByWalk();
+
+    /**
+     * Method to add up the loyalty points in the member columns
+     *
+     * @return Total loyalty points
+     */
+    double totalLoyaltyPointsByColumns();
+
+    /**
+     * Method to write all members to the members file
+     *
+     * @throws IOException If an error occurs during file writing
+     */
+    void writeMembers() throws IOException;
+
+    /**
+     * Method to read the members file on the calling thread
+     *
+     * @return Number of members read
+     * @throws IOException If an error occurs during file reading
+     */
+    int readMembers() throws IOException;
+
+    /**
+     * Method to read the members file in parallel chunks
+     *
+     * @return Number of members read
+     * @throws IOException If an error occurs during file reading
+     */
+    int loadMembersParallel() throws IOException;
+
+    /**
+     * Method to write all members to the binary snapshot
+     *
+     * @throws IOException If an error occurs during file writing
+     */
+    void writeSnapshot() throws IOException;
+
+    /**
+     * Method to restore the members from the binary snapshot
+     *
+     * @return Number of members read
+     * @throws IOException If an error occurs during file reading
+     */
+    int readSnapshot() throws IOException;
+
+    /**
+     * Method to check in the next 100 regular members and write only those members
+     * into a member store with MemberAutosaver
+     *
+     * @return Number of members written
+     * @throws IOException If an error occurs during file writing
+     */
+    int flushChangedMembers() throws IOException;
+
+    /**
+     * Method to create the workload implementation
+     *
+     * @return A new workload
+     */
+    static Workload create() {
+        try {
+            return (Workload) Class.forName("GymWorkload").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create GymWorkload", e);
+        }
+    }
+}